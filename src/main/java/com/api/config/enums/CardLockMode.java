@@ -0,0 +1,20 @@
+package com.api.config.enums;
+
+
+/**
+ * Class CardLockMode
+ *
+ * Enum representing how concurrent modifications of a card row are handled.
+ */
+public enum CardLockMode {
+    /**
+     * The card row is locked when it is read (SELECT ... FOR UPDATE): concurrent writers wait.
+     */
+    pessimistic,
+
+    /**
+     * The card row is read without a lock and the update checks the card version:
+     * a concurrent modification fails the update and the operation is retried.
+     */
+    optimistic
+}
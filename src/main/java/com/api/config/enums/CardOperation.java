@@ -0,0 +1,19 @@
+package com.api.config.enums;
+
+
+/**
+ * Class CardOperation
+ *
+ * Enum representing the operations that modify cards, each one with its own {@link CardLockMode}.
+ */
+public enum CardOperation {
+    /**
+     * Transfer between two cards (balances of both cards).
+     */
+    transfer,
+
+    /**
+     * Update of a card by the admin (card data, status, daily limit).
+     */
+    card_update
+}
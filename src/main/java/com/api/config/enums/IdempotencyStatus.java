@@ -0,0 +1,19 @@
+package com.api.config.enums;
+
+
+/**
+ * Class IdempotencyStatus
+ *
+ * Enum representing possible statuses of a request made with an Idempotency-Key.
+ */
+public enum IdempotencyStatus {
+    /**
+     * The request is being processed.
+     */
+    pending,
+
+    /**
+     * The request is done, a retry returns its result.
+     */
+    completed
+}
@@ -0,0 +1,29 @@
+package com.api.config.enums;
+
+
+/**
+ * Class TransferOutcome
+ *
+ * Enum representing how a transfer phase ended (tag `outcome` of the `transaction.transfer.phase` timer).
+ */
+public enum TransferOutcome {
+    success,
+    insufficient_funds,
+    limit_exceeded,
+
+    /**
+     * A card row lock was not acquired in time.
+     */
+    lock_timeout,
+
+    /**
+     * The card was modified concurrently (optimistic locking mode).
+     */
+    lock_conflict,
+
+    /**
+     * Any other validation failure (inactive card, different owners, no permission...).
+     */
+    rejected,
+    error
+}
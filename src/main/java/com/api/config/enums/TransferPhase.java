@@ -0,0 +1,49 @@
+package com.api.config.enums;
+
+
+/**
+ * Class TransferPhase
+ *
+ * Enum representing the timed phases of a transfer (tag `phase` of the `transaction.transfer.phase` timer).
+ */
+public enum TransferPhase {
+    /**
+     * The source card ownership query of the endpoint.
+     */
+    permission_check,
+
+    /**
+     * Reading the source and destination cards, with the row locks in the pessimistic mode.
+     */
+    card_lock,
+
+    /**
+     * The daily limit check (the card daily expenses query).
+     */
+    daily_limit,
+
+    /**
+     * Writing both card balances.
+     */
+    card_save,
+
+    /**
+     * Inserting the transaction.
+     */
+    transaction_insert,
+
+    /**
+     * Updating the daily expenses counter of the source card.
+     */
+    daily_spend_update,
+
+    /**
+     * The commit of the DB transaction.
+     */
+    commit,
+
+    /**
+     * The whole transfer, from the service call to the commit.
+     */
+    total
+}
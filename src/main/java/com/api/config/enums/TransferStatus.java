@@ -0,0 +1,24 @@
+package com.api.config.enums;
+
+
+/**
+ * Class TransferStatus
+ *
+ * Enum representing possible statuses of a transfer submitted asynchronously.
+ */
+public enum TransferStatus {
+    /**
+     * The transfer is queued or being made.
+     */
+    pending,
+
+    /**
+     * The transfer is made.
+     */
+    completed,
+
+    /**
+     * The transfer is not made (see the message).
+     */
+    failed
+}
@@ -1,6 +1,7 @@
 package com.api.controller;
 
 import com.api.dto.*;
+import com.api.dto.error.ErrorMessageResponseDto;
 import com.api.dto.error.ValidationErrorMessageResponseDto;
 import com.api.service.interfaces.CardService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -53,6 +54,24 @@ public class CardController {
         return ResponseEntity.ok(cardService.getCardById(cardIdDto.getId()));
     }
 
+    /**
+     * Retrieves a card by its number.
+     * Accessible only by admin.
+     *
+     * @param cardNumberDto the DTO containing the card number (in the body, so it isn't written to the access logs).
+     */
+    @Operation(summary = "get card by number - only for admin")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(schema = @Schema(implementation = CardDto.class), mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Bad request (non valid number or no such card)",  content = @Content(schema = @Schema(implementation = ValidationErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+    )
+    @PostMapping("/number")
+    @PreAuthorize("isAuthenticated() && hasRole('ADMIN')")
+    public ResponseEntity<CardDto> getCardByNumber(@RequestBody @Valid CardNumberDto cardNumberDto){
+        return ResponseEntity.ok(cardService.getCardByNumber(cardNumberDto.getNumber()));
+    }
+
     /**
      * Adds a new card to the system.
      * Accessible only by admin.
@@ -168,6 +187,28 @@ public class CardController {
         return ResponseEntity.ok(cardService.findAll(PageRequest.of(page, size)));
     }
 
+    /**
+     * Retrieves all cards in the system in the order of their IDs (keyset paging).
+     * Unlike {@link #findAll(int, int)}, there is no total count and the cost of a page doesn't depend on its depth.
+     * Accessible only by admin.
+     *
+     * @param cursor the nextCursor of the previous page (absent for the first page).
+     * @param size the number of cards per page (default is 3, at most 100).
+     * @return a {@link ResponseEntity} containing a {@link SeekPageDto} of {@link CardDto}.
+     */
+    @Operation(summary = "get all cards (keyset paging) - only for admin")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(schema = @Schema(implementation = SeekPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad request (invalid cursor or page size)",  content = @Content(schema = @Schema(implementation = ErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+    )
+    @GetMapping("/all/seek")
+    @PreAuthorize("isAuthenticated() && hasRole('ADMIN')")
+    public ResponseEntity<SeekPageDto<CardDto>> findAllSeek(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "3") int size){
+        return ResponseEntity.ok(cardService.findAll(cursor, size));
+    }
+
     /**
      * Retrieves all cards by card owner ID (paged).
      * Accessible only by admin or the card owner.
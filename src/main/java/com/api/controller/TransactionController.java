@@ -1,9 +1,14 @@
 package com.api.controller;
 
 import com.api.dto.*;
+import com.api.dto.error.ErrorMessageResponseDto;
 import com.api.dto.error.ValidationErrorMessageResponseDto;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.AsyncTransferService;
+import com.api.service.interfaces.IdempotencyService;
 import com.api.service.interfaces.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,6 +24,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Class TransactionController
  *
@@ -33,6 +40,9 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransferDispatcher transferDispatcher;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
 
     /**
      * Get a transaction by its ID.
@@ -114,18 +124,88 @@ public class TransactionController {
     /**
      * Initiates a transaction between two cards.
      * Accessible only by the source card owner.
+     * A retry with the same Idempotency-Key returns the original result instead of making the transaction again.
      *
      * @param paymentDto DTO containing the details of the transaction to be made
+     * @param idempotencyKey optional client-generated key of the request
      */
     @Operation(summary = "make a transaction - only for a source card owner")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Transaction is made"),
-            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+            @ApiResponse(responseCode = "200", description = "Transaction is made (or was already made with the same Idempotency-Key)"),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none")),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress",  content = @Content(mediaType = "none"))}
     )
     @PostMapping("/make")
     @PreAuthorize("isAuthenticated() && @permissionChecker.isSourceCardOwnerRequestToMakeTransaction(#paymentDto, authentication.principal)")
-    public void makeTransaction(@RequestBody @Valid PaymentDto paymentDto){
-        transactionService.makeTransaction(paymentDto.getSourceCardId(), paymentDto.getDestinationCardId(), paymentDto.getAmount());
+    public void makeTransaction(@RequestBody @Valid PaymentDto paymentDto,
+                                @Parameter(description = "Client-generated key to safely retry the request")
+                                @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey){
+        idempotencyService.executeOnce(idempotencyKey, paymentDto, inTransaction -> transferDispatcher.dispatch(
+                paymentDto.getSourceCardId(), paymentDto.getDestinationCardId(), paymentDto.getAmount(), inTransaction));
+    }
+
+    /**
+     * Submits a transaction between two cards to be made in the background.
+     * Accessible only by the source card owner.
+     * The request returns right away; the status is available with the returned transfer ID.
+     *
+     * @param paymentDto DTO containing the details of the transaction to be made
+     * @return ResponseEntity containing the pending status with the transfer ID
+     */
+    @Operation(summary = "submit a transaction to be made in the background - only for a source card owner")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Transaction is accepted (see its status by the transfer id)", content = @Content(schema = @Schema(implementation = TransferStatusDto.class), mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Bad request (non valid data)",  content = @Content(schema = @Schema(implementation = ValidationErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none")),
+            @ApiResponse(responseCode = "500", description = "Too many transactions in progress",  content = @Content(mediaType = "none"))}
+    )
+    @PostMapping("/make/async")
+    @PreAuthorize("isAuthenticated() && @permissionChecker.isSourceCardOwnerRequestToMakeTransaction(#paymentDto, authentication.principal)")
+    public ResponseEntity<TransferStatusDto> submitTransaction(@RequestBody @Valid PaymentDto paymentDto){
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(asyncTransferService.submit(paymentDto));
+    }
+
+    /**
+     * Gets the status of a transaction submitted in the background.
+     * Accessible only by the source card owner.
+     * With a wait time the response is sent as soon as the transaction is made or failed (long-poll),
+     * without holding a request thread meanwhile.
+     *
+     * @param transferIdDto DTO containing the transfer ID
+     * @param waitMillis maximum time to wait for a pending transaction, in milliseconds (default 0)
+     * @return ResponseEntity containing the status of the transfer
+     */
+    @Operation(summary = "get the status of a transaction submitted in the background - only for a source card owner")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(schema = @Schema(implementation = TransferStatusDto.class), mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated), access denied or unknown transfer",  content = @Content(mediaType = "none"))}
+    )
+    @PostMapping("/make/async/status")
+    @PreAuthorize("isAuthenticated() && @permissionChecker.isSourceCardOwnerRequestToGetTransferStatus(#transferIdDto, authentication.principal)")
+    public CompletableFuture<ResponseEntity<TransferStatusDto>> getTransferStatus(@RequestBody @Valid IdDto transferIdDto,
+                                                                                  @RequestParam(defaultValue = "0") long waitMillis){
+        return asyncTransferService.getStatus(transferIdDto.getId(), waitMillis).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Makes many transactions in one request and one database transaction.
+     * Accessible only by the owner of every source card.
+     *
+     * @param batchPaymentDto DTO containing the payments to be made, in order
+     * @return ResponseEntity containing the result of each payment
+     */
+    @Operation(summary = "make a batch of transactions - only for the source cards owner")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch is processed (see the result of each payment)", content = @Content(schema = @Schema(implementation = BatchPaymentResultDto.class), mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Bad request (non valid data)",  content = @Content(schema = @Schema(implementation = ValidationErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+    )
+    @PostMapping("/make/batch")
+    @PreAuthorize("isAuthenticated() && @permissionChecker.isSourceCardsOwnerRequestToMakeBatchTransaction(#batchPaymentDto, authentication.principal)")
+    public ResponseEntity<BatchPaymentResultDto> makeTransactions(@RequestBody @Valid BatchPaymentDto batchPaymentDto){
+        return ResponseEntity.ok(transactionService.makeTransactions(batchPaymentDto.getPayments()));
     }
 
     /**
@@ -148,6 +228,28 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.findAll(PageRequest.of(page, size)));
     }
 
+    /**
+     * Fetches all transactions with keyset (seek) pagination, newest first.
+     * Unlike {@link #findAll(int, int)}, there is no total count and the cost of a page doesn't depend on its depth.
+     * Accessible only by the admin.
+     *
+     * @param cursor The nextCursor of the previous page (absent for the first page)
+     * @param size The page size (default 3, at most 100)
+     * @return ResponseEntity containing a SeekPageDto of TransactionDto objects
+     */
+    @Operation(summary = "get all transactions (keyset paging, newest first) - only for admin")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success",  content = @Content(schema = @Schema(implementation = SeekPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Bad request (invalid cursor or page size)",  content = @Content(schema = @Schema(implementation = ErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+    )
+    @GetMapping("/all/seek")
+    @PreAuthorize("isAuthenticated() && hasRole('ADMIN')")
+    public ResponseEntity<SeekPageDto<TransactionDto>> findAllSeek(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "3") int size){
+        return ResponseEntity.ok(transactionService.findAll(cursor, size));
+    }
+
     /**
      * Fetches all transactions by card ID with pagination.
      * Accessible by both the admin and card owner.
@@ -172,4 +274,31 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.findAllByCardId(cardIdDto.getId(),PageRequest.of(page, size)));
     }
 
+    /**
+     * Fetches all transactions by card ID with keyset (seek) pagination, newest first.
+     * Unlike {@link #findAllByCardId(IdDto, int, int)}, there is no total count
+     * and the cost of a page doesn't depend on its depth.
+     * Accessible by both the admin and card owner.
+     *
+     * @param cardIdDto DTO containing the card ID
+     * @param cursor The nextCursor of the previous page (absent for the first page)
+     * @param size The page size (default 3, at most 100)
+     * @return ResponseEntity containing a SeekPageDto of TransactionDto objects
+     */
+    @Operation(summary = "get all transaction by source or destination card id (keyset paging, newest first) - only for admin and card owner")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(schema = @Schema(implementation = SeekPageDto.class), mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Bad request (invalid cursor or page size)",  content = @Content(schema = @Schema(implementation = ErrorMessageResponseDto.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden (non authenticated) or access denied",  content = @Content(mediaType = "none"))}
+    )
+    @PostMapping("/all/card/seek")
+    @PreAuthorize("isAuthenticated() && " +
+            "(hasRole('ADMIN') || " +
+            "@permissionChecker.isCardOwner(#cardIdDto, authentication.principal))")
+    public ResponseEntity<SeekPageDto<TransactionDto>> findAllByCardIdSeek(@RequestBody @Valid IdDto cardIdDto,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "3") int size){
+        return ResponseEntity.ok(transactionService.findAllByCardId(cardIdDto.getId(), cursor, size));
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+/**
+ * Class BatchPaymentDto
+ *
+ * BatchPaymentDto is a Data Transfer Object (DTO) used for making many payment transactions in one request.
+ * All the payments are executed in a single database transaction; each payment succeeds or fails on its own.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BatchPaymentDto {
+
+    /**
+     * The payments to be processed, in the order they are applied.
+     * @return the list of payments.
+     */
+    @NotEmpty(message = "Payments list can't be empty")
+    @Size(max = 5000, message = "Max 5000 payments per batch")
+    @Schema(description = "Payments to be processed in order")
+    private List<@Valid @NotNull(message = "Payment can't be null") PaymentDto> payments;
+}
@@ -0,0 +1,40 @@
+package com.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+/**
+ * Class BatchPaymentResultDto
+ *
+ * BatchPaymentResultDto is a Data Transfer Object (DTO) representing the results of a batch of payments.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class BatchPaymentResultDto {
+
+    /**
+     * The number of the payments that are made.
+     */
+    @Schema(description = "Number of made payments", example = "2")
+    private int succeeded;
+
+    /**
+     * The number of the payments that failed.
+     */
+    @Schema(description = "Number of failed payments", example = "1")
+    private int failed;
+
+    /**
+     * The result of each payment, in the request order.
+     */
+    @Schema(description = "Result of each payment in the request order")
+    private List<PaymentResultDto> results;
+}
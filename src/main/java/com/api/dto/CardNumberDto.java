@@ -0,0 +1,30 @@
+package com.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Class CardNumberDto
+ *
+ * CardNumberDto is a Data Transfer Object (DTO) used to find a card by its number.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CardNumberDto {
+
+    /**
+     * The plain card number.
+     */
+    @NotNull(message = "Card number can't be null")
+    @Pattern(regexp = "\\d{4}-\\d{4}-\\d{4}-\\d{4}", message = "Non valid number")
+    @Schema(description = "Card number", example = "0000-0000-0000-0000")
+    private String number;
+
+}
@@ -0,0 +1,54 @@
+package com.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.UUID;
+
+/**
+ * Class PaymentResultDto
+ *
+ * PaymentResultDto is a Data Transfer Object (DTO) representing the result of a single payment of a batch.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PaymentResultDto {
+
+    /**
+     * The position of the payment in the request list.
+     */
+    @Schema(description = "Position of the payment in the batch", example = "0")
+    private int index;
+
+    /**
+     * Whether the payment is made.
+     */
+    @Schema(description = "Payment is made", example = "true")
+    private boolean success;
+
+    /**
+     * The ID of the created transaction (only for successful payments).
+     */
+    @Schema(description = "Created transaction id", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID transactionId;
+
+    /**
+     * The reason of the failure (only for failed payments).
+     */
+    @Schema(description = "Failure reason", example = "Insufficient funds")
+    private String message;
+
+    public static PaymentResultDto success(int index, UUID transactionId) {
+        return new PaymentResultDto(index, true, transactionId, null);
+    }
+
+    public static PaymentResultDto failure(int index, String message) {
+        return new PaymentResultDto(index, false, null, message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+/**
+ * Class SeekPageDto
+ *
+ * SeekPageDto is a Data Transfer Object (DTO) representing a page of a keyset (seek) paginated listing.
+ * There is no total count: the next page is requested with the {@code cursor} of this one.
+ *
+ * @param <T> the type of the items.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class SeekPageDto<T> {
+
+    /**
+     * The items of the page.
+     */
+    @Schema(description = "Items of the page")
+    private List<T> content;
+
+    /**
+     * The opaque continuation token of the next page, or null if this is the last page.
+     */
+    @Schema(description = "Cursor of the next page (null on the last page)", example = "Y3w4YjE0...")
+    private String nextCursor;
+}
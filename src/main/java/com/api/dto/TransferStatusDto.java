@@ -0,0 +1,53 @@
+package com.api.dto;
+
+import com.api.config.enums.TransferStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.UUID;
+
+/**
+ * Class TransferStatusDto
+ *
+ * TransferStatusDto is a Data Transfer Object (DTO) representing the status of a transfer submitted asynchronously.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class TransferStatusDto {
+
+    /**
+     * The ID of the submitted transfer.
+     */
+    @Schema(description = "Transfer id", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID transferId;
+
+    /**
+     * The status of the transfer: "pending", "completed" or "failed".
+     */
+    @Schema(description = "Transfer status", example = "pending")
+    private TransferStatus status;
+
+    /**
+     * The reason of the failure (only for failed transfers).
+     */
+    @Schema(description = "Failure reason", example = "Insufficient funds")
+    private String message;
+
+    public static TransferStatusDto pending(UUID transferId) {
+        return new TransferStatusDto(transferId, TransferStatus.pending, null);
+    }
+
+    public static TransferStatusDto completed(UUID transferId) {
+        return new TransferStatusDto(transferId, TransferStatus.completed, null);
+    }
+
+    public static TransferStatusDto failed(UUID transferId, String message) {
+        return new TransferStatusDto(transferId, TransferStatus.failed, message);
+    }
+}
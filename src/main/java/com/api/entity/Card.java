@@ -1,6 +1,7 @@
 package com.api.entity;
 
 import com.api.config.enums.CardStatus;
+import com.api.util.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.UuidGenerator;
@@ -76,6 +77,28 @@ public class Card {
     @Column(name = "transaction_limit_per_day", precision = 10, scale = 2)
     private BigDecimal transactionLimitPerDay;
 
+    /**
+     * The version of the card row, incremented by every update.
+     * Used by the optimistic locking mode to detect concurrent modifications.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * The last 4 digits of the card number, kept in clear so the masked number is built without decryption.
+     * Null for the cards created before the column, until the backfill job fills it in.
+     */
+    @Column(name = "number_last4", length = 4)
+    private String numberLast4;
+
+    /**
+     * The blind index of the card number (keyed hash, see {@link com.api.util.BlindIndex}), to find a card by its number.
+     * Null for the cards created before the column, until the backfill job fills it in.
+     */
+    @Column(name = "number_hash", length = 64)
+    private String numberHash;
+
 
     public Card(String number, User owner, LocalDateTime expirationDate,CardStatus status,
                 BigDecimal balance, BigDecimal transactionLimitPerDay) {
@@ -94,4 +117,25 @@ public class Card {
     public void setTransactionLimitPerDay(BigDecimal transactionLimitPerDay) {
         this.transactionLimitPerDay = transactionLimitPerDay.setScale(2, RoundingMode.HALF_UP);
     }
+
+    /**
+     * The balance in cents (see {@link Money}).
+     */
+    public long getBalanceMinor() {
+        return Money.toMinor(balance);
+    }
+
+    /**
+     * Sets the balance from cents; the column value is built only here.
+     */
+    public void setBalanceMinor(long balanceMinor) {
+        this.balance = Money.toBigDecimal(balanceMinor);
+    }
+
+    /**
+     * The transaction limit per day in cents, {@link Long#MAX_VALUE} if the card has no limit.
+     */
+    public long getTransactionLimitPerDayMinor() {
+        return Money.toMinorOrUnlimited(transactionLimitPerDay);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class CardBalanceSnapshot
+ *
+ * Represents the balance of a card including all its postings up to {@code lastPostingId}.
+ * Rolled forward periodically by the compactor, so a balance read only sums the postings made since then.
+ * A card without a snapshot starts from {@code cards.balance}.
+ */
+@Entity
+@Table(name = "card_balance_snapshots")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CardBalanceSnapshot {
+
+    /**
+     * The ID of the card.
+     */
+    @Id
+    @Column(name = "card_id")
+    private UUID cardId;
+
+    /**
+     * The balance of the card after the posting {@code lastPostingId}, with two decimal precision.
+     */
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    /**
+     * The ID of the last posting included in the balance.
+     */
+    @Column(name = "last_posting_id", nullable = false)
+    private long lastPostingId;
+
+    /**
+     * The date and time of the compaction that took the snapshot.
+     */
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
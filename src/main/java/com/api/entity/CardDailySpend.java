@@ -0,0 +1,36 @@
+package com.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+
+/**
+ * Class CardDailySpend
+ *
+ * Represents the accumulated expenses of a source card for a single day.
+ * The row is maintained incrementally in the same database transaction as the transfer itself,
+ * so the daily limit check is a single primary key lookup instead of a SUM over the card transactions.
+ */
+@Entity
+@Table(name = "card_daily_spend")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CardDailySpend {
+
+    /**
+     * The card ID and the day of the expenses.
+     */
+    @EmbeddedId
+    private CardDailySpendId id;
+
+    /**
+     * The total amount sent from the card during the day, with two decimal precision.
+     */
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal amount;
+}
@@ -0,0 +1,38 @@
+package com.api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Class CardDailySpendId
+ *
+ * Composite identifier of the {@link CardDailySpend} entity: one row per card and per day.
+ */
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class CardDailySpendId implements Serializable {
+
+    /**
+     * The ID of the source card the expenses belong to.
+     */
+    @Column(name = "card_id", nullable = false)
+    private UUID cardId;
+
+    /**
+     * The day the expenses were made.
+     */
+    @Column(name = "spend_date", nullable = false)
+    private LocalDate spendDate;
+}
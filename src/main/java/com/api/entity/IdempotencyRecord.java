@@ -0,0 +1,57 @@
+package com.api.entity;
+
+import com.api.config.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class IdempotencyRecord
+ *
+ * Represents a transfer made with an Idempotency-Key header.
+ * The record is created before the transfer (as {@code pending}) and completed after it,
+ * so a retry with the same key is answered from the record instead of making the transfer again.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class IdempotencyRecord {
+
+    /**
+     * The source card ID and the key.
+     */
+    @EmbeddedId
+    private IdempotencyRecordId id;
+
+    /**
+     * The ID of the destination card of the transfer.
+     */
+    @Column(name = "destination_card_id", nullable = false)
+    private UUID destinationCardId;
+
+    /**
+     * The amount of the transfer, with two decimal precision.
+     */
+    @Column(precision = 10, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * The status of the request: "pending" or "completed".
+     */
+    @Enumerated(EnumType.STRING)
+    private IdempotencyStatus status;
+
+    /**
+     * The date and time the key was first received (the records are deleted after a TTL).
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Class IdempotencyRecordId
+ *
+ * Composite identifier of the {@link IdempotencyRecord} entity.
+ * Keys are scoped by the source card, so the keys of different card owners never collide.
+ */
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class IdempotencyRecordId implements Serializable {
+
+    /**
+     * The ID of the source card of the transfer.
+     */
+    @Column(name = "source_card_id", nullable = false)
+    private UUID sourceCardId;
+
+    /**
+     * The value of the Idempotency-Key header.
+     */
+    @Column(name = "idempotency_key", nullable = false)
+    private String key;
+}
@@ -0,0 +1,35 @@
+package com.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Class LedgerCheckpoint
+ *
+ * Represents the position of the ledger projection: the sequence of the last write-ahead log record
+ * written to the database. The table has a single row (id 1), updated in the same DB transaction
+ * as the projected records, so the records after it are exactly the ones to replay on startup.
+ */
+@Entity
+@Table(name = "ledger_checkpoint")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class LedgerCheckpoint {
+
+    /**
+     * The ID of the row (always 1).
+     */
+    @Id
+    private Integer id;
+
+    /**
+     * The sequence of the last projected record (0 if nothing is projected yet).
+     */
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+}
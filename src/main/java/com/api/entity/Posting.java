@@ -0,0 +1,58 @@
+package com.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class Posting
+ *
+ * Represents one side of a transfer in the append-only double-entry model: every transaction has a debit
+ * (negative amount) on the source card and a credit (positive amount) on the destination card.
+ * Postings are never updated; the balance of a card is its latest {@link CardBalanceSnapshot}
+ * plus the postings made after it.
+ */
+@Entity
+@Table(name = "postings")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class Posting {
+
+    /**
+     * The increasing ID of the posting (the snapshots refer to the last posting they include).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The ID of the transaction the posting belongs to.
+     */
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    /**
+     * The ID of the debited or credited card.
+     */
+    @Column(name = "card_id", nullable = false)
+    private UUID cardId;
+
+    /**
+     * The amount: negative for a debit, positive for a credit, with two decimal precision.
+     */
+    @Column(precision = 12, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    /**
+     * The date and time the posting was made.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.api.entity;
 
+import com.api.util.Money;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -78,6 +79,20 @@ public class Transaction {
         this.amount = amount.setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Constructs a new `Transaction` instance with the amount in cents (see {@link Money}).
+     * @param source the source card for the transaction.
+     * @param destination the destination card for the transaction.
+     * @param dateTime the local date and time when the transaction occurred.
+     * @param amountMinor the amount of money being transferred, in cents.
+     */
+    public Transaction(Card source, Card destination, LocalDateTime dateTime, long amountMinor) {
+        this.source = source;
+        this.destination = destination;
+        this.localDateTime = dateTime;
+        this.amount = Money.toBigDecimal(amountMinor);
+    }
+
     /**
      * Sets the amount for the transaction with two decimal precision.
      * @param amount the new amount to set for the transaction.
@@ -0,0 +1,19 @@
+package com.api.exception;
+
+/**
+ * Class ConflictException
+ *
+ * Custom exception class for handling conflicts with the current state of a resource,
+ * e.g. a request with the same Idempotency-Key that is still in progress.
+ */
+public class ConflictException extends RuntimeException{
+
+    /**
+     * Constructor for creating a new instance of ConflictException.
+     *
+     * @param errorMessage The message that explains the conflict.
+     */
+    public ConflictException(String errorMessage){
+        super(errorMessage);
+    }
+}
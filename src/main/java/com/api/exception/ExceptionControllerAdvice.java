@@ -96,6 +96,23 @@ public class ExceptionControllerAdvice {
                 .body(getResponseBody(e.getMessage()));
     }
 
+    /**
+     * Handles ConflictException and returns a CONFLICT response with the error message.
+     *
+     * @param e The ConflictException to be handled.
+     * @return A ResponseEntity with a custom error message and a CONFLICT status.
+     * @throws JsonProcessingException if the error message cannot be processed.
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorMessageResponseDto> conflictExceptionHandler(ConflictException e)
+            throws JsonProcessingException {
+        log.error("Exception: ConflictException. " +
+                "Exception message: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(getResponseBody(e.getMessage()));
+    }
+
     /**
      * Handles OkException and returns an OK response with the error message.
      *
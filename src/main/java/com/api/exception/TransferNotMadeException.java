@@ -0,0 +1,19 @@
+package com.api.exception;
+
+/**
+ * Class TransferNotMadeException
+ *
+ * Server error of a transfer that is known not to be made (e.g. the transfer queue is full
+ * or the DB transaction of the transfer is rolled back after a lock timeout), so it may be sent again.
+ */
+public class TransferNotMadeException extends ServerException{
+
+    /**
+     * Constructor for creating a new instance of TransferNotMadeException.
+     *
+     * @param errorMessage The message that explains why the transfer is not made.
+     */
+    public TransferNotMadeException(String errorMessage){
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,57 @@
+package com.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Class CardLockEvent
+ *
+ * JFR event of a SELECT ... FOR UPDATE of card rows: its duration is the time spent waiting for the row locks
+ * (plus the query itself). Recorded over the threshold (10 ms by default, {@code com.api.CardLock#threshold}).
+ */
+@Name(CardLockEvent.NAME)
+@Label("Card Lock")
+@Category({"Bank Cards", "Transfers"})
+@Description("Locking card rows, slower than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+public class CardLockEvent extends Event {
+
+    public static final String NAME = "com.api.CardLock";
+
+    @Label("Cards")
+    @Description("Comma-separated hashes of the locked card IDs")
+    private String cards;
+
+    @Label("Card Count")
+    private int cardCount;
+
+    /**
+     * Ends the event and commits it if it is over the threshold (the card IDs are hashed only then).
+     */
+    public void commitIfSlow(Collection<UUID> cardIds) {
+        end();
+        if (shouldCommit()) {
+            this.cards = cardIds.stream().distinct().map(JfrCards::hash).collect(Collectors.joining(","));
+            this.cardCount = cardIds.size();
+            commit();
+        }
+    }
+
+    public void commitIfSlow(UUID cardId) {
+        end();
+        if (shouldCommit()) {
+            this.cards = JfrCards.hash(cardId);
+            this.cardCount = 1;
+            commit();
+        }
+    }
+}
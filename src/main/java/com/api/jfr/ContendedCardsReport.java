@@ -0,0 +1,132 @@
+package com.api.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class ContendedCardsReport
+ *
+ * Offline analyzer of a flight recording: reads the transfer events ({@link CardLockEvent}, {@link TransferEvent},
+ * {@link TransferWriteEvent}) of a `.jfr` file and prints the cards with the most lock wait time.
+ * Needs only the JDK, so it runs from the compiled classes without the application:
+ *
+ * <pre>
+ * java -cp target/classes com.api.jfr.ContendedCardsReport transfers.jfr [top]
+ * java -cp target/classes com.api.jfr.ContendedCardsReport --hash &lt;card id&gt;...
+ * </pre>
+ *
+ * The second form prints the hash of a card ID, to find a known card in the report.
+ */
+public final class ContendedCardsReport {
+
+    private static final int DEFAULT_TOP = 10;
+
+    /**
+     * The slow events of a card in the recording.
+     *
+     * @param card the hash of the card ID.
+     * @param lockWaits the number of slow row lock waits that include the card.
+     * @param totalLockWait the total duration of these waits.
+     * @param maxLockWait the longest of these waits.
+     * @param slowTransfers the number of slow transfers from or to the card.
+     * @param slowWrites the number of slow transfer writes from or to the card.
+     */
+    public record CardContention(String card, long lockWaits, Duration totalLockWait, Duration maxLockWait,
+                                 long slowTransfers, long slowWrites) {}
+
+    private static final class Counters {
+        private long lockWaits;
+        private Duration totalLockWait = Duration.ZERO;
+        private Duration maxLockWait = Duration.ZERO;
+        private long slowTransfers;
+        private long slowWrites;
+    }
+
+    private ContendedCardsReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: ContendedCardsReport <recording.jfr> [top] | --hash <card id>...");
+            System.exit(1);
+        }
+        if ("--hash".equals(args[0])) {
+            for (int i = 1; i < args.length; i++) {
+                System.out.println(args[i] + " " + JfrCards.hash(UUID.fromString(args[i])));
+            }
+            return;
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TOP;
+        print(read(Path.of(args[0])), top, System.out);
+    }
+
+    /**
+     * Reads the transfer events of a recording, by card, the most contended card first
+     * (total lock wait, then the number of slow transfers).
+     *
+     * @param recording the `.jfr` file.
+     */
+    public static List<CardContention> read(Path recording) throws IOException {
+        Map<String, Counters> cards = new HashMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case CardLockEvent.NAME -> {
+                        Duration wait = event.getDuration();
+                        for (String card : event.getString("cards").split(",")) {
+                            Counters counters = cards.computeIfAbsent(card, key -> new Counters());
+                            counters.lockWaits++;
+                            counters.totalLockWait = counters.totalLockWait.plus(wait);
+                            if (wait.compareTo(counters.maxLockWait) > 0) {
+                                counters.maxLockWait = wait;
+                            }
+                        }
+                    }
+                    case TransferEvent.NAME -> {
+                        cards.computeIfAbsent(event.getString("sourceCard"), key -> new Counters()).slowTransfers++;
+                        cards.computeIfAbsent(event.getString("destinationCard"), key -> new Counters()).slowTransfers++;
+                    }
+                    case TransferWriteEvent.NAME -> {
+                        cards.computeIfAbsent(event.getString("sourceCard"), key -> new Counters()).slowWrites++;
+                        cards.computeIfAbsent(event.getString("destinationCard"), key -> new Counters()).slowWrites++;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        List<CardContention> report = new ArrayList<>(cards.size());
+        cards.forEach((card, counters) -> report.add(new CardContention(card, counters.lockWaits,
+                counters.totalLockWait, counters.maxLockWait, counters.slowTransfers, counters.slowWrites)));
+        report.sort(Comparator.comparing(CardContention::totalLockWait)
+                .thenComparingLong(CardContention::slowTransfers)
+                .reversed());
+        return report;
+    }
+
+    /**
+     * Prints the first cards of the report as a table.
+     */
+    public static void print(List<CardContention> report, int top, PrintStream out) {
+        out.printf("%-16s | %10s | %15s | %13s | %14s | %11s%n",
+                "card", "lock waits", "total wait (ms)", "max wait (ms)", "slow transfers", "slow writes");
+        report.stream().limit(top).forEach(card -> out.printf("%-16s | %10d | %15.1f | %13.1f | %14d | %11d%n",
+                card.card(), card.lockWaits(), card.totalLockWait().toNanos() / 1e6, card.maxLockWait().toNanos() / 1e6,
+                card.slowTransfers(), card.slowWrites()));
+        if (report.isEmpty()) {
+            out.println("no transfer events in the recording (is a recording running with the events enabled?)");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.api.jfr;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Class JfrCards
+ *
+ * How the transfer events describe cards and amounts: a card ID is recorded as a short hash
+ * (a flight recording can be handed over without the card IDs in it), an amount as its order of magnitude.
+ */
+public final class JfrCards {
+
+    private static final String[] AMOUNT_BUCKETS = {"<1", "1-10", "10-100", "100-1k", "1k-10k", "10k-100k", "100k+"};
+
+    private JfrCards() {
+    }
+
+    /**
+     * The first 8 bytes of the SHA-256 of the card ID, in hex.
+     * Only computed for the events that are committed (slower than their threshold).
+     *
+     * @param cardId the card ID.
+     */
+    public static String hash(UUID cardId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(cardId.toString().getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The order of magnitude of an amount: "&lt;1", "1-10", "10-100", ... "100k+".
+     *
+     * @param amount the amount.
+     */
+    public static String amountBucket(BigDecimal amount) {
+        int integerDigits = amount.precision() - amount.scale();
+        return AMOUNT_BUCKETS[Math.max(0, Math.min(integerDigits, AMOUNT_BUCKETS.length - 1))];
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.jfr;
+
+import com.api.config.enums.TransferOutcome;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Class TransferEvent
+ *
+ * JFR event of a transfer made by {@code TransactionServiceImpl.makeTransaction}, recorded when it is slower
+ * than the threshold (50 ms by default, {@code com.api.Transfer#threshold} in the recording settings).
+ */
+@Name(TransferEvent.NAME)
+@Label("Transfer")
+@Category({"Bank Cards", "Transfers"})
+@Description("A card to card transfer, from the service call to the commit")
+@Threshold("50 ms")
+@StackTrace(false)
+public class TransferEvent extends Event {
+
+    public static final String NAME = "com.api.Transfer";
+
+    @Label("Source Card")
+    @Description("Hash of the source card ID")
+    private String sourceCard;
+
+    @Label("Destination Card")
+    @Description("Hash of the destination card ID")
+    private String destinationCard;
+
+    @Label("Amount Bucket")
+    private String amountBucket;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Lock Wait")
+    @Description("Reading and locking the card rows")
+    @Timespan(Timespan.NANOSECONDS)
+    private long lockWait;
+
+    @Label("Commit Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long commitTime;
+
+    public void setLockWait(long lockWaitNanos) {
+        this.lockWait = lockWaitNanos;
+    }
+
+    public void setCommitTime(long commitTimeNanos) {
+        this.commitTime = commitTimeNanos;
+    }
+
+    /**
+     * Ends the event and commits it if it is over the threshold (the card IDs are hashed only then).
+     */
+    public void commitIfSlow(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, TransferOutcome outcome) {
+        end();
+        if (shouldCommit()) {
+            this.sourceCard = JfrCards.hash(sourceCardId);
+            this.destinationCard = JfrCards.hash(destinationCardId);
+            this.amountBucket = JfrCards.amountBucket(amount);
+            this.outcome = outcome.name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import java.util.UUID;
+
+/**
+ * Class TransferWriteEvent
+ *
+ * JFR event of the writes of a transfer by the entity executor (both card updates, the transaction insert
+ * and the daily expenses counter). Recorded over the threshold (10 ms by default, {@code com.api.TransferWrite#threshold}).
+ */
+@Name(TransferWriteEvent.NAME)
+@Label("Transfer Write")
+@Category({"Bank Cards", "Transfers"})
+@Description("The card updates and inserts of a transfer, slower than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+public class TransferWriteEvent extends Event {
+
+    public static final String NAME = "com.api.TransferWrite";
+
+    @Label("Source Card")
+    @Description("Hash of the source card ID")
+    private String sourceCard;
+
+    @Label("Destination Card")
+    @Description("Hash of the destination card ID")
+    private String destinationCard;
+
+    /**
+     * Ends the event and commits it if it is over the threshold (the card IDs are hashed only then).
+     */
+    public void commitIfSlow(UUID sourceCardId, UUID destinationCardId) {
+        end();
+        if (shouldCommit()) {
+            this.sourceCard = JfrCards.hash(sourceCardId);
+            this.destinationCard = JfrCards.hash(destinationCardId);
+            commit();
+        }
+    }
+}
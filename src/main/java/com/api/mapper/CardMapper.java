@@ -0,0 +1,45 @@
+package com.api.mapper;
+
+import com.api.dto.CardDto;
+import com.api.dto.CardDtoNoId;
+import com.api.entity.Card;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueCheckStrategy;
+
+/**
+ * Class CardMapper
+ *
+ * Mapper between the `Card` entity and its DTOs, generated at compile time.
+ * The card number is masked on the way out and encrypted on the way in, with its last 4 digits stored
+ * in clear and its blind index (see {@link CardNumberMapper});
+ * null amounts are not passed to the setters of the entity, which scale them.
+ */
+@Mapper(config = MappingConfig.class, uses = {UserMapper.class, CardNumberMapper.class})
+public interface CardMapper {
+
+    // set by CardNumberMapper.maskNumber
+    @Mapping(target = "number", ignore = true)
+    CardDto toDto(Card card);
+
+    @Mapping(target = "number", ignore = true)
+    CardDtoNoId toDtoNoId(Card card);
+
+    @BeanMapping(nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+    @Mapping(target = "number", qualifiedByName = "encrypt")
+    @Mapping(target = "numberLast4", source = "number", qualifiedByName = "last4")
+    @Mapping(target = "numberHash", source = "number", qualifiedByName = "hash")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "balanceMinor", ignore = true)
+    Card toEntity(CardDto cardDto);
+
+    @BeanMapping(nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "number", qualifiedByName = "encrypt")
+    @Mapping(target = "numberLast4", source = "number", qualifiedByName = "last4")
+    @Mapping(target = "numberHash", source = "number", qualifiedByName = "hash")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "balanceMinor", ignore = true)
+    Card toEntity(CardDtoNoId cardDtoNoId);
+}
@@ -0,0 +1,139 @@
+package com.api.mapper;
+
+import com.api.dto.CardDto;
+import com.api.dto.CardDtoNoId;
+import com.api.entity.Card;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class CardNumberMapper
+ *
+ * Converts the card numbers between the entities (encrypted) and the DTOs (plain on the way in, masked on the way out).
+ * The masked number is built from the stored last 4 digits; the number is decrypted only for a card
+ * that has not been backfilled yet. The blind index of the number ({@link BlindIndex}) is computed on the way in.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardNumberMapper {
+
+    public static final String MASKED = "****";
+    private static final String MASK_PREFIX = "****-****-****-";
+
+    private final EncryptionUtil encryptionUtil;
+    private final BlindIndex blindIndex;
+
+    /**
+     * Sets the masked number of a mapped card.
+     */
+    @AfterMapping
+    public void maskNumber(Card card, @MappingTarget CardDto cardDto) {
+        cardDto.setNumber(mask(card));
+    }
+
+    /**
+     * Sets the masked number of a mapped card.
+     */
+    @AfterMapping
+    public void maskNumber(Card card, @MappingTarget CardDtoNoId cardDtoNoId) {
+        cardDtoNoId.setNumber(mask(card));
+    }
+
+    /**
+     * Returns the masked number of a card, from its last 4 digits or, if they are not stored yet, its decrypted number.
+     *
+     * @param card the card.
+     */
+    @Named("mask")
+    public String mask(Card card) {
+        String last4 = card.getNumberLast4();
+        return last4 != null ? MASK_PREFIX + last4 : decryptAndMask(card.getNumber());
+    }
+
+    /**
+     * Returns the last 4 digits of a plain card number.
+     *
+     * @param number the card number.
+     * @return the last 4 digits, or null if the number has less than 4 digits.
+     */
+    @Named("last4")
+    public static String last4(String number) {
+        if (number == null) return null;
+        StringBuilder digits = new StringBuilder(4);
+        for (int i = number.length() - 1; i >= 0 && digits.length() < 4; i--) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() == 4 ? digits.reverse().toString() : null;
+    }
+
+    /**
+     * Returns the blind index of a plain card number.
+     *
+     * @param number the card number.
+     * @return the hash, or null if the number is null or has no digits.
+     */
+    @Named("hash")
+    public String hash(String number) {
+        return blindIndex.hash(number);
+    }
+
+    /**
+     * Decrypts a card number and masks it, keeping only the last 4 digits.
+     *
+     * @param encrypted the encrypted card number.
+     * @return the masked number, or {@value #MASKED} if it can't be decrypted.
+     */
+    @Named("decryptAndMask")
+    public String decryptAndMask(String encrypted) {
+        if (encrypted == null) {
+            log.error("Nothing to decrypt and mask. Card number is null");
+            return MASKED;
+        }
+        try {
+            return mask(encryptionUtil.decrypt(encrypted));
+        } catch (Exception e) {
+            log.error("Decryption failed", e);
+            return MASKED;
+        }
+    }
+
+    /**
+     * Encrypts a card number.
+     *
+     * @param number the card number.
+     * @return the encrypted number, or null if it can't be encrypted.
+     */
+    @Named("encrypt")
+    public String encrypt(String number) {
+        if (number == null) {
+            log.error("Nothing to encrypt. Card number is null");
+            return null;
+        }
+        try {
+            return encryptionUtil.encrypt(number);
+        } catch (Exception e) {
+            log.error("Encryption failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Masks a card number, keeping only the last 4 digits.
+     *
+     * @param number decrypted card number
+     */
+    private static String mask(String number) {
+        if (number == null || number.length() < 4) return MASKED;
+        return MASK_PREFIX + number.substring(number.length() - 4);
+    }
+}
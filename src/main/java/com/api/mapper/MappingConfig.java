@@ -0,0 +1,20 @@
+package com.api.mapper;
+
+import org.mapstruct.Builder;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Class MappingConfig
+ *
+ * Shared configuration of the generated mappers: Spring beans with constructor injection,
+ * built with the no-args constructor and the setters (the setters of the entities scale the amounts)
+ * rather than the Lombok builders.
+ */
+@MapperConfig(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        builder = @Builder(disableBuilder = true))
+public interface MappingConfig {
+}
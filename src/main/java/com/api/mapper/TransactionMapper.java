@@ -0,0 +1,28 @@
+package com.api.mapper;
+
+import com.api.dto.TransactionDto;
+import com.api.dto.TransactionDtoNoId;
+import com.api.entity.Transaction;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.NullValueCheckStrategy;
+
+/**
+ * Class TransactionMapper
+ *
+ * Mapper between the `Transaction` entity and its DTOs, generated at compile time.
+ * The source and destination cards are mapped with {@link CardMapper} (masked card numbers).
+ */
+@Mapper(config = MappingConfig.class, uses = CardMapper.class)
+public interface TransactionMapper {
+
+    TransactionDto toDto(Transaction transaction);
+
+    @BeanMapping(nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+    Transaction toEntity(TransactionDto transactionDto);
+
+    @BeanMapping(nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
+    @Mapping(target = "id", ignore = true)
+    Transaction toEntity(TransactionDtoNoId transactionDtoNoId);
+}
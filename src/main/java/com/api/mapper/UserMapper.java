@@ -0,0 +1,26 @@
+package com.api.mapper;
+
+import com.api.dto.UserDto;
+import com.api.dto.UserDtoNoId;
+import com.api.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Class UserMapper
+ *
+ * Mapper between the `User` entity and its DTOs, generated at compile time.
+ */
+@Mapper(config = MappingConfig.class)
+public interface UserMapper {
+
+    UserDto toDto(User user);
+
+    // `authorities` is computed by User (UserDetails) and has no setter
+    @Mapping(target = "authorities", ignore = true)
+    User toEntity(UserDto userDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "authorities", ignore = true)
+    User toEntity(UserDtoNoId userDtoNoId);
+}
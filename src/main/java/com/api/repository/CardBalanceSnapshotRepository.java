@@ -0,0 +1,60 @@
+package com.api.repository;
+
+import com.api.entity.CardBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class CardBalanceSnapshotRepository
+ *
+ * Repository interface for managing `CardBalanceSnapshot` entities and rolling them forward over the postings.
+ */
+@Repository
+public interface CardBalanceSnapshotRepository extends JpaRepository<CardBalanceSnapshot, UUID> {
+
+    /**
+     * Rolls the snapshots of the cards that have new postings forward to the given posting (set-based,
+     * one row written per card instead of one per transfer). Joins the caller's transaction.
+     *
+     * @param lastPostingId The last posting to include (all the postings up to it must be committed).
+     * @param takenAt The date and time of the compaction.
+     * @return the number of rolled snapshots.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".card_balance_snapshots (card_id, balance, last_posting_id, taken_at)
+            SELECT c.id, COALESCE(s.balance, c.balance) + d.delta, d.last_id, :takenAt
+            FROM (
+                SELECT p.card_id, SUM(p.amount) AS delta, MAX(p.id) AS last_id
+                FROM \"bank_cards_management\".postings p
+                LEFT JOIN \"bank_cards_management\".card_balance_snapshots ps ON ps.card_id = p.card_id
+                WHERE p.id > COALESCE(ps.last_posting_id, 0)
+                  AND p.id <= :lastPostingId
+                GROUP BY p.card_id
+            ) d
+            JOIN \"bank_cards_management\".cards c ON c.id = d.card_id
+            LEFT JOIN \"bank_cards_management\".card_balance_snapshots s ON s.card_id = d.card_id
+            ON CONFLICT (card_id)
+            DO UPDATE SET balance = EXCLUDED.balance, last_posting_id = EXCLUDED.last_posting_id, taken_at = EXCLUDED.taken_at
+            """, nativeQuery = true)
+    int rollForward(long lastPostingId, LocalDateTime takenAt);
+
+    /**
+     * Copies the balances of the snapshots taken by a compaction to the `cards` rows,
+     * so the card endpoints show them. Joins the caller's transaction.
+     *
+     * @param takenAt The date and time of the compaction.
+     * @return the number of updated cards.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE \"bank_cards_management\".cards c SET balance = s.balance
+            FROM \"bank_cards_management\".card_balance_snapshots s
+            WHERE s.card_id = c.id AND s.taken_at = :takenAt AND c.balance <> s.balance
+            """, nativeQuery = true)
+    int copyBalancesToCards(LocalDateTime takenAt);
+}
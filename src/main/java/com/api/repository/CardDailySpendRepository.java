@@ -0,0 +1,122 @@
+package com.api.repository;
+
+import com.api.entity.CardDailySpend;
+import com.api.entity.CardDailySpendId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class CardDailySpendRepository
+ *
+ * Repository interface for managing `CardDailySpend` entities.
+ * Keeps per-card, per-day expense counters and provides the queries to rebuild them
+ * from the `transactions` table.
+ */
+@Repository
+public interface CardDailySpendRepository extends JpaRepository<CardDailySpend, CardDailySpendId> {
+
+    /**
+     * Returns the accumulated expenses of a card for a specific day in cents (0 if the card has no expenses that day).
+     *
+     * @param cardId The ID of the source card.
+     * @param spendDate The day of the expenses.
+     */
+    @Query(value = """
+            SELECT CAST(COALESCE(
+                (SELECT amount FROM \"bank_cards_management\".card_daily_spend
+                 WHERE card_id = :cardId AND spend_date = :spendDate), 0) * 100 AS bigint)
+            """, nativeQuery = true)
+    long getExpensesMinor(UUID cardId, LocalDate spendDate);
+
+    /**
+     * Adds an amount to the expenses of a card for a specific day, creating the counter if it does not exist yet.
+     *
+     * @param cardId The ID of the source card.
+     * @param spendDate The day of the expenses.
+     * @param amount The amount to add.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".card_daily_spend (card_id, spend_date, amount)
+            VALUES (:cardId, :spendDate, :amount)
+            ON CONFLICT (card_id, spend_date)
+            DO UPDATE SET amount = card_daily_spend.amount + EXCLUDED.amount
+            """, nativeQuery = true)
+    void addExpense(UUID cardId, LocalDate spendDate, BigDecimal amount);
+
+    /**
+     * Recalculates the counter of a single card for a specific day from the `transactions` table.
+     *
+     * @param cardId The ID of the source card.
+     * @param spendDate The day of the expenses.
+     * @param startDate The start of the day (inclusive).
+     * @param endDate The end of the day (exclusive).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".card_daily_spend (card_id, spend_date, amount)
+            SELECT :cardId, :spendDate, COALESCE(SUM(amount), 0)
+            FROM \"bank_cards_management\".transactions
+            WHERE source_card_id = :cardId
+              AND local_date_time >= :startDate
+              AND local_date_time < :endDate
+            ON CONFLICT (card_id, spend_date)
+            DO UPDATE SET amount = EXCLUDED.amount
+            """, nativeQuery = true)
+    void rebuildForCard(UUID cardId, LocalDate spendDate, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Recalculates the counters of all cards for a specific day from the `transactions` table.
+     *
+     * @param spendDate The day of the expenses.
+     * @param startDate The start of the day (inclusive).
+     * @param endDate The end of the day (exclusive).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".card_daily_spend (card_id, spend_date, amount)
+            SELECT source_card_id, :spendDate, SUM(amount)
+            FROM \"bank_cards_management\".transactions
+            WHERE local_date_time >= :startDate
+              AND local_date_time < :endDate
+            GROUP BY source_card_id
+            ON CONFLICT (card_id, spend_date)
+            DO UPDATE SET amount = EXCLUDED.amount
+            """, nativeQuery = true)
+    int rebuildForDay(LocalDate spendDate, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Deletes the counters of a specific day for cards that have no transactions that day.
+     *
+     * @param spendDate The day of the expenses.
+     * @param startDate The start of the day (inclusive).
+     * @param endDate The end of the day (exclusive).
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM \"bank_cards_management\".card_daily_spend d
+            WHERE d.spend_date = :spendDate
+              AND NOT EXISTS (
+                  SELECT 1 FROM \"bank_cards_management\".transactions t
+                  WHERE t.source_card_id = d.card_id
+                    AND t.local_date_time >= :startDate
+                    AND t.local_date_time < :endDate)
+            """, nativeQuery = true)
+    int deleteOrphansForDay(LocalDate spendDate, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Deletes all counters older than the specified day.
+     *
+     * @param spendDate The first day to keep.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM \"bank_cards_management\".card_daily_spend WHERE spend_date < :spendDate",
+            nativeQuery = true)
+    int deleteOlderThan(LocalDate spendDate);
+}
@@ -9,8 +9,10 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,16 +29,40 @@ import java.util.UUID;
 @Repository
 public interface CardRepository extends JpaRepository<Card, UUID> {
 
+    /**
+     * Finds a card by its ID and locks the row (SELECT ... FOR UPDATE).
+     *
+     * @param id The ID of the card.
+     */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT c FROM Card c WHERE c.id = :id")
     Optional<Card> findByIdLockWrite(UUID id);
 
     /**
-     * Finds a card by its number.
+     * Finds the cards with the given IDs and locks their rows in a single query.
+     * The rows are locked in the order of their IDs, so concurrent callers locking overlapping sets of cards
+     * (e.g. A->B and B->A transfers) wait for each other instead of deadlocking.
      *
-     * @param number The card number.
+     * @param ids The IDs of the cards.
      */
-    Optional<Card> findByNumber(String number);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdInLockWrite(Collection<UUID> ids);
+
+    /**
+     * Finds a card by the blind index of its number (unique index `cards_number_hash_idx`).
+     *
+     * @param numberHash The blind index of the card number (see {@link com.api.util.BlindIndex}).
+     */
+    Optional<Card> findByNumberHash(String numberHash);
+
+    /**
+     * Finds a card that has no blind index yet by its encrypted number (unique constraint `cards_number_unique`).
+     * Finds nothing once the backfill is done, or if the encryption gives a new ciphertext every time.
+     *
+     * @param number The encrypted card number.
+     */
+    Optional<Card> findByNumberAndNumberHashIsNull(String number);
 
     /**
      * Retrieves all cards belonging to a specific owner, paginated.
@@ -46,6 +72,33 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
      */
     Page<Card> findAllByOwnerId(UUID ownerId, Pageable pageable);
 
+    /**
+     * Retrieves the first page of all the cards in the order of their IDs (keyset pagination).
+     *
+     * @param limit The maximum number of cards.
+     */
+    @Query(value = """
+            SELECT * FROM \"bank_cards_management\".cards
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Card> findAllSeekFirst(int limit);
+
+    /**
+     * Retrieves the page of all the cards that follows the given card, in the order of their IDs (keyset pagination).
+     * It is a range scan of the primary key, so the cost doesn't depend on how deep the page is.
+     *
+     * @param id The ID of the last card of the previous page.
+     * @param limit The maximum number of cards.
+     */
+    @Query(value = """
+            SELECT * FROM \"bank_cards_management\".cards
+            WHERE id > :id
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Card> findAllSeekAfter(UUID id, int limit);
+
     /**
      * Checks whether a card with the specified ID exists and belongs to the given owner email.
      *
@@ -54,6 +107,14 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
      */
     boolean existsByIdAndOwnerEmail(UUID cardId, String email);
 
+    /**
+     * Counts the cards with the specified IDs that belong to the given owner email.
+     *
+     * @param cardIds The IDs of the cards.
+     * @param email The email of the cards owner.
+     */
+    long countByIdInAndOwnerEmail(Collection<UUID> cardIds, String email);
+
     /**
      * Updates the transaction limit per day for a card by its ID.
      *
@@ -61,10 +122,25 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
      * @param newLimit The new transaction limit per day.
      */
     @Modifying
-    @Query(value = "UPDATE \"bank_cards_management\".cards SET transaction_limit_per_day = :newLimit WHERE id = :cardId",
+    @Query(value = "UPDATE \"bank_cards_management\".cards SET transaction_limit_per_day = :newLimit, version = version + 1 WHERE id = :cardId",
         nativeQuery = true)
     void updateTransactionLimitPerDayById(UUID cardId, BigDecimal newLimit);
 
+    /**
+     * Updates the transaction limit per day for a card, only if the card has not been modified since it was read.
+     *
+     * @param cardId The ID of the card to update.
+     * @param newLimit The new transaction limit per day.
+     * @param version The version of the card that was read.
+     * @return 1 if the card is updated, 0 if the card version has changed.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE \"bank_cards_management\".cards SET transaction_limit_per_day = :newLimit, version = version + 1
+            WHERE id = :cardId AND version = :version
+            """, nativeQuery = true)
+    int updateTransactionLimitPerDayByIdAndVersion(UUID cardId, BigDecimal newLimit, long version);
+
 
     /**
      * Updates the status of a card by its ID.
@@ -73,22 +149,130 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
      * @param newStatus The new status of the card.
      */
     @Modifying
-    @Query(value = "UPDATE \"bank_cards_management\".cards SET status = :newStatus WHERE id = :cardId",
+    @Query(value = "UPDATE \"bank_cards_management\".cards SET status = :newStatus, version = version + 1 WHERE id = :cardId",
             nativeQuery = true)
     void updateStatus(UUID cardId, String newStatus);
 
     /**
-     * Finds cards that have expired before a specified date and have not been marked as expired.
+     * Updates the status of a card, only if the card has not been modified since it was read.
+     *
+     * @param cardId The ID of the card to update.
+     * @param newStatus The new status of the card.
+     * @param version The version of the card that was read.
+     * @return 1 if the card is updated, 0 if the card version has changed.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE \"bank_cards_management\".cards SET status = :newStatus, version = version + 1
+            WHERE id = :cardId AND version = :version
+            """, nativeQuery = true)
+    int updateStatusByIdAndVersion(UUID cardId, String newStatus, long version);
+
+    /**
+     * Adds an amount (negative for a debit) to the balance of a card (the ledger projection).
+     * Joins the caller's transaction.
+     *
+     * @param cardId The ID of the card to update.
+     * @param delta The amount to add.
+     */
+    @Modifying
+    @Query(value = "UPDATE \"bank_cards_management\".cards SET balance = balance + :delta, version = version + 1 WHERE id = :cardId",
+            nativeQuery = true)
+    void addToBalance(UUID cardId, BigDecimal delta);
+
+    /**
+     * Marks a batch of the cards that have expired before a specified date as expired, in a single statement.
+     * The cards are found with the `(status, expiration_date)` index, one range per not expired status;
+     * rows locked by a transfer or by another sweep are skipped and picked up by a later batch.
      *
      * @param date The date to compare against.
-     * @param expiredStatus The status that indicates a card is expired.
+     * @param notExpiredStatuses The statuses of the cards that can expire.
+     * @param limit The maximum number of cards to update.
+     * @return the number of cards marked as expired (less than the limit when the sweep is done).
      */
+    @Modifying
+    @Transactional
     @Query(value = """
-            SELECT * FROM \"bank_cards_management\".cards
-            WHERE expiration_date < :date
-              AND status != :expiredStatus
+            UPDATE \"bank_cards_management\".cards SET status = 'expired', version = version + 1
+            WHERE id IN (
+                SELECT id FROM \"bank_cards_management\".cards
+                WHERE status IN (:notExpiredStatuses)
+                  AND expiration_date < :date
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            """,
+        nativeQuery = true)
+    int expireBatch(LocalDateTime date, Collection<String> notExpiredStatuses, int limit);
+
+    /**
+     * The id and expiration date of a card, for the expiry timing wheel.
+     */
+    interface ExpiringCard {
+        UUID getId();
+        LocalDateTime getExpirationDate();
+    }
+
+    /**
+     * Retrieves the next not expired cards, in `(expiration_date, id)` order, that expire after a key and up to a date.
+     * Reads the partial `(expiration_date, id)` index of the not expired cards.
+     *
+     * @param afterDate The expiration date of the key (exclusive).
+     * @param afterId The id of the key.
+     * @param until The last expiration date (inclusive).
+     * @param limit The maximum number of cards.
+     */
+    @Query(value = """
+            SELECT id, expiration_date AS "expirationDate" FROM \"bank_cards_management\".cards
+            WHERE status <> 'expired'
+              AND (expiration_date, id) > (:afterDate, :afterId)
+              AND expiration_date <= :until
+            ORDER BY expiration_date, id
+            LIMIT :limit
+            """,
+        nativeQuery = true)
+    List<ExpiringCard> findExpiringAfter(LocalDateTime afterDate, UUID afterId, LocalDateTime until, int limit);
+
+    /**
+     * Marks the given cards as expired if they are not expired yet and their expiration date has passed
+     * (the expiration date may have been changed since they were scheduled).
+     *
+     * @param ids The ids of the cards.
+     * @param date The date to compare against.
+     * @return the number of cards marked as expired.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE \"bank_cards_management\".cards SET status = 'expired', version = version + 1
+            WHERE id IN (:ids)
+              AND status <> 'expired'
+              AND expiration_date <= :date
+            """,
+        nativeQuery = true)
+    int expireDue(Collection<UUID> ids, LocalDateTime date);
+
+    /**
+     * The id and encrypted number of a card, for the backfill of the columns derived from the number.
+     */
+    interface CardNumber {
+        UUID getId();
+        String getNumber();
+    }
+
+    /**
+     * Retrieves the next cards, in id order, whose last 4 digits or blind index are not stored yet.
+     * Reads the partial index of these cards, which is empty once the backfill is done.
+     *
+     * @param afterId The id to start after.
+     * @param limit The maximum number of cards.
+     */
+    @Query(value = """
+            SELECT id, number FROM \"bank_cards_management\".cards
+            WHERE (number_last4 IS NULL OR number_hash IS NULL) AND id > :afterId
+            ORDER BY id
+            LIMIT :limit
             """,
         nativeQuery = true)
-    List<Card> findExpiredCards(LocalDateTime date, String expiredStatus);
+    List<CardNumber> findNumbersToBackfill(UUID afterId, int limit);
 
 }
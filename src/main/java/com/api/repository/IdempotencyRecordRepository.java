@@ -0,0 +1,72 @@
+package com.api.repository;
+
+import com.api.entity.IdempotencyRecord;
+import com.api.entity.IdempotencyRecordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class IdempotencyRecordRepository
+ *
+ * Repository interface for managing `IdempotencyRecord` entities.
+ * The pending key commits on its own: it must be visible to concurrent retries before the transfer starts.
+ * The key is marked completed in the DB transaction of the transfer.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecordId> {
+
+    /**
+     * Creates a pending record for the key, unless the key already exists (primary key conflict).
+     *
+     * @return 1 if the record is created, 0 if the key is already used.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".idempotency_keys
+                (source_card_id, idempotency_key, destination_card_id, amount, status, created_at)
+            VALUES (:sourceCardId, :key, :destinationCardId, :amount, 'pending', :createdAt)
+            ON CONFLICT (source_card_id, idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertPending(UUID sourceCardId, String key, UUID destinationCardId, BigDecimal amount, LocalDateTime createdAt);
+
+    /**
+     * Marks the record as completed; joins the DB transaction of the transfer, so it commits with the transfer.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE \"bank_cards_management\".idempotency_keys SET status = 'completed'
+            WHERE source_card_id = :sourceCardId AND idempotency_key = :key
+            """, nativeQuery = true)
+    int markCompleted(UUID sourceCardId, String key);
+
+    /**
+     * Deletes the record of a rejected transfer, so the request can be retried with the same key.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM \"bank_cards_management\".idempotency_keys
+            WHERE source_card_id = :sourceCardId AND idempotency_key = :key
+            """, nativeQuery = true)
+    int deleteKey(UUID sourceCardId, String key);
+
+    /**
+     * Deletes the records received before the given date (expired keys).
+     *
+     * @return the number of deleted records.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM \"bank_cards_management\".idempotency_keys WHERE created_at < :createdBefore
+            """, nativeQuery = true)
+    int deleteCreatedBefore(LocalDateTime createdBefore);
+}
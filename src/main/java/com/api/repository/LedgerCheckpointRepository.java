@@ -0,0 +1,35 @@
+package com.api.repository;
+
+import com.api.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Class LedgerCheckpointRepository
+ *
+ * Repository interface for the `LedgerCheckpoint` row of the ledger projection.
+ */
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Integer> {
+
+    /**
+     * Returns the sequence of the last projected ledger record.
+     */
+    @Query(value = "SELECT last_sequence FROM \"bank_cards_management\".ledger_checkpoint WHERE id = 1",
+            nativeQuery = true)
+    long getLastSequence();
+
+    /**
+     * Moves the checkpoint forward (joins the caller's transaction, together with the projected records).
+     *
+     * @param lastSequence The sequence of the last projected record.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE \"bank_cards_management\".ledger_checkpoint SET last_sequence = :lastSequence
+            WHERE id = 1 AND last_sequence < :lastSequence
+            """, nativeQuery = true)
+    int updateLastSequence(long lastSequence);
+}
@@ -0,0 +1,97 @@
+package com.api.repository;
+
+import com.api.entity.Posting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class PostingRepository
+ *
+ * Repository interface for managing `Posting` entities (append-only double-entry postings)
+ * and the balance and consistency queries built on them.
+ */
+@Repository
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    /**
+     * Inserts the debit of the source card and the credit of the destination card of a transaction
+     * with a single statement. Joins the caller's transaction.
+     *
+     * @param transactionId The ID of the transaction.
+     * @param sourceCardId The ID of the debited card.
+     * @param destinationCardId The ID of the credited card.
+     * @param amount The amount of the transaction (positive).
+     * @param createdAt The date and time of the transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".postings (transaction_id, card_id, amount, created_at)
+            VALUES (:transactionId, :sourceCardId, -CAST(:amount AS numeric), :createdAt),
+                   (:transactionId, :destinationCardId, :amount, :createdAt)
+            """, nativeQuery = true)
+    void insertTransfer(UUID transactionId, UUID sourceCardId, UUID destinationCardId, BigDecimal amount,
+                        LocalDateTime createdAt);
+
+    /**
+     * Returns the current balance of a card: its snapshot (or `cards.balance` without a snapshot)
+     * plus the postings made after the snapshot. Read in one statement, so a concurrent compaction
+     * is seen either entirely or not at all. Null if there is no such card.
+     *
+     * @param cardId The ID of the card.
+     */
+    @Query(value = """
+            SELECT COALESCE(s.balance, c.balance) + COALESCE(
+                (SELECT SUM(p.amount) FROM \"bank_cards_management\".postings p
+                 WHERE p.card_id = c.id AND p.id > COALESCE(s.last_posting_id, 0)), 0)
+            FROM \"bank_cards_management\".cards c
+            LEFT JOIN \"bank_cards_management\".card_balance_snapshots s ON s.card_id = c.id
+            WHERE c.id = :cardId
+            """, nativeQuery = true)
+    BigDecimal getBalance(UUID cardId);
+
+    /**
+     * Waits until the postings being inserted are committed and blocks new inserts until the end of the
+     * caller's transaction (a short one): after it every posting up to the current maximum ID is committed,
+     * so the compaction can't skip a posting committed late with a lower ID.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE \"bank_cards_management\".postings IN SHARE MODE", nativeQuery = true)
+    void lockAgainstInserts();
+
+    /**
+     * Returns the highest posting ID (0 if there is no posting).
+     */
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM \"bank_cards_management\".postings", nativeQuery = true)
+    long getLastPostingId();
+
+    /**
+     * Finds the transactions whose postings don't form a balanced pair:
+     * exactly one debit of the amount on the source card and one credit of the amount on the destination card,
+     * or whose transaction row is missing (neither in {@code transactions} nor in {@code transactions_archive}).
+     *
+     * @param limit The maximum number of transactions to return.
+     */
+    @Query(value = """
+            SELECT p.transaction_id
+            FROM \"bank_cards_management\".postings p
+            LEFT JOIN (SELECT id, source_card_id, destination_card_id, amount
+                       FROM \"bank_cards_management\".transactions
+                       UNION ALL
+                       SELECT id, source_card_id, destination_card_id, amount
+                       FROM \"bank_cards_management\".transactions_archive) t ON t.id = p.transaction_id
+            GROUP BY p.transaction_id, t.id, t.source_card_id, t.destination_card_id, t.amount
+            HAVING t.id IS NULL
+                OR COUNT(*) <> 2
+                OR SUM(p.amount) <> 0
+                OR SUM(CASE WHEN p.card_id = t.source_card_id AND p.amount = -t.amount THEN 1 ELSE 0 END) <> 1
+                OR SUM(CASE WHEN p.card_id = t.destination_card_id AND p.amount = t.amount THEN 1 ELSE 0 END) <> 1
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findUnbalancedTransactionIds(int limit);
+}
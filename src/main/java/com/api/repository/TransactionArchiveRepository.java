@@ -0,0 +1,112 @@
+package com.api.repository;
+
+import com.api.entity.Transaction;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class TransactionArchiveRepository
+ *
+ * Repository interface for the cold archive of the transactions (the `transactions_archive` table).
+ * The archived rows have the columns of the `transactions` table and are read as `Transaction` entities;
+ * they are never updated, so this repository has no save or delete methods.
+ */
+@Repository
+public interface TransactionArchiveRepository extends org.springframework.data.repository.Repository<Transaction, UUID> {
+
+    /**
+     * Moves the oldest transactions before the horizon from the `transactions` table to the archive,
+     * in a single statement: a batch is either moved or not, so an interrupted archiving resumes
+     * with the next batch. Rows locked by another archiver are skipped.
+     * A transaction whose ID is already archived fails the whole statement (unique violation),
+     * so the batch stays in the `transactions` table instead of being deleted without its archived copy.
+     *
+     * @param horizon The transactions older than this date and time are archived.
+     * @param limit The maximum number of transactions to move.
+     * @return the number of moved transactions (0 when there is nothing left to archive).
+     */
+    @Transactional
+    @Query(value = """
+            WITH batch AS (
+                SELECT id, local_date_time FROM \"bank_cards_management\".transactions
+                WHERE local_date_time < :horizon
+                ORDER BY local_date_time, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), moved AS (
+                DELETE FROM \"bank_cards_management\".transactions t
+                USING batch
+                WHERE t.id = batch.id AND t.local_date_time = batch.local_date_time
+                RETURNING t.id, t.source_card_id, t.destination_card_id, t.local_date_time, t.amount
+            ), archived AS (
+                INSERT INTO \"bank_cards_management\".transactions_archive
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                SELECT id, source_card_id, destination_card_id, local_date_time, amount FROM moved
+            )
+            SELECT count(*) FROM moved
+            """, nativeQuery = true)
+    long archiveBatch(LocalDateTime horizon, int limit);
+
+    /**
+     * Returns the date and time of the newest archived transaction, or null when the archive is empty.
+     * The archive has nothing newer, so a reader can skip it until it reaches this point.
+     */
+    @Query(value = "SELECT max(local_date_time) FROM \"bank_cards_management\".transactions_archive",
+            nativeQuery = true)
+    LocalDateTime findNewestLocalDateTime();
+
+    /**
+     * Retrieves the first archived transactions of a card (as the source or the destination), newest first.
+     *
+     * @param cardId The ID of the card.
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM \"bank_cards_management\".transactions_archive
+                 WHERE source_card_id = :cardId
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM \"bank_cards_management\".transactions_archive
+                 WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+            ) page
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllByCardIdSeekFirst(UUID cardId, int limit);
+
+    /**
+     * Retrieves the archived transactions of a card (as the source or the destination) that follow the given one,
+     * newest first.
+     *
+     * @param cardId The ID of the card.
+     * @param localDateTime The local date and time of the last transaction of the previous page.
+     * @param id The ID of the last transaction of the previous page.
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM \"bank_cards_management\".transactions_archive
+                 WHERE source_card_id = :cardId
+                   AND (local_date_time, id) < (:localDateTime, :id)
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM \"bank_cards_management\".transactions_archive
+                 WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+                   AND (local_date_time, id) < (:localDateTime, :id)
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+            ) page
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllByCardIdSeekAfter(UUID cardId, LocalDateTime localDateTime, UUID id, int limit);
+}
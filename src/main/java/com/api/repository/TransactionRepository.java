@@ -4,11 +4,13 @@ import com.api.entity.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,6 +26,27 @@ import java.util.UUID;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
+    /**
+     * Result of {@link #transferIfSufficientFunds}: which guarded steps succeeded and the ID of the inserted
+     * transaction (null when a guard failed).
+     */
+    interface GuardedTransfer {
+
+        /** Whether the source card was debited (active, different from the destination, sufficient funds). */
+        boolean isDebited();
+
+        /** Whether the source card was active when the statement started. */
+        boolean isActive();
+
+        /** Whether the destination card was credited (active). */
+        boolean isCredited();
+
+        /** Whether the daily expenses counter was incremented within the daily limit. */
+        boolean isSpent();
+
+        UUID getId();
+    }
+
     /**
      * Finds a transaction where the source card matches the given card ID.
      *
@@ -56,16 +79,137 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
     boolean existsByIdAndDestinationOwnerEmail(UUID id, String email);
 
     /**
-     * Retrieves all transactions where the specified card ID is either the source or destination card, paginated.
+     * The transactions of a card, newest first, from the `transactions` table and its archive:
+     * the OR of the source and destination sides is split into a UNION ALL, so each side is an index scan
+     * of its `(card_id, local_date_time, id)` index and the sorted runs are merged (Merge Append)
+     * instead of scanning the whole table.
+     * A transfer of a card to itself is not allowed, the destination sides still skip it to not return it twice.
+     */
+    String FIND_ALL_BY_CARD_ID = """
+            SELECT * FROM (
+                SELECT * FROM \"bank_cards_management\".transactions
+                WHERE source_card_id = :cardId
+                UNION ALL
+                SELECT * FROM \"bank_cards_management\".transactions
+                WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+                UNION ALL
+                SELECT * FROM \"bank_cards_management\".transactions_archive
+                WHERE source_card_id = :cardId
+                UNION ALL
+                SELECT * FROM \"bank_cards_management\".transactions_archive
+                WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+            ) card_transactions
+            ORDER BY local_date_time DESC, id DESC
+            """;
+
+    /**
+     * The number of the transactions of a card (with the archived ones), counted on each index separately.
+     */
+    String COUNT_ALL_BY_CARD_ID = """
+            SELECT (SELECT count(*) FROM \"bank_cards_management\".transactions
+                    WHERE source_card_id = :cardId)
+                 + (SELECT count(*) FROM \"bank_cards_management\".transactions
+                    WHERE destination_card_id = :cardId AND source_card_id <> :cardId)
+                 + (SELECT count(*) FROM \"bank_cards_management\".transactions_archive
+                    WHERE source_card_id = :cardId)
+                 + (SELECT count(*) FROM \"bank_cards_management\".transactions_archive
+                    WHERE destination_card_id = :cardId AND source_card_id <> :cardId)
+            """;
+
+    /**
+     * Retrieves all transactions where the specified card ID is either the source or destination card,
+     * archived ones included, newest first, paginated.
      *
      * @param cardId The ID of the card to search for in the source or destination.
      * @param pageable The pagination information.
      */
-    @Query(value = "SELECT * FROM \"bank_cards_management\".transactions " +
-            "WHERE source_card_id = :cardId OR destination_card_id = :cardId",
-            nativeQuery = true)
+    @Query(value = FIND_ALL_BY_CARD_ID, countQuery = COUNT_ALL_BY_CARD_ID, nativeQuery = true)
     Page<Transaction> findAllByCardId(@Param("cardId") UUID cardId, Pageable pageable);
 
+    /**
+     * Retrieves the first page of all the transactions, newest first (keyset pagination).
+     *
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM \"bank_cards_management\".transactions
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllSeekFirst(int limit);
+
+    /**
+     * Retrieves the page of all the transactions that follows the given one, newest first (keyset pagination).
+     * The row value comparison is an index range scan, so the cost doesn't depend on how deep the page is;
+     * the redundant `local_date_time <= :localDateTime` lets the partitions of later months be pruned.
+     *
+     * @param localDateTime The local date and time of the last transaction of the previous page.
+     * @param id The ID of the last transaction of the previous page.
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM \"bank_cards_management\".transactions
+            WHERE local_date_time <= :localDateTime
+              AND (local_date_time, id) < (:localDateTime, :id)
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllSeekAfter(LocalDateTime localDateTime, UUID id, int limit);
+
+    /**
+     * Retrieves the first page of the transactions of a card (as the source or the destination), newest first
+     * (keyset pagination). Each side is read on its own and the two sorted runs are merged.
+     *
+     * @param cardId The ID of the card.
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM \"bank_cards_management\".transactions
+                 WHERE source_card_id = :cardId
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM \"bank_cards_management\".transactions
+                 WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+            ) page
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllByCardIdSeekFirst(UUID cardId, int limit);
+
+    /**
+     * Retrieves the page of the transactions of a card (as the source or the destination) that follows the given one,
+     * newest first (keyset pagination).
+     *
+     * @param cardId The ID of the card.
+     * @param localDateTime The local date and time of the last transaction of the previous page.
+     * @param id The ID of the last transaction of the previous page.
+     * @param limit The maximum number of transactions.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM \"bank_cards_management\".transactions
+                 WHERE source_card_id = :cardId
+                   AND local_date_time <= :localDateTime
+                   AND (local_date_time, id) < (:localDateTime, :id)
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM \"bank_cards_management\".transactions
+                 WHERE destination_card_id = :cardId AND source_card_id <> :cardId
+                   AND local_date_time <= :localDateTime
+                   AND (local_date_time, id) < (:localDateTime, :id)
+                 ORDER BY local_date_time DESC, id DESC
+                 LIMIT :limit)
+            ) page
+            ORDER BY local_date_time DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findAllByCardIdSeekAfter(UUID cardId, LocalDateTime localDateTime, UUID id, int limit);
+
     /**
      * Calculates the total expenses for a specific source card within a given date range.
      *
@@ -81,4 +225,80 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
               AND source_card_id = :sourceCardId
         """, nativeQuery = true)
     BigDecimal getExpensesForSpecificSourceCardAndForSpecificDay(UUID sourceCardId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Performs a whole transfer in a single statement (one round trip):
+     * guarded debit of the source card (active and sufficient funds), credit of the destination card (active),
+     * daily expenses counter increment guarded by the daily limit and insert of the transaction.
+     * The limit is checked on the counter row locked by the upsert, so concurrent transfers from the same card
+     * see each other's expenses.
+     * Nothing is inserted when any guard fails, in which case the caller must roll back the DB transaction.
+     *
+     * @param transactionId The ID of the new transaction.
+     * @param sourceCardId The ID of the source card.
+     * @param destinationCardId The ID of the destination card.
+     * @param dateTime The local date and time of the transaction.
+     * @param amount The amount to transfer.
+     * @return the guarded steps that succeeded and the ID of the inserted transaction (null if the transfer
+     *         was not performed).
+     */
+    @Query(value = """
+            WITH debit AS (
+                UPDATE \"bank_cards_management\".cards
+                SET balance = balance - :amount, version = version + 1
+                WHERE id = :sourceCardId
+                  AND id <> :destinationCardId
+                  AND status = 'active'
+                  AND balance >= :amount
+                RETURNING id, transaction_limit_per_day
+            ), credit AS (
+                UPDATE \"bank_cards_management\".cards
+                SET balance = balance + :amount, version = version + 1
+                WHERE id = :destinationCardId
+                  AND status = 'active'
+                  AND EXISTS (SELECT 1 FROM debit)
+                RETURNING id
+            ), spend AS (
+                INSERT INTO \"bank_cards_management\".card_daily_spend (card_id, spend_date, amount)
+                SELECT id, CAST(:dateTime AS date), :amount FROM debit
+                WHERE transaction_limit_per_day IS NULL OR :amount <= transaction_limit_per_day
+                ON CONFLICT (card_id, spend_date)
+                DO UPDATE SET amount = card_daily_spend.amount + EXCLUDED.amount
+                WHERE (SELECT transaction_limit_per_day FROM debit) IS NULL
+                   OR card_daily_spend.amount + EXCLUDED.amount <= (SELECT transaction_limit_per_day FROM debit)
+                RETURNING card_id
+            ), inserted AS (
+                INSERT INTO \"bank_cards_management\".transactions
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                SELECT :transactionId, debit.id, credit.id, :dateTime, :amount
+                FROM debit, credit, spend
+                RETURNING id
+            )
+            SELECT EXISTS (SELECT 1 FROM debit) AS debited,
+                   EXISTS (SELECT 1 FROM \"bank_cards_management\".cards
+                           WHERE id = :sourceCardId AND status = 'active') AS active,
+                   EXISTS (SELECT 1 FROM credit) AS credited,
+                   EXISTS (SELECT 1 FROM spend) AS spent,
+                   (SELECT id FROM inserted) AS id
+            """, nativeQuery = true)
+    GuardedTransfer transferIfSufficientFunds(UUID transactionId, UUID sourceCardId, UUID destinationCardId,
+                                         LocalDateTime dateTime, BigDecimal amount);
+
+    /**
+     * Inserts a transaction by the IDs of its cards (the ledger projection, no entity is loaded).
+     * Joins the caller's transaction.
+     *
+     * @param transactionId The ID of the transaction.
+     * @param sourceCardId The ID of the source card.
+     * @param destinationCardId The ID of the destination card.
+     * @param dateTime The local date and time of the transaction.
+     * @param amount The amount of the transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO \"bank_cards_management\".transactions
+                (id, source_card_id, destination_card_id, local_date_time, amount)
+            VALUES (:transactionId, :sourceCardId, :destinationCardId, :dateTime, :amount)
+            """, nativeQuery = true)
+    void insert(UUID transactionId, UUID sourceCardId, UUID destinationCardId, LocalDateTime dateTime, BigDecimal amount);
 }
@@ -2,17 +2,24 @@ package com.api.security;
 
 import com.api.config.enums.Role;
 import com.api.service.auth.AuthServiceImpl;
+import com.api.util.BoundedCache;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class JwtFilter
@@ -21,15 +28,42 @@ import java.io.IOException;
  * It checks for the presence of a token in the "Authorization" header and validates it.
  * If the token is valid, it extracts the user's details from the token and sets
  * the authentication in the {@link SecurityContextHolder}.
+ *
+ * <p>A token is validated and parsed once. The verified tokens are cached by their SHA-256 digest until they expire,
+ * at most {@code jwt.cache.max-size} of them (0 disables the cache), so the next requests with the same token
+ * check no signature. A token that fails validation is not cached. Whether the user is still logged in
+ * is checked on every request.
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private static final String AUTHORIZATION = "Authorization";
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * The claims of a verified access token the authentication is built from.
+     */
+    private record VerifiedToken(String email, Role role) {}
+
     private final JwtProvider jwtProvider;
     private final AuthServiceImpl authServiceImpl;
+    private final BoundedCache<String, VerifiedToken> verifiedTokens;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public JwtFilter(JwtProvider jwtProvider,
+                     AuthServiceImpl authServiceImpl,
+                     @Value("${jwt.cache.max-size:10000}") int cacheMaxSize) {
+        this.jwtProvider = jwtProvider;
+        this.authServiceImpl = authServiceImpl;
+        this.verifiedTokens = cacheMaxSize > 0 ? new BoundedCache<>(cacheMaxSize) : null;
+    }
 
     /**
      * Filters incoming HTTP requests to validate the presence and authenticity of a JWT (JSON Web Token).
@@ -54,17 +88,48 @@ public class JwtFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) {
             token = bearer.substring(7);
         }
-        if (token != null && jwtProvider.validateAccessToken(token)) {
-            final Claims claims = jwtProvider.getAccessClaims(token);
+        if (token != null) {
+            final VerifiedToken verified = verify(token);
 
             final JwtAuthentication jwtAuthentication = new JwtAuthentication();
-            jwtAuthentication.setEmail(claims.getSubject());
-            jwtAuthentication.setRole(Role.valueOf(claims.get("role", String.class)));
-            jwtAuthentication.setAuthenticated(authServiceImpl.isUserLoggedIn(claims.getSubject()));
+            jwtAuthentication.setEmail(verified.email());
+            jwtAuthentication.setRole(verified.role());
+            jwtAuthentication.setAuthenticated(authServiceImpl.isUserLoggedIn(verified.email()));
             SecurityContextHolder.getContext().setAuthentication(jwtAuthentication);
 
         }
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Returns the claims of a valid access token, from the cache or by validating it.
+     *
+     * @param token the access token.
+     * @throws com.api.exception.AuthException if the token is expired, malformed, or has an invalid signature.
+     */
+    private VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return toVerifiedToken(jwtProvider.parseAccessToken(token));
+        }
+        String digest = HEX.formatHex(digests.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        VerifiedToken verified = verifiedTokens.get(digest);
+        if (verified != null) {
+            return verified;
+        }
+        Claims claims = jwtProvider.parseAccessToken(token);
+        verified = toVerifiedToken(claims);
+        Date expiration = claims.getExpiration();
+        // a token without expiration is validated every time
+        if (expiration != null) {
+            long ttlMillis = expiration.getTime() - System.currentTimeMillis();
+            if (ttlMillis > 0) {
+                verifiedTokens.put(digest, verified, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+            }
+        }
+        return verified;
+    }
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        return new VerifiedToken(claims.getSubject(), Role.valueOf(claims.get("role", String.class)));
+    }
 }
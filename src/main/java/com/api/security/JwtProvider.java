@@ -18,7 +18,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.security.Key;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
@@ -29,6 +28,9 @@ import java.util.TimeZone;
  * A utility class responsible for generating, validating, and parsing JSON Web Tokens (JWTs).
  * This class provides methods for working with both access and refresh tokens, handling JWT creation and validation,
  * as well as extracting claims from tokens.
+ *
+ * <p>The parsers are built once per key (a parser is immutable and thread-safe), so a token is checked
+ * without building a parser; {@link #parseAccessToken} validates a token and returns its claims with one parse.
  */
 @Slf4j
 @Component
@@ -43,6 +45,8 @@ public class JwtProvider {
 
     private SecretKey accessSecretKey;
     private SecretKey refreshSecretKey;
+    private JwtParser accessParser;
+    private JwtParser refreshParser;
 
     /**
      * Post construct for JwtProvider.
@@ -53,6 +57,8 @@ public class JwtProvider {
     public void init() throws IOException {
         accessSecretKey = loadSecretKey(accessPath, "access");
         refreshSecretKey = loadSecretKey(refreshPath, "refresh");
+        accessParser = Jwts.parserBuilder().setSigningKey(accessSecretKey).build();
+        refreshParser = Jwts.parserBuilder().setSigningKey(refreshSecretKey).build();
     }
 
     private SecretKey loadSecretKey(String path, String type) throws IOException {
@@ -106,27 +112,13 @@ public class JwtProvider {
                 .compact();
     }
 
-    /**
-     * Extracts the claims from a given JWT token using the provided secret key.
-     *
-     * @param token the JWT token to parse.
-     * @param secret the secret key used to validate the token.
-     */
-    private Claims getClaims(@NonNull String token, @NonNull Key secret) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
     /**
      * Extracts the claims from the given access token.
      *
      * @param token the JWT access token to parse.
      */
     public Claims getAccessClaims(@NonNull String token) {
-        return getClaims(token, accessSecretKey);
+        return accessParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -135,23 +127,19 @@ public class JwtProvider {
      * @param token the JWT refresh token to parse.
      */
     public Claims getRefreshClaims(@NonNull String token) {
-        return getClaims(token, refreshSecretKey);
+        return refreshParser.parseClaimsJws(token).getBody();
     }
 
     /**
-     * Validates the given token using the provided secret key.
+     * Validates the given token with the provided parser and returns its claims.
      * If the token is expired, malformed, or has an invalid signature, an exception is thrown.
      *
      * @param token the JWT token to validate.
-     * @param secret the secret key used to validate the token.
+     * @param parser the parser of the secret key used to validate the token.
      */
-    private boolean validateToken(@NonNull String token, @NonNull Key secret) {
+    private Claims parseToken(@NonNull String token, @NonNull JwtParser parser) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secret)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException expEx) {
             log.error("Expired JWT token: {}", expEx.getMessage(), expEx);
             throw new AuthException("Token expired: " + expEx.getMessage());
@@ -176,7 +164,18 @@ public class JwtProvider {
      * @param accessToken the JWT access token to validate.
      */
     public boolean validateAccessToken(@NonNull String accessToken){
-        return validateToken(accessToken, accessSecretKey);
+        parseToken(accessToken, accessParser);
+        return true;
+    }
+
+    /**
+     * Validates the given access token and returns its claims, with a single parse.
+     *
+     * @param accessToken the JWT access token to validate.
+     * @throws AuthException if the token is expired, malformed, or has an invalid signature.
+     */
+    public Claims parseAccessToken(@NonNull String accessToken){
+        return parseToken(accessToken, accessParser);
     }
 
     /**
@@ -185,7 +184,8 @@ public class JwtProvider {
      * @param refreshToken the JWT refresh token to validate.
      */
     public boolean validateRefreshToken(@NonNull String refreshToken){
-        return validateToken(refreshToken, refreshSecretKey);
+        parseToken(refreshToken, refreshParser);
+        return true;
     }
 
 }
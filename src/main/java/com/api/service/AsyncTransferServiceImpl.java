@@ -0,0 +1,145 @@
+package com.api.service;
+
+import com.api.dto.PaymentDto;
+import com.api.dto.TransferStatusDto;
+import com.api.exception.BadRequestException;
+import com.api.exception.ConflictException;
+import com.api.exception.ServerException;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.AsyncTransferService;
+import com.api.util.BoundedCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class AsyncTransferServiceImpl
+ *
+ * Makes the submitted transfers on a fixed pool of {@code transaction.async.pool-size} threads
+ * (through the configured {@link TransferDispatcher}), so the request thread is released right away and
+ * the pool size alone bounds how many transfers use the database at the same time. Transfers that can't
+ * start yet wait in a bounded queue ({@code transaction.async.queue-capacity}); when it is full the
+ * submission is rejected.
+ *
+ * The status of a transfer is kept in memory for {@code transaction.async.status-ttl-minutes}
+ * (at most {@code transaction.async.status-cache-size} transfers, the oldest are dropped first),
+ * so it is lost on restart and only known to the instance that accepted the transfer.
+ *
+ * Metrics: {@code transaction.async.queue.depth}, {@code transaction.async.active}.
+ */
+@Slf4j
+@Service
+public class AsyncTransferServiceImpl implements AsyncTransferService {
+
+    private final TransferDispatcher transferDispatcher;
+    private final ThreadPoolExecutor executor;
+    private final BoundedCache<UUID, SubmittedTransfer> transfers;
+    private final long statusTtlNanos;
+    private final long maxWaitMillis;
+
+    /**
+     * A submitted transfer: its source card (for the permission check) and its final status.
+     */
+    private record SubmittedTransfer(UUID sourceCardId, CompletableFuture<TransferStatusDto> result) {}
+
+    public AsyncTransferServiceImpl(TransferDispatcher transferDispatcher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${transaction.async.pool-size:8}") int poolSize,
+                                    @Value("${transaction.async.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${transaction.async.status-cache-size:100000}") int statusCacheSize,
+                                    @Value("${transaction.async.status-ttl-minutes:60}") long statusTtlMinutes,
+                                    @Value("${transaction.async.max-wait-ms:25000}") long maxWaitMillis) {
+        this.transferDispatcher = transferDispatcher;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform().name("async-transfer-" + threadNumber.getAndIncrement())
+                        .daemon().unstarted(runnable));
+        this.transfers = new BoundedCache<>(statusCacheSize);
+        this.statusTtlNanos = TimeUnit.MINUTES.toNanos(statusTtlMinutes);
+        this.maxWaitMillis = maxWaitMillis;
+        Gauge.builder("transaction.async.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Number of submitted transfers waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("transaction.async.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Number of submitted transfers being made")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stops taking transfers and waits for the queued ones to be made.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("{} submitted transfer(s) are not made: the service is stopping", executor.shutdownNow().size());
+        }
+    }
+
+    /**
+     * Queues the transfer; its result is recorded when the transfer is made or fails.
+     *
+     * @throws ServerException if the queue is full.
+     */
+    @Override
+    public TransferStatusDto submit(PaymentDto paymentDto) {
+        UUID transferId = UUID.randomUUID();
+        SubmittedTransfer transfer = new SubmittedTransfer(paymentDto.getSourceCardId(), new CompletableFuture<>());
+        transfers.put(transferId, transfer, System.nanoTime() + statusTtlNanos);
+        try {
+            executor.execute(() -> make(transferId, paymentDto, transfer.result()));
+        } catch (RejectedExecutionException e) {
+            transfers.invalidate(transferId);
+            throw new ServerException("Too many transfers in progress, try again later");
+        }
+        return TransferStatusDto.pending(transferId);
+    }
+
+    @Override
+    public Optional<UUID> getSourceCardId(UUID transferId) {
+        return Optional.ofNullable(transfers.get(transferId)).map(SubmittedTransfer::sourceCardId);
+    }
+
+    /**
+     * Returns the status right away, or once the transfer ends or the wait time
+     * (capped by {@code transaction.async.max-wait-ms}) is over, without holding a thread meanwhile.
+     *
+     * @throws BadRequestException if the transfer is unknown (or its status is expired).
+     */
+    @Override
+    public CompletableFuture<TransferStatusDto> getStatus(UUID transferId, long waitMillis) {
+        SubmittedTransfer transfer = transfers.get(transferId);
+        if (transfer == null) {
+            throw new BadRequestException("There is no such transfer");
+        }
+        if (waitMillis <= 0 || transfer.result().isDone()) {
+            return CompletableFuture.completedFuture(transfer.result().getNow(TransferStatusDto.pending(transferId)));
+        }
+        return transfer.result().copy()
+                .completeOnTimeout(TransferStatusDto.pending(transferId), Math.min(waitMillis, maxWaitMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private void make(UUID transferId, PaymentDto paymentDto, CompletableFuture<TransferStatusDto> result) {
+        try {
+            transferDispatcher.dispatch(paymentDto.getSourceCardId(), paymentDto.getDestinationCardId(), paymentDto.getAmount());
+            result.complete(TransferStatusDto.completed(transferId));
+        } catch (BadRequestException | ConflictException | ServerException e) {
+            result.complete(TransferStatusDto.failed(transferId, e.getMessage()));
+        } catch (RuntimeException e) {
+            log.warn("submitted transfer {} failed", transferId, e);
+            result.complete(TransferStatusDto.failed(transferId, "Transfer is failed"));
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.api.service;
+
+import com.api.config.enums.CardStatus;
+import com.api.repository.CardRepository;
+import com.api.service.interfaces.CardExpiryService;
+import com.api.util.AdvisoryLock;
+import com.api.util.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class CardExpiryServiceImpl
+ *
+ * Service implementation of the card expiry.
+ *
+ * <p>The cards are marked as expired when they expire by an in-process {@link TimingWheel}
+ * ticking every {@code card.expiry.wheel.tick-ms} on its own thread. The wheel holds the cards expiring within
+ * the next {@code card.expiry.wheel.window-minutes} only, at most {@code card.expiry.wheel.max-cards} of them:
+ * it is refilled from the `cards_expiring_idx` index (keyset on `(expiration_date, id)`) when less than half of the
+ * window is left, and {@link #track} adds the cards added or changed in the meantime. A card is marked as expired
+ * only if its expiration date has still passed, so a card whose date was changed after it was scheduled is left as is;
+ * with several instances every one runs its wheel and the first update wins.
+ *
+ * <p>The sweep ({@link #expireCards()}) catches the cards the wheel did not hold (expired while the application
+ * was down, or beyond a full wheel); it also runs on the wheel thread as soon as the wheel is started, since the wheel
+ * holds only the cards expiring from its start on. {@code card.expiry.batch-size} cards per UPDATE statement,
+ * each batch in its own DB transaction, so the sweep holds no long transaction and loads no card into memory.
+ * The sweep runs on one application instance at a time (PostgreSQL advisory lock).
+ *
+ * Metrics: {@code card.expiry.expired} (cards marked as expired by the sweep), {@code card.expiry.batch} (duration of a batch),
+ * {@code card.expiry.progress} (cards expired so far by the running sweep), {@code card.expiry.wheel.expired}
+ * (cards marked as expired by the wheel) and {@code card.expiry.wheel.size} (cards waiting in the wheel).
+ */
+@Slf4j
+@Service
+public class CardExpiryServiceImpl implements CardExpiryService {
+
+    private static final String LOCK_NAME = "card-expiry-sweep";
+    private static final int PROGRESS_LOG_BATCHES = 100;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+    // the smallest in the order of the PostgreSQL `uuid` type (unsigned bytes)
+    private static final UUID MIN_ID = new UUID(0, 0);
+    private static final List<String> NOT_EXPIRED_STATUSES = Arrays.stream(CardStatus.values())
+            .filter(status -> status != CardStatus.expired)
+            .map(CardStatus::name)
+            .toList();
+
+    private final CardRepository cardRepository;
+    private final AdvisoryLock advisoryLock;
+    private final int batchSize;
+    private final Counter expired;
+    private final Timer batchTimer;
+    private final AtomicLong progress = new AtomicLong();
+
+    private final boolean wheelEnabled;
+    private final long tickMillis;
+    private final Duration window;
+    private final int maxCards;
+    private final Counter wheelExpired;
+    private ScheduledExecutorService ticker;
+
+    // guarded by this
+    private final TimingWheel<UUID> wheel;
+    // the key of the last card loaded from the index, and the expiration date every card up to was loaded
+    private LocalDateTime cursorDate;
+    private UUID cursorId = MIN_ID;
+    private LocalDateTime loadedUntil;
+
+    public CardExpiryServiceImpl(CardRepository cardRepository,
+                                 AdvisoryLock advisoryLock,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${card.expiry.batch-size:1000}") int batchSize,
+                                 @Value("${card.expiry.wheel.enabled:true}") boolean wheelEnabled,
+                                 @Value("${card.expiry.wheel.tick-ms:1000}") long tickMillis,
+                                 @Value("${card.expiry.wheel.window-minutes:60}") long windowMinutes,
+                                 @Value("${card.expiry.wheel.max-cards:100000}") int maxCards) {
+        this.cardRepository = cardRepository;
+        this.advisoryLock = advisoryLock;
+        this.batchSize = batchSize;
+        this.expired = Counter.builder("card.expiry.expired")
+                .description("Cards marked as expired by the expiry sweep")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("card.expiry.batch")
+                .description("Duration of an expiry sweep batch")
+                .register(meterRegistry);
+        Gauge.builder("card.expiry.progress", progress, AtomicLong::get)
+                .description("Cards marked as expired so far by the running expiry sweep")
+                .register(meterRegistry);
+
+        this.wheelEnabled = wheelEnabled;
+        this.tickMillis = tickMillis;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.maxCards = maxCards;
+        LocalDateTime now = LocalDateTime.now();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_BITS, WHEEL_LEVELS, toMillis(now));
+        if (window.toMillis() > wheel.spanMillis()) {
+            throw new IllegalArgumentException("card.expiry.wheel.window-minutes is beyond the span of the wheel ("
+                    + wheel.spanMillis() / 60_000 + " minutes)");
+        }
+        this.cursorDate = now;
+        this.loadedUntil = now;
+        this.wheelExpired = Counter.builder("card.expiry.wheel.expired")
+                .description("Cards marked as expired by the expiry timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("card.expiry.wheel.size", this, CardExpiryServiceImpl::wheelSize)
+                .description("Cards waiting in the expiry timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startWheel() {
+        if (!wheelEnabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("card-expiry-wheel").daemon().factory());
+        // the cards already past their expiration date are not loaded into the wheel
+        ticker.execute(this::sweepOverdue);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopWheel() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public long expireCards() {
+        AtomicLong total = new AtomicLong();
+        boolean ran = advisoryLock.runExclusively(LOCK_NAME, () -> total.set(sweep(LocalDateTime.now())));
+        if (!ran) {
+            log.info("expired cards check is running on another instance");
+        }
+        return total.get();
+    }
+
+    @Override
+    public void track(UUID cardId, LocalDateTime expirationDate) {
+        if (!wheelEnabled || cardId == null || expirationDate == null) {
+            return;
+        }
+        // up to the end of the window rather than loadedUntil: a refill running now may not see the card yet
+        // (a card scheduled twice is marked as expired once)
+        if (expirationDate.isAfter(LocalDateTime.now().plus(window))) {
+            return;
+        }
+        synchronized (this) {
+            if (wheel.size() < maxCards) {
+                wheel.add(cardId, toMillis(expirationDate));
+            }
+        }
+    }
+
+    private long sweep(LocalDateTime now) {
+        progress.set(0);
+        long total = 0;
+        int batches = 0;
+        int count;
+        do {
+            long started = System.nanoTime();
+            count = cardRepository.expireBatch(now, NOT_EXPIRED_STATUSES, batchSize);
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            expired.increment(count);
+            total += count;
+            progress.set(total);
+            if (++batches % PROGRESS_LOG_BATCHES == 0) {
+                log.info("expired cards check: {} card(s) expired so far", total);
+            }
+        } while (count == batchSize);
+        return total;
+    }
+
+    private void sweepOverdue() {
+        try {
+            long count = expireCards();
+            log.info("expired {} overdue card(s) on the start of the expiry wheel", count);
+        } catch (RuntimeException e) {
+            log.warn("card expiry sweep on the start of the wheel failed, left to the scheduled sweep", e);
+        }
+    }
+
+    private void tick() {
+        // an exception would cancel the next ticks
+        try {
+            advance(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("card expiry wheel tick failed", e);
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time, marks the cards that are due as expired and refills the wheel.
+     */
+    void advance(LocalDateTime now) {
+        List<UUID> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(toMillis(now), due::add);
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            int count = cardRepository.expireDue(due.subList(from, Math.min(from + batchSize, due.size())), now);
+            wheelExpired.increment(count);
+            if (count > 0) {
+                log.info("expired {} card(s) at {}", count, now);
+            }
+        }
+        refill(now);
+    }
+
+    private void refill(LocalDateTime now) {
+        LocalDateTime until = now.plus(window);
+        while (true) {
+            LocalDateTime afterDate;
+            UUID afterId;
+            int limit;
+            synchronized (this) {
+                limit = Math.min(batchSize, maxCards - wheel.size());
+                if (limit <= 0 || loadedUntil.isAfter(now.plus(window.dividedBy(2)))) {
+                    return;
+                }
+                afterDate = cursorDate;
+                afterId = cursorId;
+            }
+            List<CardRepository.ExpiringCard> cards = cardRepository.findExpiringAfter(afterDate, afterId, until, limit);
+            synchronized (this) {
+                for (CardRepository.ExpiringCard card : cards) {
+                    wheel.add(card.getId(), toMillis(card.getExpirationDate()));
+                }
+                if (!cards.isEmpty()) {
+                    CardRepository.ExpiringCard last = cards.get(cards.size() - 1);
+                    cursorDate = last.getExpirationDate();
+                    cursorId = last.getId();
+                }
+                if (cards.size() < limit) {
+                    loadedUntil = until;
+                    return;
+                }
+                loadedUntil = cursorDate;
+            }
+        }
+    }
+
+    private synchronized int wheelSize() {
+        return wheel.size();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
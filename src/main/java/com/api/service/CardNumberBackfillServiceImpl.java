@@ -0,0 +1,171 @@
+package com.api.service;
+
+import com.api.mapper.CardNumberMapper;
+import com.api.repository.CardRepository;
+import com.api.service.interfaces.CardNumberBackfillService;
+import com.api.util.AdvisoryLock;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class CardNumberBackfillServiceImpl
+ *
+ * Service implementation of the backfill of `cards.number_last4` and `cards.number_hash` (blind index):
+ * {@code card.number-backfill.batch-size} cards per batch are read in id order from the partial index of the cards
+ * left to backfill, decrypted together ({@link EncryptionUtil#decryptAll}) and updated with one JDBC batch.
+ * A row is updated only if its number is still the one that was decrypted, and a column already set is kept,
+ * so a card changed in the meantime is not overwritten. When the batch breaks the unique blind index
+ * (the same number stored twice), its cards are updated one by one and the duplicates are logged and skipped.
+ * When a batch can't be decrypted, its cards are decrypted one by one: a card whose number can't be decrypted
+ * is logged and skipped until the next run.
+ * The backfill runs on one application instance at a time (PostgreSQL advisory lock).
+ *
+ * Metric: {@code card.number.backfill.updated} (cards updated).
+ */
+@Slf4j
+@Service
+public class CardNumberBackfillServiceImpl implements CardNumberBackfillService {
+
+    private static final String LOCK_NAME = "card-number-backfill";
+    // the smallest in the order of the PostgreSQL `uuid` type (unsigned bytes)
+    private static final UUID MIN_ID = new UUID(0, 0);
+    private static final String UPDATE = """
+            UPDATE "bank_cards_management".cards
+            SET number_last4 = COALESCE(number_last4, ?), number_hash = COALESCE(number_hash, ?)
+            WHERE id = ? AND number = ? AND (number_last4 IS NULL OR number_hash IS NULL)
+            """;
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final BlindIndex blindIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final AdvisoryLock advisoryLock;
+    private final int batchSize;
+    private final Counter updated;
+
+    public CardNumberBackfillServiceImpl(CardRepository cardRepository,
+                                         EncryptionUtil encryptionUtil,
+                                         BlindIndex blindIndex,
+                                         JdbcTemplate jdbcTemplate,
+                                         AdvisoryLock advisoryLock,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${card.number-backfill.batch-size:500}") int batchSize) {
+        this.cardRepository = cardRepository;
+        this.encryptionUtil = encryptionUtil;
+        this.blindIndex = blindIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisoryLock = advisoryLock;
+        this.batchSize = batchSize;
+        this.updated = Counter.builder("card.number.backfill.updated")
+                .description("Cards whose number derived columns were backfilled")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long backfill() {
+        AtomicLong total = new AtomicLong();
+        boolean ran = advisoryLock.runExclusively(LOCK_NAME, () -> total.set(backfillAll()));
+        if (!ran) {
+            log.info("card numbers backfill is running on another instance");
+        }
+        return total.get();
+    }
+
+    private long backfillAll() {
+        long total = 0;
+        UUID afterId = MIN_ID;
+        List<CardRepository.CardNumber> cards;
+        do {
+            cards = cardRepository.findNumbersToBackfill(afterId, batchSize);
+            List<String> numbers = decryptAll(cards);
+            List<Object[]> rows = new ArrayList<>(cards.size());
+            for (int i = 0; i < cards.size(); i++) {
+                CardRepository.CardNumber card = cards.get(i);
+                String number = numbers.get(i);
+                if (number == null) {
+                    continue;
+                }
+                String last4 = last4(card, number);
+                String hash = blindIndex.hash(number);
+                if (last4 != null || hash != null) {
+                    rows.add(new Object[]{last4, hash, card.getId(), card.getNumber()});
+                }
+            }
+            if (!rows.isEmpty()) {
+                int count = update(rows);
+                updated.increment(count);
+                total += count;
+            }
+            if (!cards.isEmpty()) {
+                afterId = cards.get(cards.size() - 1).getId();
+            }
+        } while (cards.size() == batchSize);
+        return total;
+    }
+
+    /**
+     * Decrypts the numbers of the cards, null for a number that can't be decrypted.
+     */
+    private List<String> decryptAll(List<CardRepository.CardNumber> cards) {
+        try {
+            return encryptionUtil.decryptAll(cards.stream().map(CardRepository.CardNumber::getNumber).toList());
+        } catch (RuntimeException e) {
+            List<String> numbers = new ArrayList<>(cards.size());
+            for (CardRepository.CardNumber card : cards) {
+                try {
+                    numbers.add(encryptionUtil.decrypt(card.getNumber()));
+                } catch (RuntimeException cardFailure) {
+                    log.warn("card (id: {}) number can't be decrypted, not backfilled", card.getId(), cardFailure);
+                    numbers.add(null);
+                }
+            }
+            return numbers;
+        }
+    }
+
+    /**
+     * Updates the rows with one JDBC batch, or one at a time if the batch breaks the unique blind index.
+     *
+     * @return the number of updated cards.
+     */
+    private int update(List<Object[]> rows) {
+        int count = 0;
+        try {
+            for (int rowCount : jdbcTemplate.batchUpdate(UPDATE, rows)) {
+                // SUCCESS_NO_INFO (-2) when the driver doesn't report the count
+                count += rowCount < 0 ? 1 : rowCount;
+            }
+            return count;
+        } catch (DataIntegrityViolationException e) {
+            // the rows updated before the failure are matched no more
+            count = 0;
+            for (Object[] row : rows) {
+                try {
+                    count += jdbcTemplate.update(UPDATE, row);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    log.warn("card (id: {}) number is the number of another card, not backfilled", row[2]);
+                }
+            }
+            return count;
+        }
+    }
+
+    private String last4(CardRepository.CardNumber card, String number) {
+        String last4 = CardNumberMapper.last4(number);
+        if (last4 == null) {
+            log.warn("card (id: {}) number has less than 4 digits, not backfilled", card.getId());
+        }
+        return last4;
+    }
+}
@@ -1,22 +1,32 @@
 package com.api.service;
 
 import com.api.service.validation.CardValidator;
+import com.api.config.enums.CardLockMode;
+import com.api.config.enums.CardOperation;
 import com.api.config.enums.CardStatus;
 import com.api.dto.CardDto;
 import com.api.dto.CardDtoNoId;
+import com.api.dto.SeekPageDto;
 import com.api.entity.Card;
 import com.api.exception.BadRequestException;
+import com.api.mapper.CardMapper;
+import com.api.mapper.CardNumberMapper;
 import com.api.repository.CardRepository;
+import com.api.service.executor.CardLockingExecutor;
+import com.api.service.executor.interfaces.CardStateTransactionExecutor;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.CardExpiryService;
 import com.api.service.interfaces.CardService;
+import com.api.util.SeekCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -32,7 +42,11 @@ public class CardServiceImpl implements CardService {
 
     private final CardRepository cardRepository;
     private final CardValidator cardValidator;
-    private final ModelMapper modelMapper;
+    private final CardMapper cardMapper;
+    private final CardNumberMapper cardNumberMapper;
+    private final CardLockingExecutor cardLockingExecutor;
+    private final CardExpiryService cardExpiryService;
+    private final InternalTransactionExecutor internalTransactionExecutor;
 
     /**
      * Retrieves a card by its ID.
@@ -42,7 +56,26 @@ public class CardServiceImpl implements CardService {
     @Override
     public CardDto getCardById(UUID cardId) {
         Card card = cardValidator.getCardOrThrow(cardId);
-        return modelMapper.map(card, CardDto.class);
+        return cardMapper.toDto(card);
+    }
+
+    /**
+     * Retrieves a card by its number: one probe of the unique blind index or, for a card whose blind index
+     * is not backfilled yet, of the unique encrypted number.
+     *
+     * @param number The plain card number.
+     * @throws BadRequestException if there is no such card.
+     */
+    @Override
+    public CardDto getCardByNumber(String number) {
+        String numberHash = cardNumberMapper.hash(number);
+        if (numberHash == null) {
+            throw new BadRequestException("Non valid number");
+        }
+        Card card = cardRepository.findByNumberHash(numberHash)
+                .or(() -> cardRepository.findByNumberAndNumberHashIsNull(cardNumberMapper.encrypt(number)))
+                .orElseThrow(() -> new BadRequestException("There is no such card"));
+        return cardMapper.toDto(card);
     }
 
     /**
@@ -53,9 +86,11 @@ public class CardServiceImpl implements CardService {
      */
     @Override
     public CardDto addCard(CardDtoNoId cardDtoNoId) {
-        Card card = modelMapper.map(cardDtoNoId, Card.class);
+        Card card = cardMapper.toEntity(cardDtoNoId);
         try{
-            return modelMapper.map(cardRepository.save(card), CardDto.class);
+            Card saved = cardRepository.save(card);
+            cardExpiryService.track(saved.getId(), saved.getExpirationDate());
+            return cardMapper.toDto(saved);
         } catch (DataIntegrityViolationException e) {
             throw new BadRequestException(e.getMessage());
         }
@@ -63,20 +98,32 @@ public class CardServiceImpl implements CardService {
 
     /**
      * Updates an existing card (if not expired).
+     * With an executor that keeps the card balances itself (postings, ledger), {@code cards.balance} is only
+     * a copy of its balance, so the balance can't be changed here.
      *
      * @param cardDto The updated card details.
+     * @throws BadRequestException if the card is not active or its balance can't be changed.
      */
     @Override
-    @Transactional
     public CardDto updateCard(CardDto cardDto) {
-        Card existingCard = cardValidator.getCardOrThrow_LockWrite(cardDto.getId());
-        if(cardValidator.isCardStatusEqualTo(existingCard, CardStatus.active)){
-            Card card = modelMapper.map(cardDto, Card.class);
-            return modelMapper.map(cardRepository.save(card), CardDto.class);
-        } else {
-            throw new BadRequestException(
-                    "The card can only be changed if the card has not expired or blocked status");
-        }
+        return cardLockingExecutor.execute(CardOperation.card_update, lockMode -> {
+            Card existingCard = getCardOrThrow(cardDto.getId(), lockMode);
+            if(cardValidator.isCardStatusEqualTo(existingCard, CardStatus.active)){
+                Card card = cardMapper.toEntity(cardDto);
+                if (internalTransactionExecutor instanceof CardStateTransactionExecutor
+                        && card.getBalanceMinor() != existingCard.getBalanceMinor()) {
+                    throw new BadRequestException("The card balance can only be changed by transfers");
+                }
+                // the update is checked against the version that was read
+                card.setVersion(existingCard.getVersion());
+                Card saved = cardRepository.save(card);
+                cardExpiryService.track(saved.getId(), saved.getExpirationDate());
+                return cardMapper.toDto(saved);
+            } else {
+                throw new BadRequestException(
+                        "The card can only be changed if the card has not expired or blocked status");
+            }
+        });
     }
 
     /**
@@ -85,15 +132,23 @@ public class CardServiceImpl implements CardService {
      * @param cardId    The ID of the card to update.
      * @param newStatus The new status to be set.
      */
-    @Transactional
     @Override
     public void updateCardStatus(UUID cardId, String newStatus) {
-        Card existingCard = cardValidator.getCardOrThrow_LockWrite(cardId);
-        // check if prev card status is not expired
-        if (cardValidator.isCardStatusEqualTo(existingCard, CardStatus.expired)){
-            throw new BadRequestException("The card status can only be changed if the card has not expired");
-        }
-        cardRepository.updateStatus(cardId, newStatus);
+        cardLockingExecutor.execute(CardOperation.card_update, lockMode -> {
+            Card existingCard = getCardOrThrow(cardId, lockMode);
+            // check if prev card status is not expired
+            if (cardValidator.isCardStatusEqualTo(existingCard, CardStatus.expired)){
+                throw new BadRequestException("The card status can only be changed if the card has not expired");
+            }
+            if (lockMode == CardLockMode.optimistic) {
+                if (cardRepository.updateStatusByIdAndVersion(cardId, newStatus, existingCard.getVersion()) == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Card.class, cardId);
+                }
+            } else {
+                cardRepository.updateStatus(cardId, newStatus);
+            }
+            return null;
+        });
     }
 
     /**
@@ -102,15 +157,36 @@ public class CardServiceImpl implements CardService {
      * @param cardId     The ID of the card.
      * @param newLimit   The new transaction limit per day to be set.
      */
-    @Transactional
     @Override
     public void updateCardsTransactionLimitPerDayById(UUID cardId, BigDecimal newLimit) {
-        Card existingCard = cardValidator.getCardOrThrow_LockWrite(cardId);
-        if(cardValidator.isCardStatusEqualTo(existingCard, CardStatus.expired)
-                || cardValidator.isCardStatusEqualTo(existingCard, CardStatus.blocked)){
-            throw new BadRequestException("The card can only be changed if the card has not expired or blocked status");
-        }
-        cardRepository.updateTransactionLimitPerDayById(cardId, newLimit);
+        cardLockingExecutor.execute(CardOperation.card_update, lockMode -> {
+            Card existingCard = getCardOrThrow(cardId, lockMode);
+            if(cardValidator.isCardStatusEqualTo(existingCard, CardStatus.expired)
+                    || cardValidator.isCardStatusEqualTo(existingCard, CardStatus.blocked)){
+                throw new BadRequestException("The card can only be changed if the card has not expired or blocked status");
+            }
+            if (lockMode == CardLockMode.optimistic) {
+                if (cardRepository.updateTransactionLimitPerDayByIdAndVersion(cardId, newLimit, existingCard.getVersion()) == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Card.class, cardId);
+                }
+            } else {
+                cardRepository.updateTransactionLimitPerDayById(cardId, newLimit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reads the card to modify: locked in the pessimistic mode, as is in the optimistic mode
+     * (the update then checks the card version).
+     *
+     * @param cardId The ID of the card.
+     * @param lockMode The lock mode of the operation.
+     */
+    private Card getCardOrThrow(UUID cardId, CardLockMode lockMode) {
+        return lockMode == CardLockMode.optimistic
+                ? cardValidator.getCardOrThrow(cardId)
+                : cardValidator.getCardOrThrow_LockWrite(cardId);
     }
 
     /**
@@ -131,7 +207,31 @@ public class CardServiceImpl implements CardService {
      */
     @Override
     public Page<CardDto> findAll(Pageable pageable) {
-        return cardRepository.findAll(pageable).map(card -> modelMapper.map(card, CardDto.class));
+        return cardRepository.findAll(pageable).map(cardMapper::toDto);
+    }
+
+    /**
+     * Retrieves a page of all cards in the order of their IDs (keyset pagination).
+     * One more card than requested is read to know whether there is a next page, no count query is run.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of cards of the page.
+     */
+    @Override
+    public SeekPageDto<CardDto> findAll(String cursor, int size) {
+        SeekCursor.checkPageSize(size);
+        List<Card> cards = cursor == null
+                ? cardRepository.findAllSeekFirst(size + 1)
+                : cardRepository.findAllSeekAfter(SeekCursor.toCardId(cursor), size + 1);
+        String nextCursor = null;
+        if (cards.size() > size) {
+            cards = cards.subList(0, size);
+            nextCursor = SeekCursor.ofCard(cards.get(size - 1).getId());
+        }
+        return SeekPageDto.<CardDto>builder()
+                .content(cards.stream().map(cardMapper::toDto).toList())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
@@ -144,7 +244,7 @@ public class CardServiceImpl implements CardService {
     @Override
     public Page<CardDto> findAllByOwnerId(UUID ownerId, Pageable pageable) {
         return cardRepository.findAllByOwnerId(ownerId, pageable)
-                .map(card -> modelMapper.map(card, CardDto.class));
+                .map(cardMapper::toDto);
     }
 
 }
@@ -0,0 +1,93 @@
+package com.api.service;
+
+import com.api.repository.CardDailySpendRepository;
+import com.api.repository.CardRepository;
+import com.api.service.interfaces.DailySpendService;
+import com.api.util.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class DailySpendServiceImpl
+ *
+ * Service implementation for the per-card, per-day expense counters.
+ * The counters replace the SUM over the card transactions in the daily limit check,
+ * so the check costs the same no matter how many transfers the card has made today.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailySpendServiceImpl implements DailySpendService {
+
+    private final CardDailySpendRepository cardDailySpendRepository;
+    private final CardRepository cardRepository;
+
+    /**
+     * Retrieves the amount a card has already sent during a specific day, in cents.
+     *
+     * @param cardId The ID of the source card.
+     * @param day The day of the expenses.
+     */
+    @Override
+    public long getExpenses(UUID cardId, LocalDate day) {
+        return cardDailySpendRepository.getExpensesMinor(cardId, day);
+    }
+
+    /**
+     * Adds an amount to the expenses of a card (joins the caller's transaction).
+     *
+     * @param cardId The ID of the source card.
+     * @param day The day of the transaction.
+     * @param amountMinor The transaction amount, in cents.
+     */
+    @Override
+    @Transactional
+    public void registerExpense(UUID cardId, LocalDate day, long amountMinor) {
+        cardDailySpendRepository.addExpense(cardId, day, Money.toBigDecimal(amountMinor));
+    }
+
+    /**
+     * Rebuilds the counter of a single card for a specific day under the card row lock.
+     *
+     * @param cardId The ID of the card.
+     * @param day The day to rebuild.
+     */
+    @Override
+    @Transactional
+    public void reconcileCard(UUID cardId, LocalDate day) {
+        cardRepository.findByIdLockWrite(cardId);
+        LocalDateTime start = day.atStartOfDay();
+        cardDailySpendRepository.rebuildForCard(cardId, day, start, start.plusDays(1));
+    }
+
+    /**
+     * Rebuilds the counters of all cards for a specific day.
+     *
+     * @param day The day to rebuild.
+     */
+    @Override
+    @Transactional
+    public void reconcileDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        int rebuilt = cardDailySpendRepository.rebuildForDay(day, start, start.plusDays(1));
+        int deleted = cardDailySpendRepository.deleteOrphansForDay(day, start, start.plusDays(1));
+        log.info("daily spend counters for {} are reconciled (rebuilt: {}, deleted: {})", day, rebuilt, deleted);
+    }
+
+    /**
+     * Deletes the counters older than the specified day.
+     *
+     * @param day The first day to keep.
+     */
+    @Override
+    @Transactional
+    public void purgeOlderThan(LocalDate day) {
+        int deleted = cardDailySpendRepository.deleteOlderThan(day);
+        log.info("{} daily spend counters older than {} are deleted", deleted, day);
+    }
+}
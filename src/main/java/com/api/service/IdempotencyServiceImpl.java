@@ -0,0 +1,138 @@
+package com.api.service;
+
+import com.api.config.enums.IdempotencyStatus;
+import com.api.dto.PaymentDto;
+import com.api.entity.IdempotencyRecord;
+import com.api.entity.IdempotencyRecordId;
+import com.api.exception.BadRequestException;
+import com.api.exception.ConflictException;
+import com.api.exception.ForbiddenException;
+import com.api.exception.TransferNotMadeException;
+import com.api.repository.IdempotencyRecordRepository;
+import com.api.service.interfaces.IdempotencyService;
+import com.api.util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Class IdempotencyServiceImpl
+ *
+ * Service implementation of the Idempotency-Key support.
+ * The keys are stored in the `idempotency_keys` table (the primary key makes concurrent retries with the same key
+ * race on a single insert) and the completed ones are also kept in a bounded in-memory cache,
+ * so a replay is answered with one hash map lookup, without touching the database or the card rows.
+ *
+ * The key is marked completed in the DB transaction of the transfer itself, so a committed transfer always
+ * has a completed key. It is released only when the transfer is rejected or is known not to be made
+ * ({@link TransferNotMadeException}, e.g. the transfer queue is full): after any other
+ * failure (e.g. the caller is interrupted while its transfer is queued) the transfer may still be made,
+ * so the key stays pending until that transfer marks it completed or the key expires.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final BoundedCache<IdempotencyRecordId, IdempotencyRecord> completed;
+    private final Duration ttl;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  @Value("${transaction.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${transaction.idempotency.ttl-hours:24}") long ttlHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.completed = new BoundedCache<>(cacheSize);
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    /**
+     * Runs the transfer once per key and source card.
+     *
+     * @param key The Idempotency-Key header value (null to run the transfer without deduplication).
+     * @param paymentDto The payment details.
+     * @param transfer The transfer to run, given the work to run in its DB transaction (null without a key).
+     * @throws BadRequestException if the key is too long or is already used for another payment.
+     * @throws ConflictException if a request with the same key is still in progress.
+     */
+    @Override
+    public void executeOnce(String key, PaymentDto paymentDto, Consumer<Runnable> transfer) {
+        if (key == null) {
+            transfer.accept(null);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters long");
+        }
+        IdempotencyRecordId id = new IdempotencyRecordId(paymentDto.getSourceCardId(), key);
+
+        IdempotencyRecord cached = completed.get(id);
+        if (cached != null) {
+            validateSamePayment(cached, paymentDto);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.insertPending(id.getSourceCardId(), key,
+                paymentDto.getDestinationCardId(), paymentDto.getAmount(), now) == 0) {
+            replay(id, paymentDto);
+            return;
+        }
+
+        try {
+            transfer.accept(() -> idempotencyRecordRepository.markCompleted(id.getSourceCardId(), key));
+        } catch (BadRequestException | ForbiddenException | ConflictException | TransferNotMadeException e) {
+            // nothing is made (its DB transaction is rolled back), so the same key may be used to try again
+            idempotencyRecordRepository.deleteKey(id.getSourceCardId(), key);
+            throw e;
+        }
+        completed.put(id, new IdempotencyRecord(id, paymentDto.getDestinationCardId(), paymentDto.getAmount(),
+                IdempotencyStatus.completed, now), expiresAt(now));
+    }
+
+    /**
+     * Answers a request whose key is already stored.
+     */
+    private void replay(IdempotencyRecordId id, PaymentDto paymentDto) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(id);
+        if (stored.isEmpty()) {
+            // the first request has just failed and released the key
+            throw new ConflictException("A request with this Idempotency-Key has just failed, try again");
+        }
+        IdempotencyRecord record = stored.get();
+        validateSamePayment(record, paymentDto);
+        if (record.getStatus() != IdempotencyStatus.completed) {
+            throw new ConflictException("A request with this Idempotency-Key is in progress");
+        }
+        completed.put(id, record, expiresAt(record.getCreatedAt()));
+    }
+
+    private void validateSamePayment(IdempotencyRecord record, PaymentDto paymentDto) {
+        if (!record.getDestinationCardId().equals(paymentDto.getDestinationCardId())
+                || record.getAmount().compareTo(paymentDto.getAmount()) != 0) {
+            throw new BadRequestException("Idempotency-Key is already used for another payment");
+        }
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} based time the key created at the given time expires.
+     */
+    private long expiresAt(LocalDateTime createdAt) {
+        return System.nanoTime() + Duration.between(LocalDateTime.now(), createdAt.plus(ttl)).toNanos();
+    }
+
+    /**
+     * Deletes the keys older than the configured time to live.
+     */
+    @Override
+    public int purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        log.info("deleted {} expired idempotency keys", deleted);
+        return deleted;
+    }
+}
@@ -0,0 +1,81 @@
+package com.api.service;
+
+import com.api.repository.CardBalanceSnapshotRepository;
+import com.api.repository.PostingRepository;
+import com.api.service.interfaces.PostingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class PostingServiceImpl
+ *
+ * Service implementation for the append-only double-entry postings.
+ * A transfer only inserts two postings, so a hot card is not rewritten (no dead row version) on every transfer;
+ * the compaction writes one snapshot row per card and per run instead.
+ */
+@Slf4j
+@Service
+public class PostingServiceImpl implements PostingService {
+
+    private final PostingRepository postingRepository;
+    private final CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PostingServiceImpl(PostingRepository postingRepository,
+                              CardBalanceSnapshotRepository cardBalanceSnapshotRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.postingRepository = postingRepository;
+        this.cardBalanceSnapshotRepository = cardBalanceSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public BigDecimal getBalance(UUID cardId) {
+        return postingRepository.getBalance(cardId);
+    }
+
+    @Override
+    @Transactional
+    public void registerTransfer(UUID transactionId, UUID sourceCardId, UUID destinationCardId, BigDecimal amount,
+                                 LocalDateTime dateTime) {
+        postingRepository.insertTransfer(transactionId, sourceCardId, destinationCardId,
+                amount.setScale(2, RoundingMode.HALF_UP), dateTime);
+    }
+
+    /**
+     * Runs in two short DB transactions: the first one waits for the postings in flight and reads the last
+     * posting ID (inserts are blocked only meanwhile), the second one rolls the snapshots forward up to it.
+     */
+    @Override
+    public int compact() {
+        Long lastPostingId = transactionTemplate.execute(status -> {
+            postingRepository.lockAgainstInserts();
+            return postingRepository.getLastPostingId();
+        });
+        LocalDateTime takenAt = LocalDateTime.now();
+        Integer rolled = transactionTemplate.execute(status -> {
+            int snapshots = cardBalanceSnapshotRepository.rollForward(lastPostingId, takenAt);
+            cardBalanceSnapshotRepository.copyBalancesToCards(takenAt);
+            return snapshots;
+        });
+        log.debug("{} card balance snapshot(s) are rolled forward to posting {}", rolled, lastPostingId);
+        return rolled;
+    }
+
+    @Override
+    public List<UUID> checkConsistency(int limit) {
+        List<UUID> unbalanced = postingRepository.findUnbalancedTransactionIds(limit);
+        if (!unbalanced.isEmpty()) {
+            log.error("postings of {} transaction(s) are not balanced, e.g. {}", unbalanced.size(), unbalanced.get(0));
+        }
+        return unbalanced;
+    }
+}
@@ -0,0 +1,128 @@
+package com.api.service;
+
+import com.api.repository.TransactionArchiveRepository;
+import com.api.service.interfaces.TransactionArchiveService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class TransactionArchiveServiceImpl
+ *
+ * Service implementation for the cold archive: moves the transactions older than
+ * {@code transaction.archive.horizon-days} days from the `transactions` table to `transactions_archive`,
+ * oldest first, {@code transaction.archive.batch-size} rows per statement.
+ * It is throttled by a pause between the batches ({@code transaction.archive.pause-ms}) and a number of batches
+ * per run ({@code transaction.archive.max-batches-per-run}), so it doesn't compete with the transfers for I/O.
+ *
+ * <p>The card history reads both tables, so the archived transactions stay visible there.
+ * The horizon must keep the current and the previous day in the `transactions` table,
+ * which the daily limit check and the daily expenses reconciliation read.
+ *
+ * Metrics: {@code transaction.archive.moved} (archived transactions), {@code transaction.archive.batch}
+ * (duration of a batch) and {@code transaction.archive.remaining} (1 while the last run stopped with rows left).
+ */
+@Slf4j
+@Service
+public class TransactionArchiveServiceImpl implements TransactionArchiveService {
+
+    private static final int MIN_HORIZON_DAYS = 2;
+
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatchesPerRun;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong remaining = new AtomicLong();
+    private final Counter moved;
+    private final Timer batchTimer;
+
+    public TransactionArchiveServiceImpl(TransactionArchiveRepository transactionArchiveRepository,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${transaction.archive.enabled:false}") boolean enabled,
+                                         @Value("${transaction.archive.horizon-days:365}") int horizonDays,
+                                         @Value("${transaction.archive.batch-size:1000}") int batchSize,
+                                         @Value("${transaction.archive.pause-ms:200}") long pauseMillis,
+                                         @Value("${transaction.archive.max-batches-per-run:1000}") int maxBatchesPerRun) {
+        if (horizonDays < MIN_HORIZON_DAYS) {
+            throw new IllegalArgumentException("transaction.archive.horizon-days must be at least " + MIN_HORIZON_DAYS);
+        }
+        this.transactionArchiveRepository = transactionArchiveRepository;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.moved = Counter.builder("transaction.archive.moved")
+                .description("Transactions moved to the archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("transaction.archive.batch")
+                .description("Duration of an archive batch")
+                .register(meterRegistry);
+        Gauge.builder("transaction.archive.remaining", remaining, AtomicLong::get)
+                .description("1 while the last archive run stopped before archiving everything")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long archive() {
+        if (!enabled) {
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("transactions archiving is already running");
+            return 0;
+        }
+        try {
+            return archiveUntil(LocalDate.now().minusDays(horizonDays).atStartOfDay());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveUntil(LocalDateTime horizon) {
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            long started = System.nanoTime();
+            long count = transactionArchiveRepository.archiveBatch(horizon, batchSize);
+            batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            moved.increment(count);
+            total += count;
+            if (count < batchSize) {
+                remaining.set(0);
+                log.info("archived {} transaction(s) older than {}", total, horizon);
+                return total;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        remaining.set(1);
+        log.info("archived {} transaction(s) older than {}, the rest is left to the next run", total, horizon);
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.api.service;
+
+import com.api.service.interfaces.TransactionPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class TransactionPartitionServiceImpl
+ *
+ * Service implementation for the maintenance of the monthly partitions of the `transactions` table
+ * (range partitioned on `local_date_time`, see the changeset 18).
+ *
+ * <p>A partition `transactions_pYYYYMM` covers one month. The partitions are created ahead of time,
+ * so the transfers never insert into the default partition; old partitions are detached after
+ * {@code transaction.partitions.retention-months} and kept as plain tables for archiving
+ * (or dropped with {@code transaction.partitions.drop-detached=true}).
+ * The detach briefly locks the table: PostgreSQL doesn't detach a partition {@code CONCURRENTLY}
+ * while the table has a default partition.
+ * Nothing is done when the table is not partitioned.
+ */
+@Slf4j
+@Service
+public class TransactionPartitionServiceImpl implements TransactionPartitionService {
+
+    private static final String SCHEMA = "\"bank_cards_management\"";
+    private static final String TABLE = SCHEMA + ".transactions";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+
+    public TransactionPartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${transaction.partitions.months-ahead:3}") int monthsAhead,
+                                           @Value("${transaction.partitions.retention-months:0}") int retentionMonths,
+                                           @Value("${transaction.partitions.drop-detached:false}") boolean dropDetached) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+    }
+
+    /**
+     * A range partition of the `transactions` table.
+     *
+     * @param name the name of the partition table.
+     * @param from the lower bound (inclusive), null for MINVALUE.
+     * @param to the upper bound (exclusive), null for MAXVALUE.
+     */
+    record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+            return (from == null || from.isBefore(otherTo)) && (to == null || to.isAfter(otherFrom));
+        }
+    }
+
+    @Override
+    public List<String> createFuturePartitions() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        List<String> created = new ArrayList<>();
+        for (YearMonth month : monthsToCreate(findPartitions(), YearMonth.now(), monthsAhead)) {
+            String name = partitionName(month);
+            try {
+                transactionTemplate.executeWithoutResult(status -> createPartition(name, month));
+                created.add(name);
+                log.info("created transactions partition {}", name);
+            } catch (DataAccessException e) {
+                // e.g. created at the same time by another instance: the next run sees it
+                log.warn("could not create transactions partition {}: {}", name, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public List<String> detachExpiredPartitions() {
+        if (retentionMonths <= 0 || !isPartitioned()) {
+            return List.of();
+        }
+        List<String> detached = new ArrayList<>();
+        for (Partition partition : partitionsToDetach(findPartitions(), YearMonth.now(), retentionMonths)) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + qualified(partition.name()));
+                if (dropDetached) {
+                    jdbcTemplate.execute("DROP TABLE " + qualified(partition.name()));
+                }
+                detached.add(partition.name());
+                log.info("detached transactions partition {} (to {}){}", partition.name(), partition.to(),
+                        dropDetached ? " and dropped it" : "");
+            } catch (DataAccessException e) {
+                log.warn("could not detach transactions partition {}: {}", partition.name(), e.getMessage());
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Creates the partition as a plain table, moves into it the rows of its month that are in the default
+     * partition and attaches it: attaching a partition fails while the default one has rows of its range.
+     */
+    private void createPartition(String name, YearMonth month) {
+        String table = qualified(name);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+        String defaultPartition = findDefaultPartition();
+        if (defaultPartition != null) {
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + qualified(defaultPartition)
+                    + " WHERE local_date_time >= ? AND local_date_time < ? RETURNING *) "
+                    + "INSERT INTO " + table + " SELECT * FROM moved", from, to);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + table
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)",
+                Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private String findDefaultPartition() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_partitioned_table pt
+                JOIN pg_class c ON c.oid = pt.partdefid
+                WHERE pt.partrelid = to_regclass(?)
+                """, String.class, TABLE);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    private List<Partition> findPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                """, rs -> {
+            Partition partition = parsePartition(rs.getString(1), rs.getString(2));
+            if (partition != null) {
+                partitions.add(partition);
+            }
+        }, TABLE);
+        return partitions;
+    }
+
+    /**
+     * Parses the bound of a partition as printed by `pg_get_expr`,
+     * e.g. {@code FOR VALUES FROM ('2025-01-01 00:00:00') TO ('2025-02-01 00:00:00')}.
+     *
+     * @return the partition, or null for the default partition.
+     */
+    static Partition parsePartition(String name, String bound) {
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new Partition(name, parseBoundValue(matcher.group(1)), parseBoundValue(matcher.group(2)));
+    }
+
+    private static LocalDateTime parseBoundValue(String value) {
+        if ("MINVALUE".equals(value) || "MAXVALUE".equals(value)) {
+            return null;
+        }
+        return LocalDateTime.parse(value.replace("'", "").replace(' ', 'T'));
+    }
+
+    /**
+     * Returns the months from the current one to {@code monthsAhead} months ahead that no partition covers.
+     */
+    static List<YearMonth> monthsToCreate(List<Partition> partitions, YearMonth current, int monthsAhead) {
+        List<YearMonth> months = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (partitions.stream().noneMatch(partition -> partition.overlaps(from, to))) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Returns the partitions whose rows are all older than the first day of the month
+     * {@code retentionMonths} months before the current one.
+     */
+    static List<Partition> partitionsToDetach(List<Partition> partitions, YearMonth current, int retentionMonths) {
+        LocalDateTime cutoff = current.minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        return partitions.stream()
+                .filter(partition -> partition.to() != null && !partition.to().isAfter(cutoff))
+                .toList();
+    }
+
+    static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static String qualified(String name) {
+        return SCHEMA + ".\"" + name + "\"";
+    }
+}
@@ -1,24 +1,53 @@
 package com.api.service;
 
+import com.api.config.enums.CardLockMode;
+import com.api.config.enums.CardOperation;
+import com.api.config.enums.TransferOutcome;
+import com.api.config.enums.TransferPhase;
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.dto.PaymentResultDto;
+import com.api.dto.SeekPageDto;
 import com.api.dto.TransactionDto;
 import com.api.dto.TransactionDtoNoId;
+import com.api.entity.Card;
+import com.api.entity.CardDailySpendId;
 import com.api.entity.Transaction;
 import com.api.exception.BadRequestException;
-import com.api.repository.CardRepository;
+import com.api.exception.TransferNotMadeException;
+import com.api.jfr.TransferEvent;
+import com.api.mapper.TransactionMapper;
+import com.api.repository.TransactionArchiveRepository;
 import com.api.repository.TransactionRepository;
+import com.api.service.executor.CardLockingExecutor;
+import com.api.service.executor.interfaces.CardStateTransactionExecutor;
 import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
 import com.api.service.interfaces.TransactionService;
 import com.api.service.validation.TransactionValidator;
+import com.api.util.Money;
+import com.api.util.SeekCursor;
+import com.api.util.TransferMetrics;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Class TransactionServiceImpl
@@ -31,10 +60,23 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
+    /**
+     * The order of the card history: newest first, then by ID in the order of the PostgreSQL `uuid` type
+     * (unsigned bytes), the order of the keyset queries.
+     */
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+            .comparing(Transaction::getLocalDateTime)
+            .thenComparing(Transaction::getId, TransactionServiceImpl::compareUuids)
+            .reversed();
+
     private final TransactionRepository transactionRepository;
-    private final ModelMapper modelMapper;
+    private final TransactionMapper transactionMapper;
     private final InternalTransactionExecutor internalTransactionExecutor;
     private final TransactionValidator transactionValidator;
+    private final DailySpendService dailySpendService;
+    private final CardLockingExecutor cardLockingExecutor;
+    private final TransferMetrics transferMetrics;
+    private final TransactionArchiveRepository transactionArchiveRepository;
 
     /**
      * Retrieves a transaction by its ID.
@@ -43,7 +85,7 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public TransactionDto getTransactionById(UUID transactionId) {
-        return modelMapper.map(transactionRepository.findById(transactionId), TransactionDto.class);
+        return transactionRepository.findById(transactionId).map(transactionMapper::toDto).orElse(null);
     }
 
     /**
@@ -52,9 +94,12 @@ public class TransactionServiceImpl implements TransactionService {
      * @param transactionDtoNoId The transaction details without the ID.
      */
     @Override
+    @Transactional
     public TransactionDto addTransaction(TransactionDtoNoId transactionDtoNoId) {
-        Transaction transaction = transactionRepository.save(modelMapper.map(transactionDtoNoId, Transaction.class));
-        return modelMapper.map(transaction, TransactionDto.class);
+        Transaction transaction = transactionRepository.save(transactionMapper.toEntity(transactionDtoNoId));
+        dailySpendService.registerExpense(transaction.getSource().getId(),
+                transaction.getLocalDateTime().toLocalDate(), Money.toMinor(transaction.getAmount()));
+        return transactionMapper.toDto(transaction);
     }
 
     /**
@@ -65,8 +110,14 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional
     public TransactionDto updateTransaction(TransactionDto transactionDto) {
-        Transaction transaction = transactionRepository.save(modelMapper.map(transactionDto, Transaction.class));
-        return modelMapper.map(transaction, TransactionDto.class);
+        // The previous version may belong to another card or day, so its counter is rebuilt as well
+        Optional<CardDailySpendId> previous = transactionRepository.findById(transactionDto.getId())
+                .map(this::getDailySpendId);
+        Transaction transaction = transactionRepository.save(transactionMapper.toEntity(transactionDto));
+        transactionRepository.flush();
+        previous.ifPresent(this::reconcileDailySpend);
+        reconcileDailySpend(getDailySpendId(transaction));
+        return transactionMapper.toDto(transaction);
     }
 
     /**
@@ -75,8 +126,31 @@ public class TransactionServiceImpl implements TransactionService {
      * @param transactionId The ID of the transaction to be deleted.
      */
     @Override
+    @Transactional
     public void deleteTransactionById(UUID transactionId) {
+        Optional<CardDailySpendId> previous = transactionRepository.findById(transactionId)
+                .map(this::getDailySpendId);
         transactionRepository.deleteById(transactionId);
+        transactionRepository.flush();
+        previous.ifPresent(this::reconcileDailySpend);
+    }
+
+    /**
+     * Returns the daily expenses counter key (source card and day) of a transaction.
+     *
+     * @param transaction The transaction.
+     */
+    private CardDailySpendId getDailySpendId(Transaction transaction) {
+        return new CardDailySpendId(transaction.getSource().getId(), transaction.getLocalDateTime().toLocalDate());
+    }
+
+    /**
+     * Rebuilds the daily expenses counter of a source card for a specific day.
+     *
+     * @param dailySpendId The source card ID and the day.
+     */
+    private void reconcileDailySpend(CardDailySpendId dailySpendId) {
+        dailySpendService.reconcileCard(dailySpendId.getCardId(), dailySpendId.getSpendDate());
     }
 
     /**
@@ -86,8 +160,23 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Page<TransactionDto> findAll(Pageable pageable) {
-        return transactionRepository.findAll(pageable).map(
-                transaction -> modelMapper.map(transaction, TransactionDto.class));
+        return transactionRepository.findAll(pageable).map(transactionMapper::toDto);
+    }
+
+    /**
+     * Retrieves a page of all transactions, newest first (keyset pagination).
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of transactions of the page.
+     */
+    @Override
+    public SeekPageDto<TransactionDto> findAll(String cursor, int size) {
+        SeekCursor.checkPageSize(size);
+        if (cursor == null) {
+            return toSeekPage(transactionRepository.findAllSeekFirst(size + 1), size);
+        }
+        SeekCursor.TransactionKey after = SeekCursor.toTransactionKey(cursor);
+        return toSeekPage(transactionRepository.findAllSeekAfter(after.localDateTime(), after.id(), size + 1), size);
     }
 
     /**
@@ -98,19 +187,195 @@ public class TransactionServiceImpl implements TransactionService {
      * @param sourceCardId      The ID of the source card.
      * @param destinationCardId The ID of the destination card.
      * @param amount            The amount to be transferred.
+     * The DB transaction is run by {@link CardLockingExecutor} with the lock mode configured for transfers
+     * (in the optimistic mode it is retried if the cards are modified concurrently).
+     * The amount is converted to cents once, the rest of the transfer works on {@link Money} cents.
+     * The whole transfer and its commit are timed by {@link TransferMetrics} (the other phases are timed
+     * by the validator and the executor); a slow transfer is recorded as a {@link TransferEvent}.
+     *
      * @throws BadRequestException If any validation check fails.
      */
     @Override
-    @Transactional
     public void makeTransaction(UUID sourceCardId, UUID destinationCardId, BigDecimal amount){
-        // Validation to make transaction (different cards, same owner, day limit etc.)
-        TransactionValidator.SourceAndDestinationCards sourceAndDestinationCards =
-                transactionValidator.makeTransaction_validateCardsAndAmount(sourceCardId, destinationCardId, amount);
-        // Perform transaction (set new balances and save to DB)
-        internalTransactionExecutor.performTransaction(
-                sourceAndDestinationCards.getSource(),
-                sourceAndDestinationCards.getDestination(),
-                amount);
+        makeTransaction(sourceCardId, destinationCardId, amount, null);
+    }
+
+    /**
+     * Handles the logic of making a transaction between two cards (see {@link #makeTransaction(UUID, UUID, BigDecimal)})
+     * and runs the given work in the DB transaction of the transfer, after the transfer is made.
+     * An executor that keeps the card state makes the transfer on its own; with work to run, it is called
+     * in a DB transaction which its own one joins.
+     *
+     * @param inTransaction The work to run in the DB transaction of the transfer (null for none).
+     * @throws BadRequestException If any validation check fails.
+     * @throws TransferNotMadeException If a card can't be locked in time (the transfer is rolled back).
+     */
+    @Override
+    public void makeTransaction(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction){
+        long started = transferMetrics.start();
+        TransferEvent event = new TransferEvent();
+        event.begin();
+        try {
+            long amountMinor = Money.toMinor(amount);
+            if (internalTransactionExecutor instanceof CardStateTransactionExecutor cardStateExecutor) {
+                // The executor validates the transfer against its own card state: no card is loaded or locked here
+                if (inTransaction == null) {
+                    cardStateExecutor.performTransaction(sourceCardId, destinationCardId, amountMinor);
+                } else {
+                    cardLockingExecutor.execute(CardOperation.transfer, lockMode -> {
+                        cardStateExecutor.performTransaction(sourceCardId, destinationCardId, amountMinor);
+                        inTransaction.run();
+                        return null;
+                    });
+                }
+            } else {
+                // joined to a caller's DB transaction (group commit), the commit is not made here
+                boolean commits = !TransactionSynchronizationManager.isActualTransactionActive();
+                long commitStarted = cardLockingExecutor.execute(CardOperation.transfer, lockMode -> {
+                    long lockStarted = System.nanoTime();
+                    // a guarded executor re-checks the transfer in its own statement: no lock is held across the validation
+                    boolean unlocked = lockMode == CardLockMode.optimistic || internalTransactionExecutor.guardsTransfer();
+                    TransactionValidator.SourceAndDestinationCards sourceAndDestinationCards = unlocked
+                            ? transactionValidator.getCardsOrThrow(sourceCardId, destinationCardId)
+                            : transactionValidator.getCardsOrThrow_LockWrite(sourceCardId, destinationCardId);
+                    event.setLockWait(System.nanoTime() - lockStarted);
+                    // Validation to make transaction (different cards, same owner, day limit etc.)
+                    transactionValidator.validateCardsAndAmount(sourceAndDestinationCards, amountMinor);
+                    // Perform transaction (set new balances and save to DB)
+                    internalTransactionExecutor.performTransaction(
+                            sourceAndDestinationCards.getSource(),
+                            sourceAndDestinationCards.getDestination(),
+                            amountMinor);
+                    if (inTransaction != null) {
+                        inTransaction.run();
+                    }
+                    return System.nanoTime();
+                });
+                event.setCommitTime(System.nanoTime() - commitStarted);
+                if (commits) {
+                    transferMetrics.success(TransferPhase.commit, commitStarted);
+                }
+            }
+            transferMetrics.success(TransferPhase.total, started);
+            event.commitIfSlow(sourceCardId, destinationCardId, amount, TransferOutcome.success);
+        } catch (RuntimeException e) {
+            TransferOutcome outcome = TransferMetrics.outcomeOf(e);
+            transferMetrics.failure(TransferPhase.total, started, e);
+            event.commitIfSlow(sourceCardId, destinationCardId, amount, outcome);
+            if (outcome == TransferOutcome.lock_timeout
+                    && !(internalTransactionExecutor instanceof CardStateTransactionExecutor)) {
+                // the DB transaction of the transfer is rolled back: nothing is made
+                // (an executor that keeps the card state may have made the transfer before the lock failed)
+                throw new TransferNotMadeException("The card is locked by another operation, try again later");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Handles the logic of making many transactions at once (e.g. payroll-style jobs).
+     * Every card involved is locked once, in card ID order, then each payment is validated against the running
+     * balances and daily expenses and applied in memory. Card updates and transaction inserts are flushed
+     * with JDBC batching when the single DB transaction commits.
+     * A failed payment is reported in its result and doesn't affect the other payments.
+     * The cards are locked up front with a pessimistic lock and updated through their entities, whatever
+     * the configured {@code card.locking.transfer} mode and also with the {@code conditional} executor:
+     * one lock per card for the whole batch is what makes it cheap.
+     * Only an executor that keeps the card state makes the payments itself.
+     *
+     * @param payments The payments to be made, in order.
+     * @return the result of each payment.
+     */
+    @Override
+    @Transactional
+    public BatchPaymentResultDto makeTransactions(List<PaymentDto> payments) {
+        if (internalTransactionExecutor instanceof CardStateTransactionExecutor cardStateExecutor) {
+            return makeTransactionsOneByOne(cardStateExecutor, payments);
+        }
+        Set<UUID> cardIds = new HashSet<>();
+        for (PaymentDto payment : payments) {
+            cardIds.add(payment.getSourceCardId());
+            cardIds.add(payment.getDestinationCardId());
+        }
+        Map<UUID, Card> cards = transactionValidator.getCards_LockWrite(cardIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        Map<UUID, Long> expensesForToday = new HashMap<>();
+        Map<UUID, Long> newExpenses = new HashMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        List<PaymentResultDto> results = new ArrayList<>(payments.size());
+
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentDto payment = payments.get(i);
+            try {
+                long amountMinor = Money.toMinor(payment.getAmount());
+                Card source = cards.get(payment.getSourceCardId());
+                if (source == null) throw new BadRequestException("There is no such source card");
+                Card destination = cards.get(payment.getDestinationCardId());
+                if (destination == null) throw new BadRequestException("There is no such destination card");
+
+                long expenses = expensesForToday.computeIfAbsent(
+                        source.getId(), cardId -> dailySpendService.getExpenses(cardId, today));
+                transactionValidator.validateTransfer(source, destination, amountMinor, expenses);
+
+                // Applied in memory, flushed once per card on commit
+                source.setBalanceMinor(Money.subtract(source.getBalanceMinor(), amountMinor));
+                destination.setBalanceMinor(Money.add(destination.getBalanceMinor(), amountMinor));
+                expensesForToday.put(source.getId(), Money.add(expenses, amountMinor));
+                newExpenses.merge(source.getId(), amountMinor, Money::add);
+
+                Transaction transaction = new Transaction(source, destination, now, amountMinor);
+                transactions.add(transaction);
+                results.add(PaymentResultDto.success(i, null));
+            } catch (BadRequestException e) {
+                results.add(PaymentResultDto.failure(i, e.getMessage()));
+            }
+        }
+
+        // ids are generated on persist, so they are known before the batched inserts are flushed
+        transactionRepository.saveAll(transactions);
+        int saved = 0;
+        for (PaymentResultDto result : results) {
+            if (result.isSuccess()) {
+                result.setTransactionId(transactions.get(saved++).getId());
+            }
+        }
+        newExpenses.forEach((cardId, amount) -> dailySpendService.registerExpense(cardId, today, amount));
+
+        return BatchPaymentResultDto.builder()
+                .succeeded(transactions.size())
+                .failed(payments.size() - transactions.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Makes the payments one by one with an executor that keeps the card state itself
+     * (each transfer is already cheap, there are no card rows to lock once).
+     *
+     * @param executor The executor that keeps the card state.
+     * @param payments The payments to be made, in order.
+     * @return the result of each payment.
+     */
+    private BatchPaymentResultDto makeTransactionsOneByOne(CardStateTransactionExecutor executor, List<PaymentDto> payments) {
+        List<PaymentResultDto> results = new ArrayList<>(payments.size());
+        int succeeded = 0;
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentDto payment = payments.get(i);
+            try {
+                results.add(PaymentResultDto.success(i, executor.performTransaction(
+                        payment.getSourceCardId(), payment.getDestinationCardId(), Money.toMinor(payment.getAmount()))));
+                succeeded++;
+            } catch (BadRequestException e) {
+                results.add(PaymentResultDto.failure(i, e.getMessage()));
+            }
+        }
+        return BatchPaymentResultDto.builder()
+                .succeeded(succeeded)
+                .failed(payments.size() - succeeded)
+                .results(results)
+                .build();
     }
 
     /**
@@ -123,6 +388,75 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public Page<TransactionDto> findAllByCardId(UUID cardId, Pageable pageable){
         return transactionRepository.findAllByCardId(cardId, pageable)
-                .map(transaction -> modelMapper.map(transaction, TransactionDto.class));
+                .map(transactionMapper::toDto);
+    }
+
+    /**
+     * Retrieves a page of the transactions for a specific card, newest first (keyset pagination).
+     * Once the page reaches the transactions older than the archive horizon, the archived transactions
+     * are merged in, so the history continues into the archive without the client noticing.
+     * Both tables are read in the same snapshot: a transaction archived meanwhile is returned exactly once.
+     *
+     * @param cardId The ID of the card to retrieve transactions for.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of transactions of the page.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SeekPageDto<TransactionDto> findAllByCardId(UUID cardId, String cursor, int size) {
+        SeekCursor.checkPageSize(size);
+        SeekCursor.TransactionKey after = cursor == null ? null : SeekCursor.toTransactionKey(cursor);
+        List<Transaction> transactions = after == null
+                ? transactionRepository.findAllByCardIdSeekFirst(cardId, size + 1)
+                : transactionRepository.findAllByCardIdSeekAfter(cardId, after.localDateTime(), after.id(), size + 1);
+        return toSeekPage(withArchived(cardId, after, transactions, size + 1), size);
+    }
+
+    /**
+     * Merges the archived transactions of a card into the transactions read from the `transactions` table,
+     * when these reach the archive: there are fewer than the limit, or the last one is not newer
+     * than the newest archived transaction. Otherwise the archive is not read.
+     */
+    private List<Transaction> withArchived(UUID cardId, SeekCursor.TransactionKey after,
+                                           List<Transaction> transactions, int limit) {
+        LocalDateTime newestArchived = transactionArchiveRepository.findNewestLocalDateTime();
+        if (newestArchived == null || (transactions.size() == limit
+                && transactions.get(limit - 1).getLocalDateTime().isAfter(newestArchived))) {
+            return transactions;
+        }
+        List<Transaction> archived = after == null
+                ? transactionArchiveRepository.findAllByCardIdSeekFirst(cardId, limit)
+                : transactionArchiveRepository.findAllByCardIdSeekAfter(cardId, after.localDateTime(), after.id(), limit);
+        if (archived.isEmpty()) {
+            return transactions;
+        }
+        List<Transaction> merged = new ArrayList<>(transactions.size() + archived.size());
+        merged.addAll(transactions);
+        merged.addAll(archived);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static int compareUuids(UUID uuid, UUID other) {
+        int result = Long.compareUnsigned(uuid.getMostSignificantBits(), other.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(uuid.getLeastSignificantBits(), other.getLeastSignificantBits());
+    }
+
+    /**
+     * Builds a page from the transactions read with one extra row: the extra row only tells that there is a next page.
+     */
+    private SeekPageDto<TransactionDto> toSeekPage(List<Transaction> transactions, int size) {
+        String nextCursor = null;
+        if (transactions.size() > size) {
+            transactions = transactions.subList(0, size);
+            Transaction last = transactions.get(size - 1);
+            nextCursor = SeekCursor.ofTransaction(last.getLocalDateTime(), last.getId());
+        }
+        return SeekPageDto.<TransactionDto>builder()
+                .content(transactions.stream()
+                        .map(transactionMapper::toDto)
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
     }
 }
@@ -5,11 +5,11 @@ import com.api.dto.UserDto;
 import com.api.dto.UserDtoNoId;
 import com.api.entity.User;
 import com.api.exception.BadRequestException;
+import com.api.mapper.UserMapper;
 import com.api.repository.UserRepository;
 import com.api.service.interfaces.UserService;
 import com.api.service.validation.UserValidator;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -27,7 +27,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserValidator userValidator;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     /**
      * Retrieves a user by their email.
@@ -46,8 +46,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDto getUserById(IdDto idDto) {
-        return modelMapper.map(userValidator.getUserByIdOrThrowBadRequest(idDto.getId()),
-                UserDto.class);
+        return userMapper.toDto(userValidator.getUserByIdOrThrowBadRequest(idDto.getId()));
     }
 
     /**
@@ -57,8 +56,8 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDto updateUser(UserDto userDto) {
-        User user = modelMapper.map(userDto, User.class);
-        return modelMapper.map(userRepository.save(user), UserDto.class);
+        User user = userMapper.toEntity(userDto);
+        return userMapper.toDto(userRepository.save(user));
     }
 
     /**
@@ -68,8 +67,8 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDto addUser(UserDtoNoId userDtoNoId) {
-        User user = modelMapper.map(userDtoNoId, User.class);
-        return modelMapper.map(userRepository.save(user), UserDto.class);
+        User user = userMapper.toEntity(userDtoNoId);
+        return userMapper.toDto(userRepository.save(user));
     }
 
     /**
@@ -89,7 +88,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Page<UserDto> findAll(Pageable pageable) {
-        return userRepository.findAll(pageable).map(
-                user -> modelMapper.map(user, UserDto.class));
+        return userRepository.findAll(pageable).map(userMapper::toDto);
     }
 }
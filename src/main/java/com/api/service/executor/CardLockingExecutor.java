@@ -0,0 +1,128 @@
+package com.api.service.executor;
+
+import com.api.config.enums.CardLockMode;
+import com.api.config.enums.CardOperation;
+import com.api.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Class CardLockingExecutor
+ *
+ * Runs an operation that modifies cards in a DB transaction, with the lock mode configured for that operation:
+ * {@code card.locking.transfer} and {@code card.locking.card-update} ({@code pessimistic} by default or {@code optimistic}).
+ *
+ * The operation reads the cards according to the given {@link CardLockMode}. In the optimistic mode a concurrent
+ * modification fails the version check on update; the whole DB transaction is then retried after a jittered
+ * exponential backoff, up to {@code card.locking.optimistic.max-attempts} attempts. Retries are also limited by
+ * a budget shared by all the callers ({@code card.locking.optimistic.retry-budget} retries per operation,
+ * the unused part accumulating up to 100 retries), so under heavy contention the callers fail fast with 409
+ * instead of piling up. In the pessimistic mode the operation runs once.
+ *
+ * Metrics: {@code card.locking.conflicts}, {@code card.locking.retries}, {@code card.locking.exhausted},
+ * tagged with the operation.
+ */
+@Slf4j
+@Component
+public class CardLockingExecutor {
+
+    private static final long BUDGET_UNIT = 1000;
+    private static final long MAX_BUDGET = 100 * BUDGET_UNIT;
+    private static final long BASE_BACKOFF_MILLIS = 2;
+    private static final long MAX_BACKOFF_MILLIS = 100;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<CardOperation, CardLockMode> lockModes = new EnumMap<>(CardOperation.class);
+    private final Map<CardOperation, Counter> conflicts = new EnumMap<>(CardOperation.class);
+    private final Map<CardOperation, Counter> retries = new EnumMap<>(CardOperation.class);
+    private final Map<CardOperation, Counter> exhausted = new EnumMap<>(CardOperation.class);
+    private final int maxAttempts;
+    private final long budgetPerOperation;
+    private final AtomicLong retryBudget = new AtomicLong(MAX_BUDGET);
+
+    public CardLockingExecutor(PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${card.locking.transfer:pessimistic}") CardLockMode transferLockMode,
+                               @Value("${card.locking.card-update:pessimistic}") CardLockMode cardUpdateLockMode,
+                               @Value("${card.locking.optimistic.max-attempts:5}") int maxAttempts,
+                               @Value("${card.locking.optimistic.retry-budget:0.2}") double retryBudget) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockModes.put(CardOperation.transfer, transferLockMode);
+        this.lockModes.put(CardOperation.card_update, cardUpdateLockMode);
+        this.maxAttempts = maxAttempts;
+        this.budgetPerOperation = Math.round(retryBudget * BUDGET_UNIT);
+        for (CardOperation operation : CardOperation.values()) {
+            conflicts.put(operation, meterRegistry.counter("card.locking.conflicts", "operation", operation.name()));
+            retries.put(operation, meterRegistry.counter("card.locking.retries", "operation", operation.name()));
+            exhausted.put(operation, meterRegistry.counter("card.locking.exhausted", "operation", operation.name()));
+        }
+    }
+
+    /**
+     * Returns the lock mode configured for the operation.
+     */
+    public CardLockMode getLockMode(CardOperation operation) {
+        return lockModes.get(operation);
+    }
+
+    /**
+     * Runs the work in a DB transaction, retrying it on optimistic locking conflicts.
+     * If a DB transaction is already active the work joins it and is not retried (the outer transaction is lost anyway).
+     *
+     * @param operation The operation (selects the lock mode and tags the metrics).
+     * @param work The work, given the lock mode to read the cards with.
+     * @throws ConflictException if the card is still modified concurrently after the last attempt.
+     */
+    public <T> T execute(CardOperation operation, Function<CardLockMode, T> work) {
+        CardLockMode lockMode = lockModes.get(operation);
+        if (lockMode == CardLockMode.pessimistic || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> work.apply(lockMode));
+        }
+
+        retryBudget.accumulateAndGet(budgetPerOperation, (budget, deposit) -> Math.min(MAX_BUDGET, budget + deposit));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.apply(lockMode));
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.get(operation).increment();
+                if (attempt >= maxAttempts || !takeRetryFromBudget()) {
+                    exhausted.get(operation).increment();
+                    log.warn("{}: card is modified concurrently, giving up after {} attempt(s)", operation, attempt);
+                    throw new ConflictException("The card is being modified concurrently, try again later");
+                }
+                retries.get(operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private boolean takeRetryFromBudget() {
+        return retryBudget.getAndUpdate(budget -> budget >= BUDGET_UNIT ? budget - BUDGET_UNIT : budget) >= BUDGET_UNIT;
+    }
+
+    /**
+     * Sleeps a random time between 0 and the exponential backoff of the attempt ("full jitter"),
+     * so the conflicting callers don't retry at the same moment again.
+     */
+    private void backoff(int attempt) {
+        long maxMillis = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting to retry the card update");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.api.service.executor;
+
+import com.api.entity.Card;
+import com.api.exception.BadRequestException;
+import com.api.repository.TransactionRepository;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.validation.TransactionValidator;
+import com.api.util.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class ConditionalTransactionExecutorImpl
+ *
+ * Transaction executor that performs the whole transfer as one guarded SQL statement
+ * (see {@link TransactionRepository#transferIfSufficientFunds}): the debit only succeeds if the source card
+ * is active, has sufficient funds and stays within its daily limit, so a balance can't go negative and the limit
+ * can't be exceeded even without a row lock taken in advance. The cards are read without a lock
+ * ({@link #guardsTransfer()}), so compared to {@link InternalTransactionExecutorImpl} (locked read, two card saves
+ * plus an insert) the cards rows are locked for a single round trip.
+ * The statement reports which guard failed, so a rejected transfer gets the same message as from the validator.
+ *
+ * Enabled with {@code transaction.executor.mode=conditional}.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transaction.executor.mode", havingValue = "conditional")
+public class ConditionalTransactionExecutorImpl implements InternalTransactionExecutor {
+
+    private final TransactionRepository transactionRepository;
+
+    @Override
+    public boolean guardsTransfer() {
+        return true;
+    }
+
+    /**
+     * Debits the source card, credits the destination card and stores the transaction in one statement.
+     * The entities are not modified, so Hibernate doesn't issue any additional update on flush.
+     *
+     * @param sourceCard the source card.
+     * @param destinationCard the destination card.
+     * @param amountMinor the amount to transfer, in cents.
+     * @throws BadRequestException if a guard fails, with the message of the matching {@link TransactionValidator}
+     *         check (the surrounding DB transaction is rolled back).
+     */
+    @Override
+    public void performTransaction(Card sourceCard, Card destinationCard, long amountMinor) {
+        TransactionRepository.GuardedTransfer transfer = transactionRepository.transferIfSufficientFunds(
+                UUID.randomUUID(),
+                sourceCard.getId(),
+                destinationCard.getId(),
+                LocalDateTime.now(),
+                Money.toBigDecimal(amountMinor));
+        if (transfer.getId() != null) {
+            return;
+        }
+        if (!transfer.isDebited()) {
+            // the cards were validated just before, so a source card that is still active lacks the funds
+            throw new BadRequestException(transfer.isActive()
+                    ? TransactionValidator.INSUFFICIENT_FUNDS
+                    : "source card is not active or expired");
+        }
+        if (!transfer.isCredited()) {
+            throw new BadRequestException("destination card is not active or expired");
+        }
+        throw new BadRequestException(
+                TransactionValidator.DAILY_LIMIT_EXCEEDED + sourceCard.getTransactionLimitPerDay());
+    }
+}
@@ -0,0 +1,29 @@
+package com.api.service.executor;
+
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Class DirectTransferDispatcher
+ *
+ * Default transfer dispatcher: every transfer is made in its own DB transaction on the caller thread.
+ *
+ * Enabled with {@code transaction.dispatch.mode=direct} (default).
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transaction.dispatch.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectTransferDispatcher implements TransferDispatcher {
+
+    private final TransactionService transactionService;
+
+    @Override
+    public void dispatch(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction) {
+        transactionService.makeTransaction(sourceCardId, destinationCardId, amount, inTransaction);
+    }
+}
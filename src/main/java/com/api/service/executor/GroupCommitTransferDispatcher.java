@@ -0,0 +1,235 @@
+package com.api.service.executor;
+
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.dto.PaymentResultDto;
+import com.api.exception.BadRequestException;
+import com.api.exception.ServerException;
+import com.api.exception.TransferNotMadeException;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class GroupCommitTransferDispatcher
+ *
+ * Transfer dispatcher that groups the transfers of concurrent callers into micro-batches:
+ * a transfer is put into a bounded queue and a single worker thread makes up to {@code batch-size} transfers
+ * (or the transfers that arrived within {@code linger-ms} after the first one) in one DB transaction
+ * with {@link TransactionService#makeTransactions}. So under load many transfers share one commit (one fsync).
+ * The caller waits until its batch is committed and gets the result of its own transfer:
+ * the payments are validated one by one against the locked cards, so a failed payment doesn't affect the others.
+ * The work given with a transfer (e.g. completing its Idempotency-Key) runs in the DB transaction of the batch
+ * once the transfer is made.
+ * If the whole batch fails (e.g. a DB error) its transfers are retried one by one in their own DB transactions.
+ * Like every batch, the cards of a batch are locked pessimistically and updated through their entities,
+ * whatever {@code card.locking.transfer} says and also with the {@code conditional} executor.
+ *
+ * The queue is bounded: when it is full the transfer is rejected right away.
+ *
+ * Not available with {@code transaction.executor.mode=ledger}: a ledger transfer is made in memory and in its
+ * write-ahead log before the DB transaction of the batch commits, so retrying a failed batch would make it twice.
+ *
+ * Metrics: {@code transaction.group_commit.batch.size}, {@code transaction.group_commit.linger}
+ * (time in the queue before the batch is started), {@code transaction.group_commit.queue.depth}.
+ *
+ * Enabled with {@code transaction.dispatch.mode=group-commit}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transaction.dispatch.mode", havingValue = "group-commit")
+public class GroupCommitTransferDispatcher implements TransferDispatcher {
+
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lingerTimer;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * A transfer waiting for its batch and the future completed when the batch is committed.
+     */
+    private record PendingTransfer(PaymentDto payment, Runnable inTransaction, long enqueuedAt,
+                                   CompletableFuture<Void> result) {}
+
+    public GroupCommitTransferDispatcher(TransactionService transactionService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${transaction.group-commit.batch-size:100}") int batchSize,
+                                         @Value("${transaction.group-commit.linger-ms:5}") long lingerMillis,
+                                         @Value("${transaction.group-commit.queue-capacity:10000}") int queueCapacity,
+                                         @Value("${transaction.executor.mode:entity}") String executorMode) {
+        if ("ledger".equals(executorMode)) {
+            throw new IllegalArgumentException(
+                    "transaction.dispatch.mode=group-commit can't be used with transaction.executor.mode=ledger");
+        }
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.batchSizeSummary = DistributionSummary.builder("transaction.group_commit.batch.size")
+                .description("Number of transfers committed in one DB transaction")
+                .register(meterRegistry);
+        this.lingerTimer = Timer.builder("transaction.group_commit.linger")
+                .description("Time a transfer waits in the queue before its batch is started")
+                .register(meterRegistry);
+        Gauge.builder("transaction.group_commit.queue.depth", queue, Collection::size)
+                .description("Number of transfers waiting in the queue")
+                .register(meterRegistry);
+        this.worker = Thread.ofPlatform().name("group-commit-worker").daemon().unstarted(this::run);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.start();
+        log.info("group commit transfer pipeline is started (batch size: {}, linger: {} ms, queue capacity: {})",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos), queue.remainingCapacity());
+    }
+
+    /**
+     * Stops the worker and fails the transfers that are still in the queue (they are not made).
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingTransfer> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(transfer -> transfer.result().completeExceptionally(
+                new TransferNotMadeException("Transfer is not made: the service is stopping")));
+    }
+
+    /**
+     * Puts the transfer into the queue and waits until its batch is committed.
+     *
+     * @throws BadRequestException if the transfer is not valid (same messages as a direct transfer).
+     * @throws TransferNotMadeException if the queue is full.
+     * @throws ServerException if the transfer can't be made.
+     */
+    @Override
+    public void dispatch(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction) {
+        PendingTransfer transfer = new PendingTransfer(new PaymentDto(sourceCardId, destinationCardId, amount),
+                inTransaction, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !queue.offer(transfer)) {
+            throw new TransferNotMadeException("Too many transfers in progress, try again later");
+        }
+        try {
+            transfer.result().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ServerException("Transfer is failed");
+        } catch (InterruptedException e) {
+            // the transfer stays in the pipeline and may still be made
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for the transfer result");
+        }
+    }
+
+    /**
+     * Worker loop: takes the first transfer, then collects more until the batch is full or the linger time is over.
+     */
+    private void run() {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(transfer -> transfer.result().completeExceptionally(
+                        new TransferNotMadeException("Transfer is not made: the service is stopping")));
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Makes the batch in one DB transaction and completes the future of every transfer with its own result.
+     * The work of the made transfers runs in the same DB transaction: if it fails, the whole batch is rolled back.
+     */
+    private void flush(List<PendingTransfer> batch) {
+        long startedAt = System.nanoTime();
+        batch.forEach(transfer -> lingerTimer.record(startedAt - transfer.enqueuedAt(), TimeUnit.NANOSECONDS));
+        batchSizeSummary.record(batch.size());
+
+        BatchPaymentResultDto batchResult;
+        try {
+            batchResult = transactionTemplate.execute(status -> {
+                BatchPaymentResultDto made = transactionService.makeTransactions(
+                        batch.stream().map(PendingTransfer::payment).toList());
+                for (PaymentResultDto result : made.getResults()) {
+                    Runnable inTransaction = batch.get(result.getIndex()).inTransaction();
+                    if (result.isSuccess() && inTransaction != null) {
+                        inTransaction.run();
+                    }
+                }
+                return made;
+            });
+        } catch (RuntimeException e) {
+            log.warn("group commit of {} transfers is failed, making them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::makeAlone);
+            return;
+        }
+        for (PaymentResultDto result : batchResult.getResults()) {
+            CompletableFuture<Void> future = batch.get(result.getIndex()).result();
+            if (result.isSuccess()) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(new BadRequestException(result.getMessage()));
+            }
+        }
+    }
+
+    private void makeAlone(PendingTransfer transfer) {
+        try {
+            PaymentDto payment = transfer.payment();
+            transactionService.makeTransaction(payment.getSourceCardId(), payment.getDestinationCardId(), payment.getAmount(),
+                    transfer.inTransaction());
+            transfer.result().complete(null);
+        } catch (RuntimeException e) {
+            transfer.result().completeExceptionally(e);
+        }
+    }
+}
@@ -1,40 +1,91 @@
 package com.api.service.executor;
 
+import com.api.config.enums.TransferPhase;
 import com.api.entity.Card;
 import com.api.entity.Transaction;
+import com.api.jfr.TransferWriteEvent;
 import com.api.repository.CardRepository;
 import com.api.repository.TransactionRepository;
 import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
+import com.api.util.Money;
+import com.api.util.TransferMetrics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Class InternalTransactionExecutorImpl
+ *
+ * Default transaction executor: updates the balances of the (already loaded) card entities,
+ * saves both cards and inserts the transaction.
+ *
+ * Enabled with {@code transaction.executor.mode=entity} (default).
+ */
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "transaction.executor.mode", havingValue = "entity", matchIfMissing = true)
 public class InternalTransactionExecutorImpl implements InternalTransactionExecutor {
 
     private final TransactionRepository transactionRepository;
     private final CardRepository cardRepository;
+    private final DailySpendService dailySpendService;
+    private final TransferMetrics transferMetrics;
 
     /**
+     * Moves the amount from the source card to the destination card and stores the transaction.
+     * Each step is flushed on its own (the daily expenses native query would flush them all anyway),
+     * so the statements are timed in their own {@link TransferPhase}. Slow writes are recorded as a {@link TransferWriteEvent}.
      *
+     * @param sourceCard the source card.
+     * @param destinationCard the destination card.
+     * @param amountMinor the amount to transfer, in cents.
      */
     @Override
-    public void performTransaction(Card sourceCard, Card destinationCard, BigDecimal amount) {
-        // Plus amount to the destination and minus from the source
-        sourceCard.setBalance(sourceCard.getBalance().subtract(amount));
-        destinationCard.setBalance(destinationCard.getBalance().add(amount));
-
-        // Update cards with new balances
-        cardRepository.save(sourceCard);
-        cardRepository.save(destinationCard);
-
-        // Add transaction to the database
-        Transaction transaction = new Transaction(
-                sourceCard, destinationCard, LocalDateTime.now(), amount
-        );
-        transactionRepository.save(transaction);
+    public void performTransaction(Card sourceCard, Card destinationCard, long amountMinor) {
+        TransferPhase phase = TransferPhase.card_save;
+        long started = transferMetrics.start();
+        TransferWriteEvent event = new TransferWriteEvent();
+        event.begin();
+        try {
+            // Plus amount to the destination and minus from the source
+            sourceCard.setBalanceMinor(Money.subtract(sourceCard.getBalanceMinor(), amountMinor));
+            destinationCard.setBalanceMinor(Money.add(destinationCard.getBalanceMinor(), amountMinor));
+
+            // Update cards with new balances
+            cardRepository.save(sourceCard);
+            cardRepository.save(destinationCard);
+            cardRepository.flush();
+            started = nextPhase(phase, started);
+
+            // Add transaction to the database
+            phase = TransferPhase.transaction_insert;
+            Transaction transaction = new Transaction(
+                    sourceCard, destinationCard, LocalDateTime.now(), amountMinor
+            );
+            transactionRepository.save(transaction);
+            transactionRepository.flush();
+            started = nextPhase(phase, started);
+
+            // Keep the source card daily expenses counter in sync (same DB transaction)
+            phase = TransferPhase.daily_spend_update;
+            dailySpendService.registerExpense(sourceCard.getId(), transaction.getLocalDateTime().toLocalDate(), amountMinor);
+            transferMetrics.success(phase, started);
+        } catch (RuntimeException e) {
+            transferMetrics.failure(phase, started, e);
+            throw e;
+        } finally {
+            event.commitIfSlow(sourceCard.getId(), destinationCard.getId());
+        }
+    }
+
+    /**
+     * Records a finished phase and returns the start of the next one.
+     */
+    private long nextPhase(TransferPhase finished, long started) {
+        transferMetrics.success(finished, started);
+        return transferMetrics.start();
     }
 }
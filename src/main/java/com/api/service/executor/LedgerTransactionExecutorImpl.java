@@ -0,0 +1,206 @@
+package com.api.service.executor;
+
+import com.api.config.enums.CardStatus;
+import com.api.entity.Card;
+import com.api.exception.BadRequestException;
+import com.api.exception.ServerException;
+import com.api.repository.CardDailySpendRepository;
+import com.api.repository.CardRepository;
+import com.api.repository.LedgerCheckpointRepository;
+import com.api.repository.TransactionRepository;
+import com.api.service.executor.interfaces.CardStateTransactionExecutor;
+import com.api.service.ledger.LedgerCard;
+import com.api.service.ledger.LedgerEngine;
+import com.api.service.ledger.LedgerProjection;
+import com.api.service.ledger.LedgerProjector;
+import com.api.service.ledger.LedgerRecord;
+import com.api.service.ledger.WriteAheadLog;
+import com.api.util.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Class LedgerTransactionExecutorImpl
+ *
+ * Transaction executor backed by the in-memory {@link LedgerEngine}: the balances and daily expenses of the cards
+ * are kept in memory, every transfer is made durable in a local write-ahead log ({@code ledger.wal.dir}) and
+ * the `transactions`, `cards` and `card_daily_spend` tables are updated asynchronously by the {@link LedgerProjector}.
+ * A transfer doesn't wait for the database, so it costs a lock and a (shared) fsync instead of a row lock
+ * and a commit.
+ *
+ * On startup the log records after the checkpoint (`ledger_checkpoint`) are replayed on top of the database,
+ * so a crash loses no acknowledged transfer. The status, owner and limit of the loaded cards are reloaded every
+ * {@code ledger.card-refresh-ms}.
+ *
+ * The tables are a projection: they lag behind the ledger by the projection queue
+ * ({@code /actuator/metrics/ledger.projection.lag}), and balances must not be changed directly in the database
+ * while the application runs. A single application instance must own the log directory.
+ *
+ * Enabled with {@code transaction.executor.mode=ledger}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transaction.executor.mode", havingValue = "ledger")
+public class LedgerTransactionExecutorImpl implements CardStateTransactionExecutor, LedgerProjection {
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final CardDailySpendRepository cardDailySpendRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path walDirectory;
+    private final int segmentSizeBytes;
+    private final int projectionBatchSize;
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private WriteAheadLog writeAheadLog;
+    private LedgerProjector projector;
+    private LedgerEngine engine;
+
+    public LedgerTransactionExecutorImpl(CardRepository cardRepository,
+                                         TransactionRepository transactionRepository,
+                                         CardDailySpendRepository cardDailySpendRepository,
+                                         LedgerCheckpointRepository ledgerCheckpointRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${ledger.wal.dir:./data/ledger-wal}") String walDirectory,
+                                         @Value("${ledger.wal.segment-size-mb:64}") int segmentSizeMegabytes,
+                                         @Value("${ledger.projection.batch-size:500}") int projectionBatchSize) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.cardDailySpendRepository = cardDailySpendRepository;
+        this.ledgerCheckpointRepository = ledgerCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.walDirectory = Path.of(walDirectory);
+        this.segmentSizeBytes = segmentSizeMegabytes * 1024 * 1024;
+        this.projectionBatchSize = projectionBatchSize;
+    }
+
+    /**
+     * Opens the log, replays the records that are not projected yet and starts the projection.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        writeAheadLog = new WriteAheadLog(walDirectory, segmentSizeBytes);
+        List<LedgerRecord> records = writeAheadLog.replay(getCheckpoint());
+        projector = new LedgerProjector(writeAheadLog, this, projectionBatchSize);
+        engine = new LedgerEngine(writeAheadLog, this::loadCard, projector, clock);
+        engine.recover(records);
+        projector.start();
+        Gauge.builder("ledger.projection.lag", projector, LedgerProjector::getLag)
+                .description("Number of ledger records not written to the database yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Projects the queued records (if the database is available) and closes the log.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        projector.stop();
+        writeAheadLog.close();
+    }
+
+    @Override
+    public void performTransaction(Card sourceCard, Card destinationCard, long amountMinor) {
+        performTransaction(sourceCard.getId(), destinationCard.getId(), amountMinor);
+    }
+
+    /**
+     * Validates and makes the transfer in the ledger; returns once it is durable in the log.
+     *
+     * @throws BadRequestException if a check fails (same messages as the database transfer).
+     * @throws ServerException if the log can't be written.
+     */
+    @Override
+    public UUID performTransaction(UUID sourceCardId, UUID destinationCardId, long amountMinor) {
+        return engine.transfer(sourceCardId, destinationCardId, amountMinor).transferId();
+    }
+
+    /**
+     * Reloads the status, owner and limit of the cards in memory (blocked, expired, new limit...).
+     */
+    @Scheduled(fixedDelayString = "${ledger.card-refresh-ms:5000}")
+    public void refreshCards() {
+        if (engine == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        cardRepository.findAllById(engine.getCardIds())
+                .forEach(card -> engine.refreshCard(toLedgerCard(card, today, 0)));
+    }
+
+    @Override
+    public long getCheckpoint() {
+        return ledgerCheckpointRepository.getLastSequence();
+    }
+
+    /**
+     * Writes the records, the balance changes and the daily expenses of the cards and the checkpoint
+     * in one DB transaction (one update per card instead of one per record).
+     */
+    @Override
+    public void project(List<LedgerRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, BigDecimal> balanceChanges = new HashMap<>();
+            Map<UUID, Map<LocalDate, BigDecimal>> expenses = new HashMap<>();
+            for (LedgerRecord record : records) {
+                BigDecimal amount = Money.toBigDecimal(record.amountMinor());
+                LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.epochMillis()), clock.getZone());
+                transactionRepository.insert(record.transferId(), record.sourceCardId(), record.destinationCardId(),
+                        dateTime, amount);
+                balanceChanges.merge(record.sourceCardId(), amount.negate(), BigDecimal::add);
+                balanceChanges.merge(record.destinationCardId(), amount, BigDecimal::add);
+                expenses.computeIfAbsent(record.sourceCardId(), cardId -> new HashMap<>())
+                        .merge(dateTime.toLocalDate(), amount, BigDecimal::add);
+            }
+            balanceChanges.forEach(cardRepository::addToBalance);
+            expenses.forEach((cardId, days) ->
+                    days.forEach((day, amount) -> cardDailySpendRepository.addExpense(cardId, day, amount)));
+            ledgerCheckpointRepository.updateLastSequence(records.get(records.size() - 1).sequence());
+        });
+    }
+
+    /**
+     * Loads a card and its expenses for today from the database (null if there is no such card).
+     */
+    private LedgerCard loadCard(UUID cardId) {
+        LocalDate today = LocalDate.now(clock);
+        return transactionTemplate.execute(status -> cardRepository.findById(cardId)
+                .map(card -> toLedgerCard(card, today, cardDailySpendRepository.getExpensesMinor(cardId, today)))
+                .orElse(null));
+    }
+
+    private static LedgerCard toLedgerCard(Card card, LocalDate today, long spentTodayMinor) {
+        return new LedgerCard(
+                card.getId(),
+                card.getOwner().getId(),
+                CardStatus.active.equals(card.getStatus()),
+                card.getBalanceMinor(),
+                card.getTransactionLimitPerDayMinor(),
+                today,
+                spentTodayMinor);
+    }
+}
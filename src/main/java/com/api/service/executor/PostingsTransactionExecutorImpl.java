@@ -0,0 +1,95 @@
+package com.api.service.executor;
+
+import com.api.entity.Card;
+import com.api.exception.BadRequestException;
+import com.api.repository.CardRepository;
+import com.api.repository.TransactionRepository;
+import com.api.service.executor.interfaces.CardStateTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.interfaces.PostingService;
+import com.api.service.validation.TransactionValidator;
+import com.api.util.Money;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class PostingsTransactionExecutorImpl
+ *
+ * Transaction executor of the append-only double-entry model: a transfer inserts the transaction and
+ * its debit and credit postings and never updates a `cards` row, so hot cards don't accumulate dead row versions.
+ * The source balance is its snapshot plus the postings after it (see {@link PostingService}); `cards.balance`
+ * is only refreshed by the compaction.
+ *
+ * Only the source card row is locked (SELECT ... FOR UPDATE, without an update), which serializes the funds
+ * check of its debits; credits don't wait for the destination card, and opposite-direction transfers
+ * can't deadlock.
+ *
+ * A transfer made within a caller's DB transaction (a batch or a group commit) runs in a savepoint,
+ * so a rejected transfer is rolled back alone and doesn't mark the caller's transaction rollback-only.
+ *
+ * Enabled with {@code transaction.executor.mode=postings}.
+ */
+@Service
+@ConditionalOnProperty(name = "transaction.executor.mode", havingValue = "postings")
+public class PostingsTransactionExecutorImpl implements CardStateTransactionExecutor {
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionValidator transactionValidator;
+    private final DailySpendService dailySpendService;
+    private final PostingService postingService;
+    private final TransactionTemplate transactionTemplate;
+
+    public PostingsTransactionExecutorImpl(CardRepository cardRepository,
+                                           TransactionRepository transactionRepository,
+                                           TransactionValidator transactionValidator,
+                                           DailySpendService dailySpendService,
+                                           PostingService postingService,
+                                           PlatformTransactionManager transactionManager) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionValidator = transactionValidator;
+        this.dailySpendService = dailySpendService;
+        this.postingService = postingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @Override
+    public void performTransaction(Card sourceCard, Card destinationCard, long amountMinor) {
+        performTransaction(sourceCard.getId(), destinationCard.getId(), amountMinor);
+    }
+
+    /**
+     * Validates the transfer against the balance computed from the postings and inserts the transaction,
+     * its postings and the daily expense in one DB transaction (a savepoint of the caller's one, if any).
+     *
+     * @throws BadRequestException if a check fails (same messages as the other executors).
+     */
+    @Override
+    public UUID performTransaction(UUID sourceCardId, UUID destinationCardId, long amountMinor) {
+        BigDecimal amount = Money.toBigDecimal(amountMinor);
+        return transactionTemplate.execute(status -> {
+            Card source = cardRepository.findByIdLockWrite(sourceCardId)
+                    .orElseThrow(() -> new BadRequestException("There is no such source card"));
+            Card destination = cardRepository.findById(destinationCardId)
+                    .orElseThrow(() -> new BadRequestException("There is no such destination card"));
+            LocalDateTime now = LocalDateTime.now();
+            transactionValidator.validateTransfer(source, destination, amountMinor,
+                    Money.toMinor(postingService.getBalance(sourceCardId)),
+                    dailySpendService.getExpenses(sourceCardId, now.toLocalDate()));
+
+            UUID transactionId = UUID.randomUUID();
+            transactionRepository.insert(transactionId, sourceCardId, destinationCardId, now, amount);
+            postingService.registerTransfer(transactionId, sourceCardId, destinationCardId, amount, now);
+            dailySpendService.registerExpense(sourceCardId, now.toLocalDate(), amountMinor);
+            return transactionId;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.api.service.executor;
+
+import com.api.exception.ServerException;
+import com.api.exception.TransferNotMadeException;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class ShardedTransferDispatcher
+ *
+ * Transfer dispatcher that routes every transfer to a shard by its source card ID.
+ * Each shard is a single-thread lane with a bounded queue, so the transfers of the same source card are made
+ * one after another in memory instead of waiting for the card row lock inside the database
+ * (and holding a DB connection while they wait). Transfers of different shards run in parallel;
+ * the destination card is still locked in the DB transaction (in card ID order, so lanes can't deadlock).
+ *
+ * A full shard queue rejects the transfer right away.
+ * Metrics: {@code transaction.shard.queue.depth} tagged with the shard number.
+ *
+ * Enabled with {@code transaction.dispatch.mode=sharded}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "transaction.dispatch.mode", havingValue = "sharded")
+public class ShardedTransferDispatcher implements TransferDispatcher {
+
+    private final TransactionService transactionService;
+    private final ThreadPoolExecutor[] shards;
+
+    public ShardedTransferDispatcher(TransactionService transactionService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${transaction.shards.count:16}") int shardCount,
+                                     @Value("${transaction.shards.queue-capacity:1000}") int queueCapacity) {
+        this.transactionService = transactionService;
+        this.shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            ThreadPoolExecutor shard = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    Thread.ofPlatform().name("transfer-shard-" + i).daemon().factory());
+            Gauge.builder("transaction.shard.queue.depth", shard, executor -> executor.getQueue().size())
+                    .description("Number of transfers waiting in the shard queue")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+            shards[i] = shard;
+        }
+        log.info("sharded transfer executor is started (shards: {}, queue capacity: {})", shardCount, queueCapacity);
+    }
+
+    /**
+     * Stops accepting transfers and waits for the queued ones to be made.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Makes the transfer on the lane of its source card and waits for the result.
+     *
+     * @throws TransferNotMadeException if the shard queue is full.
+     */
+    @Override
+    public void dispatch(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction) {
+        Future<?> result;
+        try {
+            result = shards[shardOf(sourceCardId)].submit(
+                    () -> transactionService.makeTransaction(sourceCardId, destinationCardId, amount, inTransaction));
+        } catch (RejectedExecutionException e) {
+            throw new TransferNotMadeException("Too many transfers in progress, try again later");
+        }
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ServerException("Transfer is failed");
+        } catch (InterruptedException e) {
+            // the transfer stays in the shard queue and may still be made
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted while waiting for the transfer result");
+        }
+    }
+
+    /**
+     * Returns the shard of the card (same card, same shard).
+     */
+    public int shardOf(UUID cardId) {
+        return Math.floorMod(cardId.hashCode(), shards.length);
+    }
+}
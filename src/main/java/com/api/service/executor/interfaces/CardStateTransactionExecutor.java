@@ -0,0 +1,17 @@
+package com.api.service.executor.interfaces;
+
+import java.util.UUID;
+
+/**
+ * An executor that keeps the card balances itself and validates the transfers on its own state.
+ * It is called with {@link #performTransaction(UUID, UUID, long)}, without loading or locking the cards first.
+ */
+public interface CardStateTransactionExecutor extends InternalTransactionExecutor {
+
+    /**
+     * Validates and makes a transfer by the card IDs.
+     *
+     * @return the ID of the transaction.
+     */
+    UUID performTransaction(UUID sourceCardId, UUID destinationCardId, long amountMinor);
+}
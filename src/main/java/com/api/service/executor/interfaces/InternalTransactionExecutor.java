@@ -2,10 +2,18 @@ package com.api.service.executor.interfaces;
 
 import com.api.entity.Card;
 
-import java.math.BigDecimal;
-import java.util.UUID;
-
+/**
+ * The amounts are in cents (see {@link com.api.util.Money}): the caller converts the request amount once.
+ */
 public interface InternalTransactionExecutor {
 
-    void performTransaction(Card sourceCard, Card destinationCard, BigDecimal amount);
+    void performTransaction(Card sourceCard, Card destinationCard, long amountMinor);
+
+    /**
+     * Whether {@link #performTransaction(Card, Card, long)} checks the card status, the funds and the daily limit
+     * again in the database, atomically with the transfer. The cards are then read and validated without a row lock.
+     */
+    default boolean guardsTransfer() {
+        return false;
+    }
 }
@@ -0,0 +1,24 @@
+package com.api.service.executor.interfaces;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Entry point of the transfers made by card owners (/transactions/make).
+ * Decides how a transfer reaches the database: directly in its own DB transaction or grouped with other transfers.
+ * Returns when the transfer is committed and throws the same exceptions as the transfer itself.
+ */
+public interface TransferDispatcher {
+
+    default void dispatch(UUID sourceCardId, UUID destinationCardId, BigDecimal amount) {
+        dispatch(sourceCardId, destinationCardId, amount, null);
+    }
+
+    /**
+     * Dispatches the transfer and runs the given work in the DB transaction that makes it
+     * (e.g. completing the Idempotency-Key of the request), so the work commits or rolls back with the transfer.
+     *
+     * @param inTransaction The work to run in the DB transaction of the transfer (null for none).
+     */
+    void dispatch(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction);
+}
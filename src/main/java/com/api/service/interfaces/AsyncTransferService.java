@@ -0,0 +1,39 @@
+package com.api.service.interfaces;
+
+import com.api.dto.PaymentDto;
+import com.api.dto.TransferStatusDto;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Class AsyncTransferService
+ *
+ * Service interface for the asynchronous transfer endpoint.
+ * A transfer is queued and made in the background; the client polls its status by the transfer ID.
+ */
+public interface AsyncTransferService {
+
+    /**
+     * Queues the transfer and returns right away.
+     *
+     * @param paymentDto The payment details.
+     * @return the pending status with the ID of the transfer.
+     */
+    TransferStatusDto submit(PaymentDto paymentDto);
+
+    /**
+     * Returns the source card of a known transfer (used to check who may read its status).
+     *
+     * @param transferId The ID of the transfer.
+     */
+    Optional<UUID> getSourceCardId(UUID transferId);
+
+    /**
+     * Returns the status of the transfer, waiting up to the given time for a pending transfer to end (long-poll).
+     *
+     * @param transferId The ID of the transfer.
+     * @param waitMillis The maximum time to wait (0 to return the current status).
+     */
+    CompletableFuture<TransferStatusDto> getStatus(UUID transferId, long waitMillis);
+}
@@ -0,0 +1,30 @@
+package com.api.service.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Class CardExpiryService
+ *
+ * Service interface for the expiry of the cards: a timing wheel that marks the cards as expired when they expire,
+ * and the sweep that catches the cards the wheel did not hold.
+ */
+public interface CardExpiryService {
+
+    /**
+     * Marks the cards that have expired as expired, in batches committed one by one.
+     * Does nothing if the sweep is running on another application instance.
+     *
+     * @return the number of expired cards.
+     */
+    long expireCards();
+
+    /**
+     * Schedules the expiry of a card that was added or changed, if it expires within the window of the timing wheel
+     * (a card that expires later is loaded by the wheel when its time comes).
+     *
+     * @param cardId the id of the card.
+     * @param expirationDate the expiration date of the card.
+     */
+    void track(UUID cardId, LocalDateTime expirationDate);
+}
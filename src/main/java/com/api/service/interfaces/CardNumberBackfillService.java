@@ -0,0 +1,18 @@
+package com.api.service.interfaces;
+
+/**
+ * Class CardNumberBackfillService
+ *
+ * Service interface for the backfill of the columns derived from the card number
+ * for the cards created before these columns.
+ */
+public interface CardNumberBackfillService {
+
+    /**
+     * Fills in the derived columns of the cards that don't have them yet, in batches.
+     * Does nothing if the backfill is running on another application instance.
+     *
+     * @return the number of updated cards.
+     */
+    long backfill();
+}
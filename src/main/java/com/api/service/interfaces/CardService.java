@@ -2,6 +2,7 @@ package com.api.service.interfaces;
 
 import com.api.dto.CardDto;
 import com.api.dto.CardDtoNoId;
+import com.api.dto.SeekPageDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
@@ -22,6 +23,13 @@ public interface CardService {
      */
     CardDto getCardById(UUID cardId);
 
+    /**
+     * Retrieves a card by its number.
+     *
+     * @param cardNumber The plain card number.
+     */
+    CardDto getCardByNumber(String cardNumber);
+
     /**
      * Adds a new card to the system.
      *
@@ -66,6 +74,14 @@ public interface CardService {
      */
     Page<CardDto> findAll(Pageable pageable);
 
+    /**
+     * Retrieves a page of all cards in the order of their IDs (keyset pagination, no total count).
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of cards of the page.
+     */
+    SeekPageDto<CardDto> findAll(String cursor, int size);
+
     /**
      * Retrieves a paginated list of all cards owned by a specific user.
      *
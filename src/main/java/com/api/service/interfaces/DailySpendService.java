@@ -0,0 +1,55 @@
+package com.api.service.interfaces;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Class DailySpendService
+ *
+ * Service interface for the per-card, per-day expense counters used by the daily limit check.
+ * Provides methods for reading and incrementing the counters and for reconciling them with the `transactions` table.
+ */
+public interface DailySpendService {
+
+    /**
+     * Retrieves the amount a card has already sent during a specific day, in cents.
+     *
+     * @param cardId The ID of the source card.
+     * @param day The day of the expenses.
+     */
+    long getExpenses(UUID cardId, LocalDate day);
+
+    /**
+     * Adds an amount to the expenses of a card.
+     * Must be called inside the database transaction that stores the corresponding transaction.
+     *
+     * @param cardId The ID of the source card.
+     * @param day The day of the transaction.
+     * @param amountMinor The transaction amount, in cents.
+     */
+    void registerExpense(UUID cardId, LocalDate day, long amountMinor);
+
+    /**
+     * Rebuilds the counter of a single card for a specific day from the `transactions` table.
+     * The card row is locked for the time of the rebuild, so concurrent transfers can't be lost.
+     *
+     * @param cardId The ID of the card.
+     * @param day The day to rebuild.
+     */
+    void reconcileCard(UUID cardId, LocalDate day);
+
+    /**
+     * Rebuilds the counters of all cards for a specific day from the `transactions` table.
+     * Intended for days that are already closed (no more transfers are made for them).
+     *
+     * @param day The day to rebuild.
+     */
+    void reconcileDay(LocalDate day);
+
+    /**
+     * Deletes the counters older than the specified day.
+     *
+     * @param day The first day to keep.
+     */
+    void purgeOlderThan(LocalDate day);
+}
@@ -0,0 +1,32 @@
+package com.api.service.interfaces;
+
+import com.api.dto.PaymentDto;
+import java.util.function.Consumer;
+
+/**
+ * Class IdempotencyService
+ *
+ * Service interface for the Idempotency-Key support of the transfer endpoint.
+ * Makes sure a transfer retried with the same key is made only once.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Runs the transfer once per key and source card.
+     * A retry of a completed transfer returns right away without running the transfer again;
+     * a rejected transfer releases the key, so it can be retried.
+     *
+     * @param key The Idempotency-Key header value (null to run the transfer without deduplication).
+     * @param paymentDto The payment details (a key can't be reused for another payment).
+     * @param transfer The transfer to run. It is given the work completing the key, which it must run
+     *                 in its own DB transaction (null when there is no key).
+     */
+    void executeOnce(String key, PaymentDto paymentDto, Consumer<Runnable> transfer);
+
+    /**
+     * Deletes the keys older than the configured time to live.
+     *
+     * @return the number of deleted keys.
+     */
+    int purgeExpired();
+}
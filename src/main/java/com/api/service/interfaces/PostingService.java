@@ -0,0 +1,54 @@
+package com.api.service.interfaces;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class PostingService
+ *
+ * Service interface for the append-only double-entry postings of the transfers:
+ * recording the postings, reading balances from the snapshots and the postings after them,
+ * compacting the snapshots and checking the consistency of the postings.
+ */
+public interface PostingService {
+
+    /**
+     * Retrieves the current balance of a card (snapshot plus the postings made after it).
+     *
+     * @param cardId The ID of the card.
+     * @return the balance, or null if there is no such card.
+     */
+    BigDecimal getBalance(UUID cardId);
+
+    /**
+     * Records the debit of the source card and the credit of the destination card of a transaction.
+     * Must be called inside the database transaction that stores the transaction.
+     *
+     * @param transactionId The ID of the transaction.
+     * @param sourceCardId The ID of the source card.
+     * @param destinationCardId The ID of the destination card.
+     * @param amount The amount of the transaction.
+     * @param dateTime The date and time of the transaction.
+     */
+    void registerTransfer(UUID transactionId, UUID sourceCardId, UUID destinationCardId, BigDecimal amount,
+                          LocalDateTime dateTime);
+
+    /**
+     * Rolls the balance snapshots forward over the postings committed so far
+     * and copies the new balances to the `cards` rows.
+     *
+     * @return the number of rolled snapshots.
+     */
+    int compact();
+
+    /**
+     * Checks that every transaction with postings has exactly one debit of its amount on the source card
+     * and one credit of its amount on the destination card (so the postings always sum up to zero).
+     *
+     * @param limit The maximum number of inconsistent transactions to return.
+     * @return the IDs of the inconsistent transactions (empty if the postings are consistent).
+     */
+    List<UUID> checkConsistency(int limit);
+}
@@ -0,0 +1,18 @@
+package com.api.service.interfaces;
+
+/**
+ * Class TransactionArchiveService
+ *
+ * Service interface for the cold archive of the transactions older than the configured horizon.
+ */
+public interface TransactionArchiveService {
+
+    /**
+     * Moves the transactions older than the horizon to the archive in batches, pausing between the batches,
+     * until there is nothing left to archive or the batch budget of a run is spent.
+     * Every batch is committed on its own, so an interrupted run loses nothing and the next one resumes.
+     *
+     * @return the number of archived transactions.
+     */
+    long archive();
+}
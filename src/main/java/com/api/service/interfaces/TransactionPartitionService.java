@@ -0,0 +1,27 @@
+package com.api.service.interfaces;
+
+import java.util.List;
+
+/**
+ * Class TransactionPartitionService
+ *
+ * Service interface for the maintenance of the monthly partitions of the `transactions` table.
+ */
+public interface TransactionPartitionService {
+
+    /**
+     * Creates the partitions of the current month and of the configured number of months ahead
+     * that don't exist yet. Rows of these months already in the default partition are moved to the new partition.
+     *
+     * @return the names of the created partitions.
+     */
+    List<String> createFuturePartitions();
+
+    /**
+     * Detaches the partitions older than the configured retention (nothing when the retention is 0).
+     * The detached tables are kept for archiving unless configured to be dropped.
+     *
+     * @return the names of the detached partitions.
+     */
+    List<String> detachExpiredPartitions();
+}
@@ -1,10 +1,14 @@
 package com.api.service.interfaces;
 
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.dto.SeekPageDto;
 import com.api.dto.TransactionDto;
 import com.api.dto.TransactionDtoNoId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -51,6 +55,14 @@ public interface TransactionService {
      */
     Page<TransactionDto> findAll(Pageable pageable);
 
+    /**
+     * Retrieves a page of all transactions, newest first (keyset pagination, no total count).
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of transactions of the page.
+     */
+    SeekPageDto<TransactionDto> findAll(String cursor, int size);
+
     /**
      * Performs a transaction between two cards.
      *
@@ -60,6 +72,27 @@ public interface TransactionService {
      */
     void makeTransaction(UUID sourceCardId, UUID destinationCardId, BigDecimal amount);
 
+    /**
+     * Performs a transaction between two cards and runs the given work in the same database transaction.
+     *
+     * @param sourceCardId      The ID of the source card.
+     * @param destinationCardId The ID of the destination card.
+     * @param amount            The amount to be transferred between the cards.
+     * @param inTransaction     The work to run once the transfer is made, before the commit (null for none).
+     */
+    void makeTransaction(UUID sourceCardId, UUID destinationCardId, BigDecimal amount, Runnable inTransaction);
+
+    /**
+     * Performs many transactions in a single database transaction.
+     * Each payment is validated and applied on its own: a failed payment doesn't affect the others.
+     * The cards are always locked pessimistically and updated through their entities, whatever
+     * {@code card.locking.transfer} says and also with the {@code conditional} executor.
+     *
+     * @param payments The payments to be made, in order.
+     * @return the result of each payment.
+     */
+    BatchPaymentResultDto makeTransactions(List<PaymentDto> payments);
+
     /**
      * Retrieves a paginated list of all transactions associated with a specific card.
      *
@@ -68,4 +101,14 @@ public interface TransactionService {
      */
     Page<TransactionDto> findAllByCardId(UUID cardId, Pageable pageable);
 
+    /**
+     * Retrieves a page of the transactions associated with a specific card, newest first
+     * (keyset pagination, no total count).
+     *
+     * @param cardId The ID of the card for which transactions are to be retrieved.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of transactions of the page.
+     */
+    SeekPageDto<TransactionDto> findAllByCardId(UUID cardId, String cursor, int size);
+
 }
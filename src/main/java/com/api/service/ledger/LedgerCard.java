@@ -0,0 +1,25 @@
+package com.api.service.ledger;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * The state of a card the {@link LedgerEngine} needs to validate transfers, as read from the database.
+ * Amounts are in minor units (cents).
+ *
+ * @param id the ID of the card.
+ * @param ownerId the ID of the card owner.
+ * @param active whether the card status is active.
+ * @param balanceMinor the balance of the card.
+ * @param dailyLimitMinor the transaction limit per day ({@link Long#MAX_VALUE} if the card has no limit).
+ * @param spendDate the day of {@code spentMinor}.
+ * @param spentMinor the amount the card has already sent that day.
+ */
+public record LedgerCard(UUID id,
+                         UUID ownerId,
+                         boolean active,
+                         long balanceMinor,
+                         long dailyLimitMinor,
+                         LocalDate spendDate,
+                         long spentMinor) {
+}
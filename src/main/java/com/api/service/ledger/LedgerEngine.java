@@ -0,0 +1,305 @@
+package com.api.service.ledger;
+
+import com.api.exception.BadRequestException;
+import com.api.exception.ServerException;
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Class LedgerEngine
+ *
+ * In-memory ledger of the card balances and daily expenses, the source of truth for transfers in the
+ * {@code ledger} executor mode. The state of every card is kept in primitive arrays (amounts in minor units)
+ * at the index of the card, so a transfer is validated and applied without any DB round trip or row lock:
+ * <ol>
+ *     <li>the transfer is validated and applied in memory and appended to the {@link WriteAheadLog}
+ *     under a single lock, so the log order is the order the transfers are applied in;</li>
+ *     <li>the caller waits (outside the lock) until its record is on disk, concurrent transfers sharing
+ *     one fsync;</li>
+ *     <li>the record is handed to the projection listener, which writes it to the database asynchronously.</li>
+ * </ol>
+ * Cards are loaded from the database the first time they are used. On startup the records written after
+ * the last projected one are replayed with {@link #recover(List)} on top of the database state.
+ *
+ * If the log can't be written the engine stops accepting transfers: its memory may be ahead of the disk.
+ */
+@Slf4j
+public class LedgerEngine {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final WriteAheadLog writeAheadLog;
+    private final Function<UUID, LedgerCard> cardLoader;
+    private final Consumer<LedgerRecord> listener;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, Integer> indexes = new ConcurrentHashMap<>();
+    private UUID[] owners = new UUID[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private long[] balances = new long[INITIAL_CAPACITY];
+    private long[] dailyLimits = new long[INITIAL_CAPACITY];
+    private long[] spendDays = new long[INITIAL_CAPACITY];
+    private long[] spent = new long[INITIAL_CAPACITY];
+    private int size;
+    private volatile boolean failed;
+
+    /**
+     * @param writeAheadLog the log, already replayed.
+     * @param cardLoader loads the state of a card from the database (null if there is no such card).
+     * @param listener receives every applied record, in sequence order (called under the engine lock).
+     * @param clock the clock of the transfers time and of the daily limit.
+     */
+    public LedgerEngine(WriteAheadLog writeAheadLog,
+                        Function<UUID, LedgerCard> cardLoader,
+                        Consumer<LedgerRecord> listener,
+                        Clock clock) {
+        this.writeAheadLog = writeAheadLog;
+        this.cardLoader = cardLoader;
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /**
+     * Applies the records replayed from the log on top of the database state (already validated, not appended again)
+     * and passes them to the listener, so they are projected.
+     */
+    public void recover(List<LedgerRecord> records) {
+        for (LedgerRecord record : records) {
+            Integer source = indexOf(record.sourceCardId());
+            Integer destination = indexOf(record.destinationCardId());
+            if (source == null || destination == null) {
+                log.warn("ledger record {} is skipped: its card is deleted", record.sequence());
+                continue;
+            }
+            lock.lock();
+            try {
+                apply(source, destination, record.amountMinor(), toEpochDay(record.epochMillis()));
+                listener.accept(record);
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.info("ledger recovered: {} record(s) replayed, {} card(s) loaded", records.size(), size);
+    }
+
+    /**
+     * Makes a transfer: same checks and messages as the database transfer
+     * (card statuses, different cards, same owner, sufficient funds, daily limit).
+     * Returns once the transfer is durable in the log.
+     *
+     * @param sourceCardId the ID of the source card.
+     * @param destinationCardId the ID of the destination card.
+     * @param amountMinor the amount in minor units.
+     * @return the record of the transfer (its transfer ID is the ID of the projected transaction).
+     * @throws BadRequestException if a check fails.
+     * @throws ServerException if the log can't be written.
+     */
+    public LedgerRecord transfer(UUID sourceCardId, UUID destinationCardId, long amountMinor) {
+        checkNotFailed();
+        int source = indexOfOrThrow(sourceCardId, "There is no such source card");
+        int destination = indexOfOrThrow(destinationCardId, "There is no such destination card");
+
+        LedgerRecord record;
+        lock.lock();
+        try {
+            checkNotFailed();
+            long now = clock.millis();
+            long today = toEpochDay(now);
+            validate(source, destination, amountMinor, today);
+            record = new LedgerRecord(writeAheadLog.lastSequence() + 1, UUID.randomUUID(),
+                    sourceCardId, destinationCardId, amountMinor, now);
+            writeAheadLog.append(record);
+            apply(source, destination, amountMinor, today);
+            listener.accept(record);
+        } catch (RuntimeException e) {
+            if (!(e instanceof BadRequestException)) {
+                fail(e);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writeAheadLog.sync(record.sequence());
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+        return record;
+    }
+
+    /**
+     * Replaces the owner, status and limit of a loaded card (e.g. after the card is blocked or its limit is changed).
+     * The balance and the daily expenses stay: the engine is their source of truth.
+     */
+    public void refreshCard(LedgerCard card) {
+        Integer index = indexes.get(card.id());
+        if (index == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            owners[index] = card.ownerId();
+            active[index] = card.active();
+            dailyLimits[index] = card.dailyLimitMinor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the cards loaded into memory.
+     */
+    public Set<UUID> getCardIds() {
+        return Set.copyOf(indexes.keySet());
+    }
+
+    /**
+     * Returns the balance of a loaded card in minor units, or null if the card is not loaded.
+     */
+    public Long getBalance(UUID cardId) {
+        Integer index = indexes.get(cardId);
+        if (index == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return balances[index];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the expenses of a loaded card for today in minor units, or null if the card is not loaded.
+     */
+    public Long getSpentToday(UUID cardId) {
+        Integer index = indexes.get(cardId);
+        if (index == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return spendDays[index] == toEpochDay(clock.millis()) ? spent[index] : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void validate(int source, int destination, long amountMinor, long today) {
+        if (!active[source]) {
+            throw new BadRequestException("source card is not active or expired");
+        }
+        if (!active[destination]) {
+            throw new BadRequestException("destination card is not active or expired");
+        }
+        if (source == destination) {
+            throw new BadRequestException("Source and destination card must be different");
+        }
+        if (!owners[source].equals(owners[destination])) {
+            throw new BadRequestException("Only same-owner transactions are allowed");
+        }
+        if (balances[source] < amountMinor) {
+            throw new BadRequestException("Insufficient funds");
+        }
+        long spentToday = spendDays[source] == today ? spent[source] : 0;
+        if (dailyLimits[source] - spentToday < amountMinor) {
+            throw new BadRequestException("Daily limit exceeded: " + BigDecimal.valueOf(dailyLimits[source], 2));
+        }
+    }
+
+    private void apply(int source, int destination, long amountMinor, long day) {
+        balances[source] = Math.subtractExact(balances[source], amountMinor);
+        balances[destination] = Math.addExact(balances[destination], amountMinor);
+        if (spendDays[source] == day) {
+            spent[source] = Math.addExact(spent[source], amountMinor);
+        } else if (spendDays[source] < day) {
+            spendDays[source] = day;
+            spent[source] = amountMinor;
+        }
+    }
+
+    private int indexOfOrThrow(UUID cardId, String message) {
+        Integer index = indexOf(cardId);
+        if (index == null) {
+            throw new BadRequestException(message);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the card, loading the card from the database (outside the lock) if it is not loaded yet.
+     */
+    private Integer indexOf(UUID cardId) {
+        Integer index = indexes.get(cardId);
+        if (index != null) {
+            return index;
+        }
+        LedgerCard card = cardLoader.apply(cardId);
+        if (card == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            // another caller may have loaded the card meanwhile, its state is the current one
+            index = indexes.get(cardId);
+            if (index == null) {
+                index = add(card);
+            }
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int add(LedgerCard card) {
+        if (size == balances.length) {
+            int capacity = size * 2;
+            owners = Arrays.copyOf(owners, capacity);
+            active = Arrays.copyOf(active, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            dailyLimits = Arrays.copyOf(dailyLimits, capacity);
+            spendDays = Arrays.copyOf(spendDays, capacity);
+            spent = Arrays.copyOf(spent, capacity);
+        }
+        int index = size++;
+        owners[index] = card.ownerId();
+        active[index] = card.active();
+        balances[index] = card.balanceMinor();
+        dailyLimits[index] = card.dailyLimitMinor();
+        spendDays[index] = card.spendDate().toEpochDay();
+        spent[index] = card.spentMinor();
+        indexes.put(card.id(), index);
+        return index;
+    }
+
+    private long toEpochDay(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone()).toEpochDay();
+    }
+
+    private void checkNotFailed() {
+        if (failed) {
+            throw new ServerException("Ledger is not available");
+        }
+    }
+
+    private void fail(Exception e) {
+        failed = true;
+        log.error("ledger write-ahead log failure, transfers are stopped", e);
+        throw new ServerException("Ledger is not available");
+    }
+}
@@ -0,0 +1,20 @@
+package com.api.service.ledger;
+
+import java.util.List;
+
+/**
+ * Writes the durable ledger records to the database (transactions rows, card balances, daily expenses),
+ * together with the sequence of the last record (the checkpoint), in one DB transaction.
+ */
+public interface LedgerProjection {
+
+    /**
+     * Returns the sequence of the last projected record (0 if nothing is projected yet).
+     */
+    long getCheckpoint();
+
+    /**
+     * Projects the records (in sequence order) and moves the checkpoint to the last one, atomically.
+     */
+    void project(List<LedgerRecord> records);
+}
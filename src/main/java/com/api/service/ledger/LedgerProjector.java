@@ -0,0 +1,116 @@
+package com.api.service.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Class LedgerProjector
+ *
+ * Asynchronous projection of the ledger records to the database: a single worker thread takes the records
+ * in sequence order, waits until they are durable in the {@link WriteAheadLog}, writes up to {@code batchSize}
+ * of them with one {@link LedgerProjection#project} call (one DB transaction) and then deletes the log
+ * segments that are fully projected. A failed batch is retried until it succeeds, so the database lags behind
+ * the ledger while it is unavailable but never loses or reorders a record.
+ */
+@Slf4j
+public class LedgerProjector implements Consumer<LedgerRecord> {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final WriteAheadLog writeAheadLog;
+    private final LedgerProjection projection;
+    private final int batchSize;
+    private final BlockingQueue<LedgerRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long projectedSequence;
+
+    public LedgerProjector(WriteAheadLog writeAheadLog, LedgerProjection projection, int batchSize) {
+        this.writeAheadLog = writeAheadLog;
+        this.projection = projection;
+        this.batchSize = batchSize;
+        this.projectedSequence = projection.getCheckpoint();
+        this.worker = Thread.ofPlatform().name("ledger-projector").daemon().unstarted(this::run);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Stops the worker after it has projected the records already in the queue (if the database is available).
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queues a record for projection. Records must be accepted in sequence order.
+     */
+    @Override
+    public void accept(LedgerRecord record) {
+        queue.add(record);
+    }
+
+    /**
+     * Returns the sequence of the last record written to the database.
+     */
+    public long getProjectedSequence() {
+        return projectedSequence;
+    }
+
+    /**
+     * Returns the number of records waiting to be written to the database.
+     */
+    public int getLag() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<LedgerRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerRecord first = running ? queue.take() : queue.poll();
+                    if (first == null) {
+                        return;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                project(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stopping: project what is left, the batch is kept
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                log.warn("ledger projection of {} record(s) failed, retrying", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private void project(List<LedgerRecord> batch) throws IOException {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        // only durable records are projected: a record lost from the log must not reach the database
+        writeAheadLog.sync(lastSequence);
+        projection.project(batch);
+        projectedSequence = lastSequence;
+        writeAheadLog.deleteUpTo(lastSequence);
+    }
+}
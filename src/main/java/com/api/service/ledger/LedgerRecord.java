@@ -0,0 +1,21 @@
+package com.api.service.ledger;
+
+import java.util.UUID;
+
+/**
+ * A transfer appended to the {@link WriteAheadLog}.
+ *
+ * @param sequence the position of the record in the log (1, 2, 3...).
+ * @param transferId the ID of the transfer (also the ID of the projected transaction row).
+ * @param sourceCardId the ID of the source card.
+ * @param destinationCardId the ID of the destination card.
+ * @param amountMinor the amount in minor units (cents).
+ * @param epochMillis the time of the transfer.
+ */
+public record LedgerRecord(long sequence,
+                           UUID transferId,
+                           UUID sourceCardId,
+                           UUID destinationCardId,
+                           long amountMinor,
+                           long epochMillis) {
+}
@@ -0,0 +1,329 @@
+package com.api.service.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Class WriteAheadLog
+ *
+ * Local append-only log of the ledger transfers, made of fixed-size memory-mapped segment files
+ * ({@code wal-<first sequence>.log}). Every record has the same size and ends with a CRC32 of its content,
+ * so a record torn by a crash is detected and the log ends right before it.
+ *
+ * Appending only copies the record into the mapped segment. {@link #sync(long)} makes the records durable with
+ * group fsync: one caller forces the segment for all the records appended so far while the others wait,
+ * so concurrent transfers share one fsync.
+ *
+ * Segments whose records are all projected to the database are deleted with {@link #deleteUpTo(long)}.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    static final int RECORD_SIZE = 96;
+    private static final int CRC_OFFSET = 88;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    // first sequence of every segment -> segment file
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentFirstSequence;
+    private long lastSequence;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private boolean syncing;
+    private long durableSequence;
+    private int forcedPosition;
+
+    /**
+     * Opens the log in the directory (created if needed). Call {@link #replay(long)} before appending.
+     *
+     * @param directory the directory of the segment files.
+     * @param segmentSizeBytes the size of a segment file (rounded down to whole records).
+     */
+    public WriteAheadLog(Path directory, int segmentSizeBytes) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = Math.max(1, segmentSizeBytes / RECORD_SIZE);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(file -> segments.put(firstSequenceOf(file), file));
+        }
+    }
+
+    /**
+     * Reads the log from the beginning and returns the records after the given sequence.
+     * The log ends at the first missing, torn or out-of-order record; appending continues from there.
+     *
+     * @param afterSequence the last sequence that doesn't need to be replayed (e.g. already projected).
+     */
+    public List<LedgerRecord> replay(long afterSequence) throws IOException {
+        List<LedgerRecord> records = new ArrayList<>();
+        // without segments (first start or lost directory) the log continues after the given sequence
+        long expected = segments.isEmpty() ? afterSequence + 1 : segments.firstKey();
+        Path tailSegment = null;
+        int tailPosition = 0;
+        for (var segment : new ArrayList<>(segments.entrySet())) {
+            if (segment.getKey() != expected) {
+                // a gap: everything from here on can't be trusted
+                deleteFrom(segment.getKey());
+                break;
+            }
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(segment.getValue()));
+            int position = 0;
+            while (position + RECORD_SIZE <= content.capacity()) {
+                LedgerRecord record = read(content, position);
+                if (record == null || record.sequence() != expected) {
+                    break;
+                }
+                if (record.sequence() > afterSequence) {
+                    records.add(record);
+                }
+                expected++;
+                position += RECORD_SIZE;
+            }
+            tailSegment = segment.getValue();
+            tailPosition = position;
+            if (position + RECORD_SIZE <= content.capacity()) {
+                // the log ends inside this segment
+                deleteFrom(segment.getKey() + 1);
+                break;
+            }
+        }
+        lastSequence = expected - 1;
+        durableSequence = lastSequence;
+        if (tailSegment != null && tailPosition + RECORD_SIZE <= recordsPerSegment * RECORD_SIZE) {
+            open(tailSegment, firstSequenceOf(tailSegment), tailPosition);
+            // erase a torn record, if any, so it can't be read back after the next records
+            buffer.put(tailPosition, new byte[RECORD_SIZE]);
+        } else {
+            openNewSegment(lastSequence + 1);
+        }
+        log.info("write-ahead log {}: last sequence {}, {} record(s) to replay", directory, lastSequence, records.size());
+        return records;
+    }
+
+    /**
+     * Returns the sequence of the last appended record.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Appends a record. Its sequence must follow the last one.
+     * The record is not durable until {@link #sync(long)} returns for its sequence.
+     */
+    public void append(LedgerRecord record) {
+        appendLock.lock();
+        try {
+            if (record.sequence() != lastSequence + 1) {
+                throw new IllegalStateException("Expected sequence " + (lastSequence + 1) + " but was " + record.sequence());
+            }
+            if (record.sequence() - segmentFirstSequence >= recordsPerSegment) {
+                rotate(record.sequence());
+            }
+            write(buffer, (int) (record.sequence() - segmentFirstSequence) * RECORD_SIZE, record);
+            lastSequence = record.sequence();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence is on disk.
+     * If no fsync is in progress the caller forces all the records appended so far (group fsync),
+     * otherwise it waits for the running one and checks again.
+     */
+    public void sync(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                syncLock.unlock();
+                long target = durableSequence;
+                try {
+                    target = force();
+                } finally {
+                    syncLock.lock();
+                    durableSequence = Math.max(durableSequence, target);
+                    syncing = false;
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence of the last record known to be on disk.
+     */
+    public long durableSequence() {
+        syncLock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all have a sequence lower than or equal to the given one.
+     * The current segment is never deleted.
+     */
+    public void deleteUpTo(long sequence) throws IOException {
+        appendLock.lock();
+        try {
+            while (segments.size() > 1) {
+                var first = segments.firstEntry();
+                long nextFirstSequence = segments.higherKey(first.getKey());
+                if (nextFirstSequence - 1 > sequence) {
+                    break;
+                }
+                Files.deleteIfExists(first.getValue());
+                segments.remove(first.getKey());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the current segment from the last forced record to the last appended one.
+     *
+     * @return the last sequence that is durable.
+     */
+    private long force() {
+        appendLock.lock();
+        try {
+            long target = lastSequence;
+            int end = (int) (lastSequence + 1 - segmentFirstSequence) * RECORD_SIZE;
+            if (end > forcedPosition) {
+                buffer.force(forcedPosition, end - forcedPosition);
+                forcedPosition = end;
+            }
+            return target;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void rotate(long nextSequence) throws IOException {
+        // the full segment must be durable before the next one can be forced on its own
+        buffer.force();
+        channel.close();
+        openNewSegment(nextSequence);
+    }
+
+    private void openNewSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        open(file, firstSequence, 0);
+        segments.put(firstSequence, file);
+    }
+
+    private void open(Path file, long firstSequence, int position) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        segmentFirstSequence = firstSequence;
+        forcedPosition = position;
+    }
+
+    private void deleteFrom(long firstSequence) throws IOException {
+        for (Path file : new ArrayList<>(segments.tailMap(firstSequence).values())) {
+            log.warn("deleting write-ahead log segment {} after the end of the log", file);
+            Files.deleteIfExists(file);
+        }
+        segments.tailMap(firstSequence).clear();
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static void write(ByteBuffer buffer, int position, LedgerRecord record) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        ByteBuffer content = ByteBuffer.wrap(bytes);
+        content.putLong(0, record.sequence());
+        content.putLong(8, record.transferId().getMostSignificantBits());
+        content.putLong(16, record.transferId().getLeastSignificantBits());
+        content.putLong(24, record.sourceCardId().getMostSignificantBits());
+        content.putLong(32, record.sourceCardId().getLeastSignificantBits());
+        content.putLong(40, record.destinationCardId().getMostSignificantBits());
+        content.putLong(48, record.destinationCardId().getLeastSignificantBits());
+        content.putLong(56, record.amountMinor());
+        content.putLong(64, record.epochMillis());
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, CRC_OFFSET);
+        content.putInt(CRC_OFFSET, (int) crc.getValue());
+        buffer.put(position, bytes);
+    }
+
+    /**
+     * Reads the record at the position, or returns null if there is no valid record (empty or torn).
+     */
+    static LedgerRecord read(ByteBuffer buffer, int position) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        buffer.get(position, bytes);
+        ByteBuffer content = ByteBuffer.wrap(bytes);
+        long sequence = content.getLong(0);
+        if (sequence <= 0) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, CRC_OFFSET);
+        if ((int) crc.getValue() != content.getInt(CRC_OFFSET)) {
+            return null;
+        }
+        return new LedgerRecord(sequence,
+                new UUID(content.getLong(8), content.getLong(16)),
+                new UUID(content.getLong(24), content.getLong(32)),
+                new UUID(content.getLong(40), content.getLong(48)),
+                content.getLong(56),
+                content.getLong(64));
+    }
+}
@@ -3,11 +3,16 @@ package com.api.service.validation;
 import com.api.config.enums.CardStatus;
 import com.api.entity.Card;
 import com.api.exception.BadRequestException;
+import com.api.jfr.CardLockEvent;
 import com.api.repository.CardRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -24,7 +29,7 @@ public class CardValidator {
     }
 
     public Card getCardOrThrow_LockWrite(UUID cardId, String role) {
-        return cardRepository.findById(cardId).orElseThrow(
+        return findByIdLockWrite(cardId).orElseThrow(
                 () -> new BadRequestException("There is no such " + role + " card")
         );
     }
@@ -36,11 +41,59 @@ public class CardValidator {
     }
 
     public Card getCardOrThrow_LockWrite(UUID cardId) {
-        return cardRepository.findByIdLockWrite(cardId).orElseThrow(
+        return findByIdLockWrite(cardId).orElseThrow(
                 () -> new BadRequestException("There is no such card")
         );
     }
 
+    /**
+     * Locks the card row; a slow lock is recorded as a {@link CardLockEvent}.
+     */
+    private Optional<Card> findByIdLockWrite(UUID cardId) {
+        CardLockEvent event = new CardLockEvent();
+        event.begin();
+        try {
+            return cardRepository.findByIdLockWrite(cardId);
+        } finally {
+            event.commitIfSlow(cardId);
+        }
+    }
+
+    /**
+     * Locks the rows of the given cards in a single query, ordered by card ID (deadlock-free lock ordering).
+     * A slow lock is recorded as a {@link CardLockEvent}.
+     *
+     * @param cardIds The IDs of the cards (duplicates are allowed).
+     * @return the found cards by their IDs, in the lock order; missing cards are absent from the map.
+     */
+    public Map<UUID, Card> getCards_LockWrite(Collection<UUID> cardIds) {
+        Map<UUID, Card> cards = new LinkedHashMap<>();
+        CardLockEvent event = new CardLockEvent();
+        event.begin();
+        try {
+            for (Card card : cardRepository.findAllByIdInLockWrite(cardIds)) {
+                cards.put(card.getId(), card);
+            }
+        } finally {
+            event.commitIfSlow(cardIds);
+        }
+        return cards;
+    }
+
+    /**
+     * Reads the given cards without locking them (optimistic locking mode: the card version is checked on update).
+     *
+     * @param cardIds The IDs of the cards.
+     * @return the found cards by their IDs; missing cards are absent from the map.
+     */
+    public Map<UUID, Card> getCards(Collection<UUID> cardIds) {
+        Map<UUID, Card> cards = new LinkedHashMap<>();
+        for (Card card : cardRepository.findAllById(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+        return cards;
+    }
+
     public boolean isCardStatusEqualTo(Card card, CardStatus cardStatus){
         return card.getStatus().equals(cardStatus);
     }
@@ -1,26 +1,38 @@
 package com.api.service.validation;
 
 import com.api.config.enums.CardStatus;
+import com.api.config.enums.TransferPhase;
 import com.api.entity.Card;
 import com.api.exception.BadRequestException;
-import com.api.repository.TransactionRepository;
+import com.api.service.interfaces.DailySpendService;
+import com.api.util.Money;
+import com.api.util.TransferMetrics;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * The amounts are in cents (see {@link Money}), so a transfer check doesn't allocate.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TransactionValidator {
 
-    private final TransactionRepository transactionRepository;
+    public static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    public static final String DAILY_LIMIT_EXCEEDED = "Daily limit exceeded: ";
+
+    private final DailySpendService dailySpendService;
     private final CardValidator cardValidator;
+    private final TransferMetrics transferMetrics;
 
     @AllArgsConstructor
     @Getter
@@ -33,8 +45,67 @@ public class TransactionValidator {
         return cardValidator.getCardOrThrow_LockWrite(cardId, number);
     }
 
+    /**
+     * Locks the rows of all the given cards with one query, in card ID order.
+     */
+    public Map<UUID, Card> getCards_LockWrite(Collection<UUID> cardIds) {
+        return cardValidator.getCards_LockWrite(cardIds);
+    }
+
+    /**
+     * Locks the source and destination cards with one query, in card ID order,
+     * so opposite-direction transfers between the same cards queue instead of deadlocking.
+     */
+    public SourceAndDestinationCards getCardsOrThrow_LockWrite(UUID sourceCardId, UUID destinationCardId) {
+        long started = transferMetrics.start();
+        try {
+            SourceAndDestinationCards cards = getSourceAndDestinationOrThrow(
+                    cardValidator.getCards_LockWrite(List.of(sourceCardId, destinationCardId)), sourceCardId, destinationCardId);
+            transferMetrics.success(TransferPhase.card_lock, started);
+            return cards;
+        } catch (RuntimeException e) {
+            transferMetrics.failure(TransferPhase.card_lock, started, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the source and destination cards without locking them (optimistic locking mode).
+     */
+    public SourceAndDestinationCards getCardsOrThrow(UUID sourceCardId, UUID destinationCardId) {
+        long started = transferMetrics.start();
+        try {
+            SourceAndDestinationCards cards = getSourceAndDestinationOrThrow(
+                    cardValidator.getCards(List.of(sourceCardId, destinationCardId)), sourceCardId, destinationCardId);
+            transferMetrics.success(TransferPhase.card_lock, started);
+            return cards;
+        } catch (RuntimeException e) {
+            transferMetrics.failure(TransferPhase.card_lock, started, e);
+            throw e;
+        }
+    }
+
+    private SourceAndDestinationCards getSourceAndDestinationOrThrow(Map<UUID, Card> cards,
+                                                                     UUID sourceCardId,
+                                                                     UUID destinationCardId) {
+        Card sourceCard = cards.get(sourceCardId);
+        if (sourceCard == null) {
+            throw new BadRequestException("There is no such source card");
+        }
+        Card destinationCard = cards.get(destinationCardId);
+        if (destinationCard == null) {
+            throw new BadRequestException("There is no such destination card");
+        }
+        return new SourceAndDestinationCards(sourceCard, destinationCard);
+    }
+
+    /**
+     * Rejects a card that is not active, or whose expiration date has passed
+     * (the card may not be marked as expired yet).
+     */
     public void validateCardStatus(Card card, String role) {
-        if (!CardStatus.active.equals(card.getStatus())) {
+        if (!CardStatus.active.equals(card.getStatus())
+                || (card.getExpirationDate() != null && !card.getExpirationDate().isAfter(LocalDateTime.now()))) {
             throw new BadRequestException(role + " card is not active or expired");
         }
     }
@@ -51,35 +122,75 @@ public class TransactionValidator {
         }
     }
 
-    public void validateSufficientFunds(Card source, BigDecimal amount) {
-        if (source.getBalance().compareTo(amount) < 0) {
-            throw new BadRequestException("Insufficient funds");
+    public void validateSufficientFunds(Card source, long amountMinor) {
+        validateSufficientFunds(source.getBalanceMinor(), amountMinor);
+    }
+
+    public void validateSufficientFunds(long sourceBalanceMinor, long amountMinor) {
+        if (sourceBalanceMinor < amountMinor) {
+            throw new BadRequestException(INSUFFICIENT_FUNDS);
         }
     }
 
-    public void validateDailyLimit(Card source, BigDecimal amount) {
-        LocalDateTime start = LocalDate.now().atStartOfDay();
-        LocalDateTime end = start.plusDays(1);
-        BigDecimal expensesForToday = transactionRepository.getExpensesForSpecificSourceCardAndForSpecificDay(
-                source.getId(), start, end);
-        if (source.getTransactionLimitPerDay().compareTo(expensesForToday.add(amount)) < 0) {
-            throw new BadRequestException("Daily limit exceeded: " + source.getTransactionLimitPerDay());
+    public void validateDailyLimit(Card source, long amountMinor) {
+        long started = transferMetrics.start();
+        try {
+            // O(1) counter lookup, maintained by the transaction executor in the same DB transaction
+            validateDailyLimit(source, dailySpendService.getExpenses(source.getId(), LocalDate.now()), amountMinor);
+            transferMetrics.success(TransferPhase.daily_limit, started);
+        } catch (RuntimeException e) {
+            transferMetrics.failure(TransferPhase.daily_limit, started, e);
+            throw e;
         }
     }
 
-    public SourceAndDestinationCards makeTransaction_validateCardsAndAmount(
-            UUID sourceCardId,
-            UUID destinationCardId,
-            BigDecimal amount) {
-        Card sourceCard = getCardOrThrow_LockWrite(sourceCardId, "source");
-        Card destinationCard = getCardOrThrow_LockWrite(destinationCardId, "destination");
+    public void validateDailyLimit(Card source, long expensesForTodayMinor, long amountMinor) {
+        // compared as a difference: expenses + amount could overflow for a huge amount
+        if (amountMinor > source.getTransactionLimitPerDayMinor() - expensesForTodayMinor) {
+            throw new BadRequestException(DAILY_LIMIT_EXCEEDED + source.getTransactionLimitPerDay());
+        }
+    }
+
+    /**
+     * Runs the transfer checks against the cards loaded by {@link #getCardsOrThrow_LockWrite}
+     * (or {@link #getCardsOrThrow} in the optimistic locking mode), with the daily expenses read from the counter.
+     */
+    public void validateCardsAndAmount(SourceAndDestinationCards cards, long amountMinor) {
+        Card sourceCard = cards.getSource();
+        Card destinationCard = cards.getDestination();
 
         validateCardStatus(sourceCard, "source");
         validateCardStatus(destinationCard, "destination");
         validateDifferentCards(sourceCard, destinationCard);
         validateSameOwner(sourceCard, destinationCard);
-        validateSufficientFunds(sourceCard, amount);
-        validateDailyLimit(sourceCard, amount);
-        return new SourceAndDestinationCards(sourceCard, destinationCard);
+        validateSufficientFunds(sourceCard, amountMinor);
+        validateDailyLimit(sourceCard, amountMinor);
+    }
+
+    /**
+     * Runs all the transfer checks against already loaded (and locked) cards.
+     * Used by the batch transfer, where the daily expenses are accumulated in memory.
+     *
+     * @param expensesForTodayMinor the amount the source card has already sent today, in cents.
+     */
+    public void validateTransfer(Card sourceCard, Card destinationCard, long amountMinor, long expensesForTodayMinor) {
+        validateTransfer(sourceCard, destinationCard, amountMinor, sourceCard.getBalanceMinor(), expensesForTodayMinor);
+    }
+
+    /**
+     * Same checks as {@link #validateTransfer(Card, Card, long, long)}, with the source balance
+     * taken from elsewhere than the card row (the postings mode, where `cards.balance` lags behind).
+     *
+     * @param sourceBalanceMinor the current balance of the source card, in cents.
+     * @param expensesForTodayMinor the amount the source card has already sent today, in cents.
+     */
+    public void validateTransfer(Card sourceCard, Card destinationCard, long amountMinor,
+                                 long sourceBalanceMinor, long expensesForTodayMinor) {
+        validateCardStatus(sourceCard, "source");
+        validateCardStatus(destinationCard, "destination");
+        validateDifferentCards(sourceCard, destinationCard);
+        validateSameOwner(sourceCard, destinationCard);
+        validateSufficientFunds(sourceBalanceMinor, amountMinor);
+        validateDailyLimit(sourceCard, expensesForTodayMinor, amountMinor);
     }
 }
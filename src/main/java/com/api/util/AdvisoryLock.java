@@ -0,0 +1,63 @@
+package com.api.util;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Class AdvisoryLock
+ *
+ * Runs a task on one application instance at a time, with a PostgreSQL session advisory lock.
+ * The lock is held by a connection kept for the duration of the task (the task itself uses other connections),
+ * so it is released when the task ends or when the instance dies and its connection is closed.
+ */
+@Component
+public class AdvisoryLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdvisoryLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Runs the task if no other session holds the lock of the name, without waiting for it.
+     *
+     * @param name the name of the lock.
+     * @param task the task.
+     * @return true if the task has run, false if the lock is held by another session.
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        long key = keyOf(name);
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!call(connection, "SELECT pg_try_advisory_lock(?)", key)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                call(connection, "SELECT pg_advisory_unlock(?)", key);
+            }
+        }));
+    }
+
+    static long keyOf(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private static boolean call(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.api.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Class BlindIndex
+ *
+ * Keyed hash (HMAC-SHA256) of the card numbers, stored next to the encrypted number to find a card by its number
+ * with an index probe, whatever the encryption. The hash is computed on the digits of the number only,
+ * so the same number written with or without separators has the same hash.
+ *
+ * <p>The key is not the encryption key (a different file), so the index reveals nothing about the encryption.
+ * Like {@link EncryptionUtil}, every thread keeps its own initialized {@link Mac}.
+ */
+@Component
+public class BlindIndex {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = new ThreadLocal<>();
+
+    /**
+     * Constructor for BlindIndex.
+     *
+     * Read the key from a filepath that is defined in the application.properties.
+     */
+    public BlindIndex(@Value("${secret.index-key.path}") String keyPath) throws IOException {
+        String secretKey;
+        try {
+            secretKey = new String(Files.readAllBytes(Paths.get(keyPath)), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new IOException("Blind index key file not found or unreadable at: " + keyPath, e);
+        }
+        key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * Returns the blind index of a plain card number.
+     *
+     * @param number the card number.
+     * @return the hash as 64 hex characters, or null if the number is null or has no digits.
+     * @throws RuntimeException if the hash can't be computed
+     */
+    public String hash(String number) {
+        if (number == null) {
+            return null;
+        }
+        byte[] digits = new byte[number.length()];
+        int length = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits[length++] = (byte) c;
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        try {
+            Mac mac = mac();
+            mac.update(digits, 0, length);
+            return HEX.formatHex(mac.doFinal());
+        } catch (Exception e) {
+            macs.remove();
+            throw new RuntimeException("Blind index error", e);
+        }
+    }
+
+    /**
+     * Returns the MAC of the calling thread, initialized on first use (reset by {@code doFinal}).
+     */
+    private Mac mac() throws GeneralSecurityException {
+        Mac mac = macs.get();
+        if (mac == null) {
+            mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            macs.set(mac);
+        }
+        return mac;
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class BoundedCache
+ *
+ * Small thread-safe cache with a maximum size and a time to live per entry.
+ * A lookup is a single hash map read (no allocation); when the cache is full the oldest entries are evicted first.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // also bounds the keys that are already expired or invalidated, so the queue can't grow without limit
+    private final Queue<K> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxSize;
+
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value, or null if there is no such key or the entry is expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Puts the value until the given time ({@link System#nanoTime()} based), evicting the oldest entries if needed.
+     */
+    public void put(K key, V value, long expiresAtNanos) {
+        if (entries.put(key, new Entry<>(value, expiresAtNanos)) == null) {
+            insertionOrder.add(key);
+            queued.incrementAndGet();
+            while (queued.get() > maxSize) {
+                K oldest = insertionOrder.poll();
+                if (oldest == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                entries.remove(oldest);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+}
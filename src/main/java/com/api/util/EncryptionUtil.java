@@ -8,7 +8,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Class EncryptionUtil
@@ -16,19 +20,26 @@ import java.util.Base64;
  * Utility class for encrypting and decrypting text using AES algorithm.
  *
  * <p>This class provides simple AES encryption and decryption using a fixed secret key.
+ * The key is built once, and every thread keeps its own initialized {@link Cipher} per mode
+ * (a cipher is not thread-safe and is back to its initialized state after {@code doFinal}),
+ * so a call does no provider lookup and no key expansion. The batch methods encrypt or decrypt
+ * a whole list with one cipher lookup.
  */
 @Component
 public class EncryptionUtil {
 
     /**
-     * Secret key used for AES encryption/decryption (must be 16 bytes for AES-128).
+     * Encryption algorithm used.
      */
-    private final String SECRET_KEY;
+    private static final String ALGORITHM = "AES";
 
     /**
-     * Encryption algorithm used.
+     * Secret key used for AES encryption/decryption (must be 16 bytes for AES-128).
      */
-    private static final String ALGORITHM = "AES";
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Cipher> encryptCipher = new ThreadLocal<>();
+    private final ThreadLocal<Cipher> decryptCipher = new ThreadLocal<>();
 
     /**
      * Constructor for EncryptionUtil.
@@ -36,11 +47,13 @@ public class EncryptionUtil {
      * Read secret key from a filepath that is defined in the application.properties.
      */
     public EncryptionUtil(@Value("${secret.key.path}") String secretKeyPath) throws IOException {
+        String secretKey;
         try {
-            SECRET_KEY = new String(Files.readAllBytes(Paths.get(secretKeyPath)), StandardCharsets.UTF_8).trim();
+            secretKey = new String(Files.readAllBytes(Paths.get(secretKeyPath)), StandardCharsets.UTF_8).trim();
         } catch (IOException e) {
             throw new IOException("Secret key file not found or unreadable at: " + secretKeyPath, e);
         }
+        key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
     }
 
     /**
@@ -52,12 +65,9 @@ public class EncryptionUtil {
      */
     public String encrypt(String plainText){
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            byte[] encryptedBytes = cipher.doFinal(plainText.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            return encrypt(cipher(encryptCipher, Cipher.ENCRYPT_MODE), plainText);
         } catch (Exception e) {
+            encryptCipher.remove();
             throw new RuntimeException("Encryption error", e);
         }
     }
@@ -71,13 +81,76 @@ public class EncryptionUtil {
      */
     public String decrypt(String encryptedText){
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedText));
-            return new String(decryptedBytes);
+            return decrypt(cipher(decryptCipher, Cipher.DECRYPT_MODE), encryptedText);
+        } catch (Exception e) {
+            decryptCipher.remove();
+            throw new RuntimeException("Decryption error", e);
+        }
+    }
+
+    /**
+     * Encrypts plain text strings, like {@link #encrypt(String)} for each of them.
+     *
+     * @param plainTexts the original plain texts to encrypt
+     * @return the encrypted texts encoded in Base64, in the same order
+     * @throws RuntimeException if the encryption of any of them fails
+     */
+    public List<String> encryptAll(Collection<String> plainTexts){
+        try {
+            Cipher cipher = cipher(encryptCipher, Cipher.ENCRYPT_MODE);
+            List<String> encrypted = new ArrayList<>(plainTexts.size());
+            for (String plainText : plainTexts) {
+                encrypted.add(encrypt(cipher, plainText));
+            }
+            return encrypted;
+        } catch (Exception e) {
+            encryptCipher.remove();
+            throw new RuntimeException("Encryption error", e);
+        }
+    }
+
+    /**
+     * Decrypts Base64-encoded encrypted strings, like {@link #decrypt(String)} for each of them.
+     *
+     * @param encryptedTexts the encrypted texts in Base64 format
+     * @return the decrypted original plain texts, in the same order
+     * @throws RuntimeException if the decryption of any of them fails
+     */
+    public List<String> decryptAll(Collection<String> encryptedTexts){
+        try {
+            Cipher cipher = cipher(decryptCipher, Cipher.DECRYPT_MODE);
+            List<String> decrypted = new ArrayList<>(encryptedTexts.size());
+            for (String encryptedText : encryptedTexts) {
+                decrypted.add(decrypt(cipher, encryptedText));
+            }
+            return decrypted;
         } catch (Exception e) {
+            decryptCipher.remove();
             throw new RuntimeException("Decryption error", e);
         }
     }
+
+    private static String encrypt(Cipher cipher, String plainText) throws GeneralSecurityException {
+        byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(encryptedBytes);
+    }
+
+    private static String decrypt(Cipher cipher, String encryptedText) throws GeneralSecurityException {
+        byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedText));
+        return new String(decryptedBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the cipher of the calling thread, initialized on first use.
+     * A cipher is dropped after a failure, so a cipher left in an unknown state is not reused.
+     */
+    private Cipher cipher(ThreadLocal<Cipher> ciphers, int mode) throws GeneralSecurityException {
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(mode, key);
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
 }
@@ -0,0 +1,73 @@
+package com.api.util;
+
+import com.api.exception.BadRequestException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Class Money
+ *
+ * Arithmetic on amounts kept as a {@code long} number of minor units (cents).
+ *
+ * <p>The transfer pipeline (validation, executors, daily expenses) works on cents, so a transfer doesn't allocate
+ * a {@link BigDecimal} for every compare and sum. Amounts are converted from and to {@link BigDecimal}
+ * only where they enter or leave it: the request DTOs and the JPA entities / native queries.
+ * All operations fail instead of silently overflowing.
+ */
+public final class Money {
+
+    /**
+     * Number of decimal places of an amount (the scale of the `numeric(…, 2)` columns).
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents, rounding half up to two decimal places like the entities do.
+     *
+     * @param amount the amount.
+     * @throws BadRequestException if the amount doesn't fit in a {@code long} number of cents.
+     */
+    public static long toMinor(BigDecimal amount) {
+        try {
+            // scale 0 after the shift: the compact value is returned as is, without a BigInteger
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).scaleByPowerOfTen(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Amount is out of range: " + amount);
+        }
+    }
+
+    /**
+     * Converts an optional limit to cents: no limit is {@link Long#MAX_VALUE}.
+     *
+     * @param limit the limit, or null.
+     */
+    public static long toMinorOrUnlimited(BigDecimal limit) {
+        return limit == null ? Long.MAX_VALUE : toMinor(limit);
+    }
+
+    /**
+     * Converts cents to an amount with two decimal places.
+     *
+     * @param minor the amount in cents.
+     */
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException if the sum overflows.
+     */
+    public static long add(long minor, long otherMinor) {
+        return Math.addExact(minor, otherMinor);
+    }
+
+    /**
+     * @throws ArithmeticException if the difference overflows.
+     */
+    public static long subtract(long minor, long otherMinor) {
+        return Math.subtractExact(minor, otherMinor);
+    }
+}
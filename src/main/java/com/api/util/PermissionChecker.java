@@ -1,13 +1,19 @@
 package com.api.util;
 
+import com.api.config.enums.TransferPhase;
+import com.api.dto.BatchPaymentDto;
 import com.api.dto.IdDto;
 import com.api.dto.PaymentDto;
 import com.api.exception.ForbiddenException;
 import com.api.repository.CardRepository;
 import com.api.repository.TransactionRepository;
 import com.api.repository.UserRepository;
+import com.api.service.interfaces.AsyncTransferService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Class PermissionChecker
@@ -22,6 +28,8 @@ public class PermissionChecker {
     private final CardRepository cardRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final AsyncTransferService asyncTransferService;
+    private final TransferMetrics transferMetrics;
 
     /**
      * Checks if the user is the owner of the specified card.
@@ -68,7 +76,7 @@ public class PermissionChecker {
 
     /**
      * Checks if the user is the owner of the source card in a transaction.
-     * Used in TransactionController.makeTransaction()
+     * Used in TransactionController.makeTransaction() (timed as the {@link TransferPhase#permission_check} phase)
      *
      * @param paymentDto contains the source card ID
      * @param email user's email
@@ -76,8 +84,50 @@ public class PermissionChecker {
      * @throws ForbiddenException if the user is not the owner
      */
     public boolean isSourceCardOwnerRequestToMakeTransaction(PaymentDto paymentDto, String email){
-        if(cardRepository.existsByIdAndOwnerEmail(paymentDto.getSourceCardId(), email)) return true;
+        long started = transferMetrics.start();
+        try {
+            if(cardRepository.existsByIdAndOwnerEmail(paymentDto.getSourceCardId(), email)) {
+                transferMetrics.success(TransferPhase.permission_check, started);
+                return true;
+            }
+            else throw new ForbiddenException("Only cards owner has access");
+        } catch (RuntimeException e) {
+            transferMetrics.failure(TransferPhase.permission_check, started, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if the user is the owner of every source card of a batch of transactions.
+     * Used in TransactionController.makeTransactions()
+     *
+     * @param batchPaymentDto contains the payments with the source card IDs
+     * @param email user's email
+     * @return true if the user owns all the source cards
+     * @throws ForbiddenException if the user is not the owner of at least one source card
+     */
+    public boolean isSourceCardsOwnerRequestToMakeBatchTransaction(BatchPaymentDto batchPaymentDto, String email){
+        Set<UUID> sourceCardIds = batchPaymentDto.getPayments().stream()
+                .map(PaymentDto::getSourceCardId)
+                .collect(Collectors.toSet());
+        if(cardRepository.countByIdInAndOwnerEmail(sourceCardIds, email) == sourceCardIds.size()) return true;
+        else throw new ForbiddenException("Only cards owner has access");
+    }
+
+    /**
+     * Checks if the user is the owner of the source card of a transfer submitted asynchronously.
+     * Used in TransactionController.getTransferStatus()
+     *
+     * @param transferIdDto contains the transfer ID
+     * @param email user's email
+     * @return true if the user owns the source card of the transfer
+     * @throws ForbiddenException if the user is not the owner or the transfer is unknown
+     */
+    public boolean isSourceCardOwnerRequestToGetTransferStatus(IdDto transferIdDto, String email){
+        if(asyncTransferService.getSourceCardId(transferIdDto.getId())
+                .filter(sourceCardId -> cardRepository.existsByIdAndOwnerEmail(sourceCardId, email))
+                .isPresent()) return true;
         else throw new ForbiddenException("Only cards owner has access");
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.api.util;
+
+import com.api.service.interfaces.PostingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Class PostingsCompactor
+ *
+ * Scheduled tasks of the postings mode: rolls the card balance snapshots forward every
+ * {@code postings.compaction-interval-ms} (so a balance read sums only the recent postings) and checks
+ * the consistency of the postings every night.
+ *
+ * Metric: {@code postings.consistency.violations} (inconsistent transactions found by the checks).
+ *
+ * Enabled with {@code transaction.executor.mode=postings}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transaction.executor.mode", havingValue = "postings")
+public class PostingsCompactor {
+
+    private static final int CONSISTENCY_REPORT_LIMIT = 100;
+
+    private final PostingService postingService;
+    private final Counter violations;
+
+    public PostingsCompactor(PostingService postingService, MeterRegistry meterRegistry) {
+        this.postingService = postingService;
+        this.violations = Counter.builder("postings.consistency.violations")
+                .description("Transactions whose postings are not a balanced debit and credit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled method that rolls the balance snapshots forward.
+     */
+    @Scheduled(fixedDelayString = "${postings.compaction-interval-ms:60000}")
+    public void compact() {
+        postingService.compact();
+    }
+
+    /**
+     * Scheduled method that runs every day at 01:00.
+     * Checks that every transaction has a balanced debit and credit.
+     */
+    @Scheduled(cron = "0 0 1 * * *") // per day at 01:00
+    public void checkConsistency() {
+        log.info("running postings consistency check...");
+        List<UUID> unbalanced = postingService.checkConsistency(CONSISTENCY_REPORT_LIMIT);
+        violations.increment(unbalanced.size());
+        log.info("postings consistency check is finished ({} inconsistent transaction(s))", unbalanced.size());
+    }
+}
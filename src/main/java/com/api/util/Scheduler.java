@@ -1,49 +1,115 @@
 package com.api.util;
 
-import com.api.config.enums.CardStatus;
-import com.api.entity.Card;
-import com.api.repository.CardRepository;
+import com.api.service.interfaces.CardExpiryService;
+import com.api.service.interfaces.CardNumberBackfillService;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.interfaces.IdempotencyService;
+import com.api.service.interfaces.TransactionArchiveService;
+import com.api.service.interfaces.TransactionPartitionService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Class Scheduler
  *
  * Scheduled task that checks for expired cards and updates their status.
- * This component runs daily at midnight and marks cards as expired if their expiration date has passed.
+ * This component runs every hour (first a minute after startup) and marks cards as expired if their expiration date has passed.
+ * It also reconciles the daily expenses counters of the previous day with the `transactions` table
+ * and deletes the expired Idempotency-Keys.
+ * The monthly partitions of the `transactions` table are created ahead of time and the old ones detached,
+ * and the transactions older than the archive horizon are moved to the archive.
+ * The last 4 digits of the card numbers are backfilled for the cards created before they were stored.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class Scheduler {
 
-    private final CardRepository cardRepository;
+    private final CardExpiryService cardExpiryService;
+    private final CardNumberBackfillService cardNumberBackfillService;
+    private final DailySpendService dailySpendService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionPartitionService transactionPartitionService;
+    private final TransactionArchiveService transactionArchiveService;
 
     /**
-     * Scheduled method that runs every day at 00:00.
-     * Finds cards with expiration dates in the past and updates their status to {@code expired}.
-     * Logs each updated card and saves all changes to the database.
+     * Scheduled method that runs {@code card.expiry.initial-delay-ms} after startup
+     * and then {@code card.expiry.interval-ms} after the end of the previous run.
+     * Updates the status of the cards with expiration dates in the past to {@code expired},
+     * in batches (see {@link CardExpiryService}).
      */
-    @Scheduled(cron = "0 0 0 * * *") // per day at 00:00
+    @Scheduled(initialDelayString = "${card.expiry.initial-delay-ms:60000}",
+            fixedDelayString = "${card.expiry.interval-ms:3600000}") // per hour, first a minute after startup
     public void checkExpiredCards() {
         log.info("running expired cards check...");
-        List<Card> expiredCards = cardRepository.findExpiredCards(LocalDateTime.now(), CardStatus.expired.name());
-        if(!expiredCards.isEmpty()){
-            for(Card card: expiredCards){
-                card.setStatus(CardStatus.expired);
-                log.info("expired card (id: {}, expired_date: {}, new status: {})",
-                        card.getId(),card.getExpirationDate(), card.getStatus());
-                cardRepository.saveAll(expiredCards);
-                log.info("expired cards check is finished...");
-            }
-        } else {
-            log.info("there is no expired cards. check is finished...");
-        }
+        long expired = cardExpiryService.expireCards();
+        log.info("expired cards check is finished ({} expired)", expired);
+    }
+
+    /**
+     * Scheduled method that runs every day at 00:30.
+     * Rebuilds yesterday's daily expenses counters from the `transactions` table (the day is closed by then,
+     * so the rebuild can't race with transfers) and deletes the counters that are no longer needed.
+     */
+    @Scheduled(cron = "0 30 0 * * *") // per day at 00:30
+    public void reconcileDailySpend() {
+        log.info("running daily spend counters reconciliation...");
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        dailySpendService.reconcileDay(yesterday);
+        dailySpendService.purgeOlderThan(yesterday);
+        log.info("daily spend counters reconciliation is finished...");
+    }
 
+    /**
+     * Scheduled method that runs every hour.
+     * Deletes the Idempotency-Keys older than their time to live.
+     */
+    @Scheduled(cron = "0 15 * * * *") // per hour at xx:15
+    public void purgeExpiredIdempotencyKeys() {
+        idempotencyService.purgeExpired();
+    }
+
+    /**
+     * Scheduled method that runs every day at 00:45, and once {@code transaction.partitions.initial-delay-ms}
+     * after startup (on the scheduler thread, so the startup doesn't wait for it).
+     * Creates the partitions of the `transactions` table for the next months and detaches the expired ones.
+     */
+    @Scheduled(cron = "0 45 0 * * *") // per day at 00:45
+    @Scheduled(initialDelayString = "${transaction.partitions.initial-delay-ms:0}") // once after startup
+    public void maintainTransactionPartitions() {
+        log.info("running transactions partitions maintenance...");
+        List<String> created = transactionPartitionService.createFuturePartitions();
+        List<String> detached = transactionPartitionService.detachExpiredPartitions();
+        log.info("transactions partitions maintenance is finished (created: {}, detached: {})", created, detached);
+    }
+
+    /**
+     * Scheduled method that runs every day at 02:00.
+     * Moves the transactions older than the archive horizon to the archive (throttled, see {@link TransactionArchiveService}).
+     */
+    @Scheduled(cron = "0 0 2 * * *") // per day at 02:00
+    public void archiveTransactions() {
+        log.info("running transactions archiving...");
+        long archived = transactionArchiveService.archive();
+        log.info("transactions archiving is finished ({} archived)", archived);
+    }
+
+    /**
+     * Scheduled method that runs {@code card.number-backfill.initial-delay-ms} after startup
+     * and then {@code card.number-backfill.interval-ms} after the end of the previous run.
+     * Stores the last 4 digits of the cards that don't have them (see {@link CardNumberBackfillService});
+     * once all cards are backfilled, a run is a single index lookup.
+     */
+    @Scheduled(initialDelayString = "${card.number-backfill.initial-delay-ms:120000}",
+            fixedDelayString = "${card.number-backfill.interval-ms:3600000}") // per hour, first two minutes after startup
+    public void backfillCardNumbers() {
+        log.info("running card numbers backfill...");
+        long backfilled = cardNumberBackfillService.backfill();
+        log.info("card numbers backfill is finished ({} backfilled)", backfilled);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.api.util;
+
+import com.api.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Class SeekCursor
+ *
+ * Opaque continuation tokens of the keyset (seek) paginated listings: the sort key of the last item of a page,
+ * encoded as URL-safe base64. A transaction cursor is `(local_date_time, id)`, a card cursor is `(id)`.
+ *
+ * <p>The token starts with the kind of the listing, so a card cursor is rejected by a transaction listing
+ * and vice versa. Clients must treat the token as opaque.
+ */
+public final class SeekCursor {
+
+    /**
+     * Maximum number of items of a page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String TRANSACTION = "t";
+    private static final String CARD = "c";
+    private static final String SEPARATOR = "|";
+
+    private SeekCursor() {
+    }
+
+    /**
+     * The position of a transaction in the `(local_date_time, id)` order.
+     *
+     * @param localDateTime the local date and time of the transaction.
+     * @param id the ID of the transaction.
+     */
+    public record TransactionKey(LocalDateTime localDateTime, UUID id) {
+    }
+
+    /**
+     * Encodes the cursor of a transaction listing.
+     *
+     * @param localDateTime the local date and time of the last transaction of the page.
+     * @param id the ID of the last transaction of the page.
+     */
+    public static String ofTransaction(LocalDateTime localDateTime, UUID id) {
+        return encode(TRANSACTION + SEPARATOR + localDateTime + SEPARATOR + id);
+    }
+
+    /**
+     * Encodes the cursor of a card listing.
+     *
+     * @param id the ID of the last card of the page.
+     */
+    public static String ofCard(UUID id) {
+        return encode(CARD + SEPARATOR + id);
+    }
+
+    /**
+     * Decodes the cursor of a transaction listing.
+     *
+     * @param cursor the cursor.
+     * @throws BadRequestException if the cursor is not a transaction cursor.
+     */
+    public static TransactionKey toTransactionKey(String cursor) {
+        String[] parts = decode(cursor, TRANSACTION, 3);
+        try {
+            return new TransactionKey(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Decodes the cursor of a card listing.
+     *
+     * @param cursor the cursor.
+     * @throws BadRequestException if the cursor is not a card cursor.
+     */
+    public static UUID toCardId(String cursor) {
+        String[] parts = decode(cursor, CARD, 2);
+        try {
+            return UUID.fromString(parts[1]);
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Checks the requested page size.
+     *
+     * @param size the number of items of a page.
+     * @throws BadRequestException if the size is not between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    public static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, String kind, int length) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        String[] parts = value.split("\\" + SEPARATOR, -1);
+        if (parts.length != length || !kind.equals(parts[0])) {
+            throw invalid();
+        }
+        return parts;
+    }
+
+    private static BadRequestException invalid() {
+        return new BadRequestException("Invalid cursor");
+    }
+}
@@ -0,0 +1,130 @@
+package com.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Class TimingWheel
+ *
+ * Hierarchical timing wheel (Varghese &amp; Lauck): {@code levels} wheels of {@code 2^bits} slots,
+ * a slot of the level {@code n} spanning {@code 2^(bits*n)} ticks. An item is put in the lowest level whose
+ * rotation reaches its deadline and moves down a level every time the wheel above turns over its slot,
+ * so adding an item and firing it are O(1), whatever the number of items.
+ *
+ * <p>An item fires on the first tick at or after its deadline; an item that is already due fires on the next tick.
+ * The wheel is not thread-safe.
+ *
+ * @param <T> the item type.
+ */
+public class TimingWheel<T> {
+
+    private record Entry<T>(T item, long deadlineTick) {}
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final List<Entry<T>>[][] slots;
+    private final long spanTicks;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int bits, int levels, long startMillis) {
+        if (tickMillis <= 0 || bits <= 0 || levels <= 0 || (long) bits * levels >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.slots = new List[levels][1 << bits];
+        this.spanTicks = 1L << (bits * levels);
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Returns the longest delay from the current time the wheel accepts, in milliseconds.
+     */
+    public long spanMillis() {
+        return (spanTicks - 1) * tickMillis;
+    }
+
+    /**
+     * Returns the number of items waiting in the wheel.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an item that fires at the given time.
+     *
+     * @param item the item.
+     * @param deadlineMillis the time (epoch milliseconds).
+     * @return false if the deadline is beyond the span of the wheel (the item is not added).
+     */
+    public boolean add(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), currentTick + 1);
+        if (deadlineTick - currentTick >= spanTicks) {
+            return false;
+        }
+        place(new Entry<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel tick by tick to the given time, handing over the items that are due.
+     *
+     * @param nowMillis the time (epoch milliseconds).
+     * @param due receives the items that are due, in the order of their deadlines (by tick).
+     */
+    public void advance(long nowMillis, Consumer<T> due) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // the upper levels first: their slots cascade down into the slots turned over below
+            for (int level = slots.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Entry<T>> slot = slots[0][(int) (currentTick & mask)];
+            if (slot != null && !slot.isEmpty()) {
+                for (Entry<T> entry : slot) {
+                    due.accept(entry.item());
+                }
+                size -= slot.size();
+                slot.clear();
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> slot = slots[level][(int) ((currentTick >>> (bits * level)) & mask)];
+        if (slot == null || slot.isEmpty()) {
+            return;
+        }
+        // within a slot of this level, so every entry goes down to a lower level
+        for (Entry<T> entry : slot) {
+            place(entry);
+        }
+        slot.clear();
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        int level = 0;
+        // an entry of the current tick (cascaded at the turn of its slot) goes to the level 0 slot fired next
+        while (level < slots.length - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((entry.deadlineTick() >>> (bits * level)) & mask);
+        List<Entry<T>> slot = slots[level][index];
+        if (slot == null) {
+            slot = new ArrayList<>();
+            slots[level][index] = slot;
+        }
+        slot.add(entry);
+    }
+}
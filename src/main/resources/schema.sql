@@ -29,11 +29,19 @@ CREATE TABLE "bank_cards_management".cards (
 	status varchar(20) NOT NULL,
 	balance numeric(10, 2) NOT NULL,
 	transaction_limit_per_day numeric(10, 2) NULL,
+	"version" int8 NOT NULL DEFAULT 0,
+	number_last4 varchar(4) NULL,
+	number_hash varchar(64) NULL,
 	CONSTRAINT cards_number_unique UNIQUE (number),
 	CONSTRAINT cards_pk PRIMARY KEY (id)
 );
 -- "bank_cards_management".cards foreign keys
 ALTER TABLE "bank_cards_management".cards ADD CONSTRAINT cards_users_fk FOREIGN KEY (owner_id) REFERENCES "bank_cards_management".users(id);
+CREATE INDEX cards_owner_id_idx ON "bank_cards_management".cards (owner_id);
+CREATE INDEX cards_status_expiration_date_idx ON "bank_cards_management".cards (status, expiration_date);
+CREATE INDEX cards_expiring_idx ON "bank_cards_management".cards (expiration_date, id) WHERE status <> 'expired';
+CREATE UNIQUE INDEX cards_number_hash_idx ON "bank_cards_management".cards (number_hash);
+CREATE INDEX cards_number_backfill_idx ON "bank_cards_management".cards (id) WHERE number_last4 IS NULL OR number_hash IS NULL;
 
 
 -- Creating the 'transactions' table
@@ -43,9 +51,80 @@ CREATE TABLE "bank_cards_management".transactions (
 	destination_card_id uuid NOT NULL,
 	local_date_time timestamp NOT NULL,
 	amount numeric(10, 2) NOT NULL,
-	CONSTRAINT transactions_pk PRIMARY KEY (id),
+	CONSTRAINT transactions_id_local_date_time_pk PRIMARY KEY (id, local_date_time),
 	CONSTRAINT transactions_sorce_cards_fk FOREIGN KEY (source_card_id) REFERENCES "bank_cards_management".cards(id),
 	CONSTRAINT transactions_destination_cards_fk FOREIGN KEY (destination_card_id) REFERENCES "bank_cards_management".cards(id)
+) PARTITION BY RANGE (local_date_time);
+-- monthly partitions are created by the application (TransactionPartitionMaintenance), older rows go to the default one
+CREATE TABLE "bank_cards_management".transactions_default PARTITION OF "bank_cards_management".transactions DEFAULT;
+CREATE INDEX transactions_local_date_time_id_idx ON "bank_cards_management".transactions (local_date_time, id);
+CREATE INDEX transactions_source_card_id_local_date_time_idx ON "bank_cards_management".transactions (source_card_id, local_date_time, id);
+CREATE INDEX transactions_destination_card_id_local_date_time_idx ON "bank_cards_management".transactions (destination_card_id, local_date_time, id);
+
+-- Creating the 'transactions_archive' table (cold archive of the old transactions, rows are never updated)
+CREATE TABLE "bank_cards_management".transactions_archive (
+	id uuid NOT NULL,
+	source_card_id uuid NOT NULL,
+	destination_card_id uuid NOT NULL,
+	local_date_time timestamp NOT NULL,
+	amount numeric(10, 2) NOT NULL,
+	CONSTRAINT transactions_archive_pk PRIMARY KEY (id)
+) WITH (fillfactor = 100);
+CREATE INDEX transactions_archive_source_card_id_local_date_time_idx ON "bank_cards_management".transactions_archive (source_card_id, local_date_time, id);
+CREATE INDEX transactions_archive_destination_card_id_local_date_time_idx ON "bank_cards_management".transactions_archive (destination_card_id, local_date_time, id);
+CREATE INDEX transactions_archive_local_date_time_idx ON "bank_cards_management".transactions_archive (local_date_time);
+
+-- Creating the 'card_daily_spend' table (per-card, per-day expenses counters for the daily limit check)
+CREATE TABLE "bank_cards_management".card_daily_spend (
+	card_id uuid NOT NULL,
+	spend_date date NOT NULL,
+	amount numeric(12, 2) NOT NULL DEFAULT 0,
+	CONSTRAINT card_daily_spend_pk PRIMARY KEY (card_id, spend_date),
+	CONSTRAINT card_daily_spend_cards_fk FOREIGN KEY (card_id) REFERENCES "bank_cards_management".cards(id) ON DELETE CASCADE
+);
+
+-- Creating the 'idempotency_keys' table (Idempotency-Key header of /transactions/make)
+CREATE TABLE "bank_cards_management".idempotency_keys (
+	source_card_id uuid NOT NULL,
+	idempotency_key varchar(255) NOT NULL,
+	destination_card_id uuid NOT NULL,
+	amount numeric(10, 2) NOT NULL,
+	status varchar(20) NOT NULL,
+	created_at timestamp NOT NULL,
+	CONSTRAINT idempotency_keys_pk PRIMARY KEY (source_card_id, idempotency_key),
+	CONSTRAINT idempotency_keys_cards_fk FOREIGN KEY (source_card_id) REFERENCES "bank_cards_management".cards(id) ON DELETE CASCADE
+);
+CREATE INDEX idempotency_keys_created_at_idx ON "bank_cards_management".idempotency_keys (created_at);
+
+-- Creating the 'ledger_checkpoint' table (last write-ahead log record projected by the ledger executor)
+CREATE TABLE "bank_cards_management".ledger_checkpoint (
+	id int4 NOT NULL,
+	last_sequence int8 NOT NULL DEFAULT 0,
+	CONSTRAINT ledger_checkpoint_pk PRIMARY KEY (id)
+);
+INSERT INTO "bank_cards_management".ledger_checkpoint (id, last_sequence) VALUES (1, 0);
+
+-- Creating the 'postings' table (append-only debit and credit of every transfer made in the postings mode)
+CREATE TABLE "bank_cards_management".postings (
+	id bigserial NOT NULL,
+	transaction_id uuid NOT NULL,
+	card_id uuid NOT NULL,
+	amount numeric(12, 2) NOT NULL,
+	created_at timestamp NOT NULL,
+	CONSTRAINT postings_pk PRIMARY KEY (id),
+	CONSTRAINT postings_cards_fk FOREIGN KEY (card_id) REFERENCES "bank_cards_management".cards(id) ON DELETE CASCADE
+);
+CREATE INDEX postings_card_id_id_idx ON "bank_cards_management".postings (card_id, id);
+CREATE INDEX postings_transaction_id_idx ON "bank_cards_management".postings (transaction_id);
+
+-- Creating the 'card_balance_snapshots' table (card balance up to a posting, rolled forward by the compactor)
+CREATE TABLE "bank_cards_management".card_balance_snapshots (
+	card_id uuid NOT NULL,
+	balance numeric(12, 2) NOT NULL,
+	last_posting_id int8 NOT NULL,
+	taken_at timestamp NOT NULL,
+	CONSTRAINT card_balance_snapshots_pk PRIMARY KEY (card_id),
+	CONSTRAINT card_balance_snapshots_cards_fk FOREIGN KEY (card_id) REFERENCES "bank_cards_management".cards(id) ON DELETE CASCADE
 );
 
 
@@ -0,0 +1,128 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.BatchPaymentDto;
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.dto.jwt.JwtRequestDto;
+import com.api.dto.jwt.JwtResponseDto;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.auth.AuthServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the throughput of N transfers sent one by one to /transactions/make
+ * against the same N transfers sent in one request to /transactions/make/batch.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=BatchTransferBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BatchTransferBenchmark {
+
+    private static final int TRANSFERS = 2_000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private AuthServiceImpl authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private Card destination;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("batch benchmark user")
+                .email("batch-benchmark@gmail.com")
+                .password("batchbenchmark123")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("1000000.00"), new BigDecimal("1000000.00")));
+        destination = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("0.00"), new BigDecimal("1000000.00")));
+        accessToken = restTemplate.postForEntity(
+                "http://localhost:" + port + "/auth/login",
+                JwtRequestDto.builder().email(owner.getEmail()).password(owner.getPassword()).build(),
+                JwtResponseDto.class).getBody().getAccessToken();
+    }
+
+    @AfterEach
+    void tearDown() {
+        authService.getTokenStore().invalidate(owner.getEmail());
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id = ?", source.getId());
+        cardRepository.deleteAllById(List.of(source.getId(), destination.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void batchEndpoint_vsSingleEndpoint_throughput() {
+        PaymentDto payment = new PaymentDto(source.getId(), destination.getId(), BigDecimal.ONE);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            ResponseEntity<Void> response = restTemplate.exchange(
+                    "http://localhost:" + port + "/transactions/make", HttpMethod.POST,
+                    new HttpEntity<>(payment, headers()), Void.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+        }
+        double singleSeconds = (System.nanoTime() - started) / 1e9;
+
+        List<PaymentDto> payments = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            payments.add(payment);
+        }
+        started = System.nanoTime();
+        ResponseEntity<BatchPaymentResultDto> response = restTemplate.exchange(
+                "http://localhost:" + port + "/transactions/make/batch", HttpMethod.POST,
+                new HttpEntity<>(new BatchPaymentDto(payments), headers()), BatchPaymentResultDto.class);
+        double batchSeconds = (System.nanoTime() - started) / 1e9;
+        assertEquals(TRANSFERS, response.getBody().getSucceeded());
+
+        log.info(String.format("%d transfers: single endpoint %.2f s (%.0f transfers/s), batch endpoint %.2f s (%.0f transfers/s)",
+                TRANSFERS, singleSeconds, TRANSFERS / singleSeconds, batchSeconds, TRANSFERS / batchSeconds));
+    }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        return headers;
+    }
+}
@@ -0,0 +1,137 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.TransactionRepository;
+import com.api.repository.UserRepository;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.validation.TransactionValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the daily limit check latency (per-card counter) with the legacy SUM over today's transactions
+ * while the number of today's transfers of the source card grows.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=DailyLimitCheckBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class DailyLimitCheckBenchmark {
+
+    private static final int[] DAILY_TRANSFERS = {10, 100, 1_000, 10_000};
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private DailySpendService dailySpendService;
+    @Autowired
+    private TransactionValidator transactionValidator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private Card destination;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("benchmark user")
+                .email("daily-limit-benchmark@gmail.com")
+                .password("benchmark123")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(new Card(UUID.randomUUID().toString(), owner,
+                LocalDateTime.now().plusYears(1), CardStatus.active,
+                new BigDecimal("1000000.00"), new BigDecimal("1000000.00")));
+        destination = cardRepository.save(new Card(UUID.randomUUID().toString(), owner,
+                LocalDateTime.now().plusYears(1), CardStatus.active,
+                new BigDecimal("0.00"), new BigDecimal("1000000.00")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id = ?", source.getId());
+        cardRepository.deleteAllById(List.of(source.getId(), destination.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void dailyLimitCheck_latencyStaysFlat() {
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        int inserted = 0;
+        long firstCounterNanos = -1;
+        long lastCounterNanos = -1;
+
+        log.info(String.format("%15s | %18s | %18s", "daily transfers", "counter (us/op)", "SUM scan (us/op)"));
+        for (int dailyTransfers : DAILY_TRANSFERS) {
+            insertTodayTransfers(dailyTransfers - inserted);
+            inserted = dailyTransfers;
+
+            long counterNanos = measure(() -> transactionValidator.validateDailyLimit(source, 100));
+            long sumNanos = measure(() -> transactionRepository.getExpensesForSpecificSourceCardAndForSpecificDay(
+                    source.getId(), start, start.plusDays(1)));
+            log.info(String.format("%15d | %18.1f | %18.1f", dailyTransfers, counterNanos / 1_000.0, sumNanos / 1_000.0));
+
+            if (firstCounterNanos < 0) firstCounterNanos = counterNanos;
+            lastCounterNanos = counterNanos;
+        }
+
+        // generous bound: the counter lookup must not grow with the number of transfers (the SUM grows ~linearly)
+        assertTrue(lastCounterNanos < firstCounterNanos * 3 + 200_000,
+                "daily limit check latency grows with the daily transfers count");
+    }
+
+    private void insertTodayTransfers(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), source.getId(), destination.getId(),
+                    Timestamp.valueOf(now), BigDecimal.ONE});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO "bank_cards_management".transactions
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                VALUES (?, ?, ?, ?, ?)
+                """, rows);
+        // rows were inserted around the executor, so the counter is rebuilt from the table
+        dailySpendService.reconcileCard(source.getId(), now.toLocalDate());
+    }
+
+    private long measure(Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - started) / ITERATIONS;
+    }
+}
@@ -0,0 +1,134 @@
+package com.api.benchmark;
+
+import com.api.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Decryption throughput (card numbers per second, the {@code thrpt} figure of JMH) of {@link EncryptionUtil}
+ * with 1, 2, 4 and 8 threads:
+ * - per call: a new cipher looked up and initialized with a new key for every number, as it used to be;
+ * - single: {@link EncryptionUtil#decrypt}, with the cached cipher of the thread;
+ * - batch: {@link EncryptionUtil#decryptAll} on {@value #BATCH} numbers at a time.
+ *
+ * It doesn't need the database: the key is read from the file of the tests.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=EncryptionBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+class EncryptionBenchmark {
+
+    private static final String SECRET_KEY_PATH = "secrets/encryption-util/secret-key.txt";
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int WARMUP = 100_000;
+    private static final int NUMBERS_PER_THREAD = 400_000;
+    private static final int FIXTURES = 1_024;
+    private static final int BATCH = 64;
+
+    private EncryptionUtil encryptionUtil;
+    private SecretKeySpec key;
+    private final List<String> encrypted = new ArrayList<>();
+
+    @FunctionalInterface
+    private interface Decryption {
+        // decrypts the fixtures from the given index, returns the number of decrypted numbers and their length sum
+        long[] decrypt(int from) throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        encryptionUtil = new EncryptionUtil(SECRET_KEY_PATH);
+        String secretKey = new String(Files.readAllBytes(Paths.get(SECRET_KEY_PATH)), StandardCharsets.UTF_8).trim();
+        key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "AES");
+        for (int i = 0; i < FIXTURES; i++) {
+            encrypted.add(encryptionUtil.encrypt(String.format("1111-2222-3333-%04d", i)));
+        }
+    }
+
+    @Test
+    void decryptionThroughput() throws Exception {
+        // same output, so the figures compare the same work
+        assertEquals("1111-2222-3333-0007", perCall(encrypted.get(7)));
+        assertEquals("1111-2222-3333-0007", encryptionUtil.decrypt(encrypted.get(7)));
+        assertEquals("1111-2222-3333-0007", encryptionUtil.decryptAll(encrypted.subList(0, BATCH)).get(7));
+
+        Decryption perCall = from -> new long[]{1, perCall(encrypted.get(from & (FIXTURES - 1))).length()};
+        Decryption single = from -> new long[]{1, encryptionUtil.decrypt(encrypted.get(from & (FIXTURES - 1))).length()};
+        Decryption batch = from -> {
+            int start = from & (FIXTURES - BATCH);
+            long length = 0;
+            for (String number : encryptionUtil.decryptAll(encrypted.subList(start, start + BATCH))) {
+                length += number.length();
+            }
+            return new long[]{BATCH, length};
+        };
+
+        StringBuilder table = new StringBuilder(String.format("%nthreads |  per call, ops/s |    single, ops/s |     batch, ops/s%n"));
+        for (int threads : THREADS) {
+            table.append(String.format("%7d | %16.0f | %16.0f | %16.0f%n", threads,
+                    measure(threads, perCall), measure(threads, single), measure(threads, batch)));
+        }
+        log.info(table.toString());
+    }
+
+    private String perCall(String encryptedText) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key.getEncoded(), "AES"));
+        return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedText)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the numbers decrypted per second by the given number of threads, each decrypting
+     * {@value #NUMBERS_PER_THREAD} numbers after a warmup.
+     */
+    private double measure(int threads, Decryption decryption) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run(executor, threads, decryption, WARMUP);
+            long started = System.nanoTime();
+            long numbers = run(executor, threads, decryption, NUMBERS_PER_THREAD);
+            return numbers * 1e9 / (System.nanoTime() - started);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long run(ExecutorService executor, int threads, Decryption decryption, int numbersPerThread) throws Exception {
+        List<Callable<long[]>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                long numbers = 0;
+                // the length sum is returned, so the JIT can't drop the measured code
+                long length = 0;
+                while (numbers < numbersPerThread) {
+                    long[] decrypted = decryption.decrypt((int) numbers);
+                    numbers += decrypted[0];
+                    length += decrypted[1];
+                }
+                return new long[]{numbers, length};
+            });
+        }
+        long total = 0;
+        for (Future<long[]> result : executor.invokeAll(tasks)) {
+            total += result.get()[0];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,161 @@
+package com.api.benchmark;
+
+import com.api.config.enums.Role;
+import com.api.entity.User;
+import com.api.security.JwtAuthentication;
+import com.api.security.JwtFilter;
+import com.api.security.JwtProvider;
+import com.api.security.RefreshTokenStore;
+import com.api.service.auth.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import javax.crypto.SecretKey;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time and bytes allocated per request in the JWT filter, the figures JMH reports as {@code avgt} and
+ * {@code gc.alloc.rate.norm} with {@code -prof gc}, for a request with the same valid access token every time:
+ * - before: a parser built for the validation and another one for the claims, so two signature checks and parses;
+ * - {@link JwtFilter} without its cache: one prebuilt parser, one signature check and parse;
+ * - {@link JwtFilter} with its cache: a SHA-256 digest of the token and a map lookup.
+ *
+ * It doesn't need the database: the keys are read from the files of the tests.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=JwtFilterBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+class JwtFilterBenchmark {
+
+    private static final String ACCESS_PATH = "secrets/jwt/access.txt";
+    private static final String REFRESH_PATH = "secrets/jwt/refresh.txt";
+    private static final String EMAIL = "jwt-benchmark@gmail.com";
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final FilterChain CHAIN = (request, response) -> {};
+
+    private JwtProvider jwtProvider;
+    private AuthServiceImpl authService;
+    private SecretKey accessKey;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // results are written here, so the JIT can't drop the measured code
+    private long sink;
+
+    private record Result(double nanos, double bytes) {}
+
+    /**
+     * The filter as it was: validates the token with a new parser, then parses it again with another one.
+     */
+    private static class BeforeJwtFilter extends OncePerRequestFilter {
+
+        private final SecretKey accessKey;
+        private final AuthServiceImpl authService;
+
+        BeforeJwtFilter(SecretKey accessKey, AuthServiceImpl authService) {
+            this.accessKey = accessKey;
+            this.authService = authService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws java.io.IOException, jakarta.servlet.ServletException {
+            String token = request.getHeader("Authorization").substring(7);
+            Jwts.parserBuilder().setSigningKey(accessKey).build().parseClaimsJws(token);
+            Claims claims = Jwts.parserBuilder().setSigningKey(accessKey).build().parseClaimsJws(token).getBody();
+            JwtAuthentication jwtAuthentication = new JwtAuthentication();
+            jwtAuthentication.setEmail(claims.getSubject());
+            jwtAuthentication.setRole(Role.valueOf(claims.get("role", String.class)));
+            jwtAuthentication.setAuthenticated(authService.isUserLoggedIn(claims.getSubject()));
+            SecurityContextHolder.getContext().setAuthentication(jwtAuthentication);
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtProvider = new JwtProvider();
+        ReflectionTestUtils.setField(jwtProvider, "accessPath", ACCESS_PATH);
+        ReflectionTestUtils.setField(jwtProvider, "refreshPath", REFRESH_PATH);
+        jwtProvider.init();
+        accessKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+                new String(Files.readAllBytes(Paths.get(ACCESS_PATH)), StandardCharsets.UTF_8).trim()));
+
+        RefreshTokenStore tokenStore = new RefreshTokenStore();
+        tokenStore.putIfAbsent(EMAIL, "refresh token");
+        authService = new AuthServiceImpl(null, tokenStore, null);
+
+        String token = jwtProvider.generateAccessToken(User.builder().email(EMAIL).role(Role.USER).build());
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Test
+    void filterOverhead() throws Exception {
+        OncePerRequestFilter before = new BeforeJwtFilter(accessKey, authService);
+        OncePerRequestFilter uncached = new JwtFilter(jwtProvider, authService, 0);
+        OncePerRequestFilter cached = new JwtFilter(jwtProvider, authService, 10_000);
+
+        // same output, so the figures compare the same work
+        for (OncePerRequestFilter filter : new OncePerRequestFilter[]{before, uncached, cached}) {
+            SecurityContextHolder.clearContext();
+            filter.doFilter(request, response, CHAIN);
+            JwtAuthentication authentication = (JwtAuthentication) SecurityContextHolder.getContext().getAuthentication();
+            assertEquals(EMAIL, authentication.getEmail());
+            assertEquals(Role.USER, authentication.getRole());
+            assertEquals(true, authentication.isAuthenticated());
+        }
+
+        Result beforeResult = measure(before);
+        Result uncachedResult = measure(uncached);
+        Result cachedResult = measure(cached);
+        SecurityContextHolder.clearContext();
+
+        log.info(String.format("%nJWT filter, same token        |      ns/op |   bytes/op%n" +
+                        "before (2 parsers, 2 checks)  | %10.1f | %10.1f%n" +
+                        "prebuilt parser, 1 check      | %10.1f | %10.1f%n" +
+                        "verified-token cache          | %10.1f | %10.1f%n",
+                beforeResult.nanos(), beforeResult.bytes(),
+                uncachedResult.nanos(), uncachedResult.bytes(),
+                cachedResult.nanos(), cachedResult.bytes()));
+    }
+
+    private Result measure(OncePerRequestFilter filter) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            filter.doFilter(request, response, CHAIN);
+            sink += SecurityContextHolder.getContext().getAuthentication().hashCode();
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            filter.doFilter(request, response, CHAIN);
+            sink += SecurityContextHolder.getContext().getAuthentication().hashCode();
+        }
+        long elapsed = System.nanoTime() - started;
+        return new Result((double) elapsed / ITERATIONS,
+                (double) (THREADS.getCurrentThreadAllocatedBytes() - allocated) / ITERATIONS);
+    }
+}
@@ -0,0 +1,174 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardLockMode;
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.exception.ConflictException;
+import com.api.mapper.TransactionMapper;
+import com.api.repository.CardRepository;
+import com.api.repository.TransactionArchiveRepository;
+import com.api.repository.TransactionRepository;
+import com.api.repository.UserRepository;
+import com.api.service.TransactionServiceImpl;
+import com.api.service.executor.CardLockingExecutor;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.validation.TransactionValidator;
+import com.api.util.TransferMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the pessimistic and the optimistic card lock modes of the transfers while the contention grows:
+ * the same number of callers transfer between fewer and fewer cards.
+ * With many cards (rare conflicts) the optimistic mode saves the row locks; with a few hot cards
+ * the retries make it slower than waiting on the lock. The printed table shows the crossover point.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=LockingModeBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class LockingModeBenchmark {
+
+    private static final int[] CARD_COUNTS = {256, 64, 16, 4, 2};
+    private static final int CALLERS = 16;
+    private static final int TRANSFERS_PER_CALLER = 200;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000000.00");
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+    @Autowired
+    private TransactionMapper transactionMapper;
+    @Autowired
+    private InternalTransactionExecutor internalTransactionExecutor;
+    @Autowired
+    private TransactionValidator transactionValidator;
+    @Autowired
+    private DailySpendService dailySpendService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private final List<Card> cards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("locking benchmark user")
+                .email("locking-benchmark@gmail.com")
+                .password("lockingbenchmark123")
+                .role(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteCards();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void optimistic_vsPessimistic_byContention() throws Exception {
+        StringBuilder report = new StringBuilder("\ncards | pessimistic transfers/s | optimistic transfers/s | retries | 409s\n");
+        for (int cardCount : CARD_COUNTS) {
+            Result pessimistic = run(cardCount, CardLockMode.pessimistic);
+            Result optimistic = run(cardCount, CardLockMode.optimistic);
+            report.append(String.format("%5d | %23.0f | %22.0f | %7.0f | %4d%n", cardCount,
+                    pessimistic.throughput(), optimistic.throughput(), optimistic.retries(), optimistic.conflicts()));
+        }
+        log.info(report.toString());
+    }
+
+    private record Result(double throughput, double retries, int conflicts) {}
+
+    private Result run(int cardCount, CardLockMode lockMode) throws Exception {
+        createCards(cardCount);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository, transactionMapper,
+                internalTransactionExecutor, transactionValidator, dailySpendService,
+                new CardLockingExecutor(transactionManager, meterRegistry, lockMode, lockMode, 5, 0.2),
+                new TransferMetrics(new SimpleMeterRegistry(), false, false), transactionArchiveRepository);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int c = 0; c < CALLERS; c++) {
+            futures.add(callers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_CALLER; i++) {
+                    int source = random.nextInt(cardCount);
+                    int destination = (source + 1 + random.nextInt(cardCount - 1)) % cardCount;
+                    try {
+                        transactionService.makeTransaction(cards.get(source).getId(), cards.get(destination).getId(), BigDecimal.ONE);
+                        succeeded.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        callers.shutdown();
+
+        // no lost updates in either mode
+        BigDecimal total = jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM \"bank_cards_management\".cards WHERE owner_id = ?", BigDecimal.class, owner.getId());
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(cardCount)).compareTo(total));
+        deleteCards();
+
+        return new Result(succeeded.get() / seconds,
+                meterRegistry.counter("card.locking.retries", "operation", "transfer").count(),
+                conflicts.get());
+    }
+
+    private void createCards(int cardCount) {
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                    CardStatus.active, INITIAL_BALANCE, INITIAL_BALANCE)));
+        }
+    }
+
+    private void deleteCards() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions t USING \"bank_cards_management\".cards c " +
+                "WHERE t.source_card_id = c.id AND c.owner_id = ?", owner.getId());
+        cardRepository.deleteAllById(cards.stream().map(Card::getId).toList());
+        cards.clear();
+    }
+}
@@ -0,0 +1,135 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.CardDto;
+import com.api.dto.TransactionDto;
+import com.api.entity.Card;
+import com.api.entity.Transaction;
+import com.api.entity.User;
+import com.api.mapper.CardMapper;
+import com.api.mapper.TransactionMapper;
+import com.api.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Time and bytes allocated per mapping, the figures JMH reports as {@code avgt} and {@code gc.alloc.rate.norm}
+ * with {@code -prof gc} (read here from the clock and the allocation counter of the calling thread),
+ * for the {@link ModelMapper} bean and the generated mappers:
+ * - a `Card` (with its owner) to a `CardDto`, the element of the card pages;
+ * - a `Transaction` (with its two cards) to a `TransactionDto`.
+ *
+ * Both include the decryption of the card numbers, which is the same code for the two mappers.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=MapperBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class MapperBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+    private static final int FIXTURES = 1_024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private ModelMapper modelMapper;
+    @Autowired
+    private CardMapper cardMapper;
+    @Autowired
+    private TransactionMapper transactionMapper;
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    private final List<Card> cards = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    // results are written here, so the JIT can't drop the measured code
+    private long sink;
+
+    private record Result(double nanos, double bytes) {}
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < FIXTURES; i++) {
+            User owner = User.builder()
+                    .id(UUID.randomUUID())
+                    .fullName("mapper benchmark user " + i)
+                    .email("mapper-benchmark-" + i + "@gmail.com")
+                    .password("mapperbenchmark123")
+                    .role(Role.USER)
+                    .build();
+            Card card = new Card(encryptionUtil.encrypt(String.format("1111-2222-3333-%04d", i)), owner,
+                    LocalDateTime.now().plusYears(1), CardStatus.active, new BigDecimal("1000.00"), new BigDecimal("500.00"));
+            card.setId(UUID.randomUUID());
+            cards.add(card);
+        }
+        for (int i = 0; i < FIXTURES; i++) {
+            Transaction transaction = new Transaction(cards.get(i), cards.get((i + 1) % FIXTURES),
+                    LocalDateTime.now(), new BigDecimal("10.00"));
+            transaction.setId(UUID.randomUUID());
+            transactions.add(transaction);
+        }
+    }
+
+    @Test
+    void mappingCost() {
+        // same output, so the figures compare the same work
+        Card card = cards.get(7);
+        CardDto expected = modelMapper.map(card, CardDto.class);
+        CardDto actual = cardMapper.toDto(card);
+        assertEquals("****-****-****-0007", actual.getNumber());
+        assertEquals(expected.getNumber(), actual.getNumber());
+        assertEquals(expected.getOwner().getEmail(), actual.getOwner().getEmail());
+        assertEquals(0, expected.getBalance().compareTo(actual.getBalance()));
+        TransactionDto expectedTransaction = modelMapper.map(transactions.get(7), TransactionDto.class);
+        assertEquals(expectedTransaction.getSource().getNumber(), transactionMapper.toDto(transactions.get(7)).getSource().getNumber());
+
+        Result cardModelMapper = measure(cards, c -> modelMapper.map(c, CardDto.class).getId());
+        Result cardGenerated = measure(cards, c -> cardMapper.toDto(c).getId());
+        Result transactionModelMapper = measure(transactions, t -> modelMapper.map(t, TransactionDto.class).getId());
+        Result transactionGenerated = measure(transactions, t -> transactionMapper.toDto(t).getId());
+
+        log.info(String.format("%nmapping                         |      ns/op |   bytes/op%n" +
+                        "Card -> CardDto, ModelMapper    | %10.1f | %10.1f%n" +
+                        "Card -> CardDto, generated      | %10.1f | %10.1f%n" +
+                        "Transaction -> Dto, ModelMapper | %10.1f | %10.1f%n" +
+                        "Transaction -> Dto, generated   | %10.1f | %10.1f%n",
+                cardModelMapper.nanos(), cardModelMapper.bytes(),
+                cardGenerated.nanos(), cardGenerated.bytes(),
+                transactionModelMapper.nanos(), transactionModelMapper.bytes(),
+                transactionGenerated.nanos(), transactionGenerated.bytes()));
+    }
+
+    private <T> Result measure(List<T> sources, Function<T, UUID> mapping) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapping.apply(sources.get(i & (FIXTURES - 1))).getLeastSignificantBits();
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapping.apply(sources.get(i & (FIXTURES - 1))).getLeastSignificantBits();
+        }
+        long elapsed = System.nanoTime() - started;
+        return new Result((double) elapsed / ITERATIONS,
+                (double) (THREADS.getCurrentThreadAllocatedBytes() - allocated) / ITERATIONS);
+    }
+}
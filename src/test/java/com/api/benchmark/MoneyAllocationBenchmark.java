@@ -0,0 +1,153 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.interfaces.TransactionService;
+import com.api.util.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bytes allocated per transfer, the figure JMH reports as {@code gc.alloc.rate.norm} with {@code -prof gc}
+ * (read here from the allocation counter of the calling thread, which runs the whole transfer).
+ *
+ * Two measurements:
+ * - the transfer checks and balance arithmetic alone, on {@link BigDecimal} (the previous code) and on {@link Money} cents;
+ * - a whole {@link TransactionService#makeTransaction} against the database. Its signature is unchanged,
+ *   so running this benchmark on the previous commit gives the "before" figure.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=MoneyAllocationBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class MoneyAllocationBenchmark {
+
+    private static final int ARITHMETIC_WARMUP = 2_000_000;
+    private static final int ARITHMETIC_ITERATIONS = 1_000_000;
+    private static final int TRANSFER_WARMUP = 2_000;
+    private static final int TRANSFER_ITERATIONS = 5_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card first;
+    private Card second;
+
+    // results are written here, so the JIT can't drop the measured code
+    private long sink;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("money benchmark user")
+                .email("money-benchmark@gmail.com")
+                .password("moneybenchmark123")
+                .role(Role.USER)
+                .build());
+        first = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, INITIAL_BALANCE, new BigDecimal("99999999.99")));
+        second = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, INITIAL_BALANCE, new BigDecimal("99999999.99")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id IN (?, ?)",
+                first.getId(), second.getId());
+        cardRepository.deleteAllById(List.of(first.getId(), second.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void allocationPerTransfer() {
+        BigDecimal amount = new BigDecimal("1.00");
+        long amountMinor = Money.toMinor(amount);
+
+        double bigDecimalBytes = bytesPerOperation(ARITHMETIC_WARMUP, ARITHMETIC_ITERATIONS, () -> transferOnBigDecimal(amount));
+        double moneyBytes = bytesPerOperation(ARITHMETIC_WARMUP, ARITHMETIC_ITERATIONS, () -> transferOnMoney(amountMinor));
+
+        int[] transfers = {0};
+        double transferBytes = bytesPerOperation(TRANSFER_WARMUP, TRANSFER_ITERATIONS, () -> {
+            // alternate the direction, so the balances stay where they are
+            boolean even = transfers[0]++ % 2 == 0;
+            transactionService.makeTransaction(even ? first.getId() : second.getId(),
+                    even ? second.getId() : first.getId(), amount);
+        });
+
+        log.info(String.format("%ncode path                          | bytes/transfer%n" +
+                        "checks + balances, BigDecimal      | %14.1f%n" +
+                        "checks + balances, Money cents     | %14.1f%n" +
+                        "makeTransaction (with the DB)      | %14.1f%n",
+                bigDecimalBytes, moneyBytes, transferBytes));
+
+        assertEquals(0, INITIAL_BALANCE.compareTo(cardRepository.findById(first.getId()).orElseThrow().getBalance()));
+    }
+
+    /**
+     * The arithmetic the validator and the entity executor used to do per transfer.
+     */
+    private void transferOnBigDecimal(BigDecimal amount) {
+        BigDecimal balance = INITIAL_BALANCE;
+        BigDecimal limit = INITIAL_BALANCE;
+        BigDecimal expensesForToday = BigDecimal.TEN;
+        if (balance.compareTo(amount) < 0 || limit.compareTo(expensesForToday.add(amount)) < 0) {
+            throw new IllegalStateException();
+        }
+        BigDecimal sourceBalance = balance.subtract(amount).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal newExpenses = expensesForToday.add(amount);
+        sink += sourceBalance.signum() + newExpenses.signum();
+    }
+
+    private void transferOnMoney(long amountMinor) {
+        long balance = Money.toMinor(INITIAL_BALANCE);
+        long limit = Money.toMinor(INITIAL_BALANCE);
+        long expensesForToday = 10_00;
+        if (balance < amountMinor || amountMinor > limit - expensesForToday) {
+            throw new IllegalStateException();
+        }
+        long sourceBalance = Money.subtract(balance, amountMinor);
+        long newExpenses = Money.add(expensesForToday, amountMinor);
+        sink += Long.signum(sourceBalance) + Long.signum(newExpenses);
+    }
+
+    private double bytesPerOperation(int warmup, int iterations, Runnable operation) {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (double) (THREADS.getCurrentThreadAllocatedBytes() - allocated) / iterations;
+    }
+}
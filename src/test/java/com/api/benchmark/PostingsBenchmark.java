@@ -0,0 +1,190 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardLockMode;
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.mapper.TransactionMapper;
+import com.api.repository.CardRepository;
+import com.api.repository.TransactionArchiveRepository;
+import com.api.repository.TransactionRepository;
+import com.api.repository.UserRepository;
+import com.api.service.TransactionServiceImpl;
+import com.api.service.executor.CardLockingExecutor;
+import com.api.service.executor.PostingsTransactionExecutorImpl;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.interfaces.PostingService;
+import com.api.service.validation.TransactionValidator;
+import com.api.util.TransferMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the update-in-place transfers ({@code entity} executor) with the append-only postings
+ * ({@code postings} executor) on a few hot cards: throughput and the row versions written to the `cards` table
+ * (updated tuples, each one a dead tuple for vacuum).
+ * Runs with the default (entity) executor bean; the postings executor is built by hand. The postings run includes a compaction every 200 ms.
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=PostingsBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class PostingsBenchmark {
+
+    private static final int CARDS = 8;
+    private static final int CALLERS = 16;
+    private static final int TRANSFERS_PER_CALLER = 300;
+    private static final long COMPACTION_INTERVAL_MILLIS = 200;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("10000000.00");
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+    @Autowired
+    private TransactionMapper transactionMapper;
+    @Autowired
+    private InternalTransactionExecutor internalTransactionExecutor;
+    @Autowired
+    private TransactionValidator transactionValidator;
+    @Autowired
+    private DailySpendService dailySpendService;
+    @Autowired
+    private PostingService postingService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private final List<Card> cards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("postings benchmark user")
+                .email("postings-benchmark@gmail.com")
+                .password("postingsbenchmark123")
+                .role(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteCards();
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void postings_vsUpdateInPlace() throws Exception {
+        Result updateInPlace = run(internalTransactionExecutor, false);
+        Result postings = run(new PostingsTransactionExecutorImpl(cardRepository, transactionRepository,
+                transactionValidator, dailySpendService, postingService, transactionManager), true);
+
+        log.info(String.format("%nexecutor | transfers/s | cards rows updated%n" +
+                        "entity   | %11.0f | %18d%npostings | %11.0f | %18d%n",
+                updateInPlace.throughput(), updateInPlace.cardUpdates(), postings.throughput(), postings.cardUpdates()));
+    }
+
+    private record Result(double throughput, long cardUpdates) {}
+
+    private Result run(InternalTransactionExecutor executor, boolean compact) throws Exception {
+        createCards();
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository, transactionMapper,
+                executor, transactionValidator, dailySpendService,
+                new CardLockingExecutor(transactionManager, new SimpleMeterRegistry(), CardLockMode.pessimistic, CardLockMode.pessimistic, 5, 0.2),
+                new TransferMetrics(new SimpleMeterRegistry(), false, false), transactionArchiveRepository);
+        long cardUpdatesBefore = cardUpdates();
+
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int c = 0; c < CALLERS; c++) {
+            futures.add(callers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_CALLER; i++) {
+                    int source = random.nextInt(CARDS);
+                    int destination = (source + 1 + random.nextInt(CARDS - 1)) % CARDS;
+                    transactionService.makeTransaction(cards.get(source).getId(), cards.get(destination).getId(), BigDecimal.ONE);
+                    succeeded.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        Future<?> compactor = callers.submit(() -> {
+            while (compact && futures.stream().anyMatch(future -> !future.isDone())) {
+                postingService.compact();
+                Thread.sleep(COMPACTION_INTERVAL_MILLIS);
+            }
+            return null;
+        });
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        compactor.get();
+        callers.shutdown();
+
+        if (compact) {
+            postingService.compact();
+        }
+        // the statistics are reported asynchronously
+        Thread.sleep(1000);
+        long updates = cardUpdates() - cardUpdatesBefore;
+
+        // no money is created or lost in either model
+        BigDecimal total = jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM \"bank_cards_management\".cards WHERE owner_id = ?", BigDecimal.class, owner.getId());
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)).compareTo(total));
+        deleteCards();
+
+        return new Result(succeeded.get() / seconds, updates);
+    }
+
+    private long cardUpdates() {
+        return jdbcTemplate.queryForObject("SELECT n_tup_upd FROM pg_stat_user_tables " +
+                "WHERE schemaname = 'bank_cards_management' AND relname = 'cards'", Long.class);
+    }
+
+    private void createCards() {
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                    CardStatus.active, INITIAL_BALANCE, INITIAL_BALANCE)));
+        }
+    }
+
+    private void deleteCards() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions t USING \"bank_cards_management\".cards c " +
+                "WHERE t.source_card_id = c.id AND c.owner_id = ?", owner.getId());
+        cardRepository.deleteAllById(cards.stream().map(Card::getId).toList());
+        cards.clear();
+    }
+}
@@ -0,0 +1,151 @@
+package com.api.benchmark;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.executor.DirectTransferDispatcher;
+import com.api.service.executor.ShardedTransferDispatcher;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the current lock-in-DB transfers ({@link DirectTransferDispatcher}) with the per-card lanes
+ * ({@link ShardedTransferDispatcher}) when the source cards follow a Zipfian distribution
+ * (a few hot cards get most of the transfers).
+ *
+ * Run with: ./mvnw test -Pbenchmark -Dtest=ShardedTransferBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class ShardedTransferBenchmark {
+
+    private static final int CARDS = 100;
+    private static final double ZIPF_EXPONENT = 1.2;
+    private static final int CALLERS = 64;
+    private static final int TRANSFERS_PER_CALLER = 100;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private List<Card> cards;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("sharded benchmark user")
+                .email("sharded-benchmark@gmail.com")
+                .password("shardedbenchmark123")
+                .role(Role.USER)
+                .build());
+        cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                    CardStatus.active, new BigDecimal("100000000.00"), new BigDecimal("100000000.00"))));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions t USING \"bank_cards_management\".cards c " +
+                "WHERE t.source_card_id = c.id AND c.owner_id = ?", owner.getId());
+        cardRepository.deleteAllById(cards.stream().map(Card::getId).toList());
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void sharded_vsDirect_onZipfianCards() throws Exception {
+        double direct = run(new DirectTransferDispatcher(transactionService));
+        ShardedTransferDispatcher sharded = new ShardedTransferDispatcher(
+                transactionService, new SimpleMeterRegistry(), 16, 10_000);
+        double shardedThroughput;
+        try {
+            shardedThroughput = run(sharded);
+        } finally {
+            sharded.stop();
+        }
+        log.info(String.format("zipfian transfers (%d cards, s=%.1f, %d callers): direct %.0f transfers/s, sharded %.0f transfers/s",
+                CARDS, ZIPF_EXPONENT, CALLERS, direct, shardedThroughput));
+    }
+
+    /**
+     * Runs the workload and returns the throughput (transfers per second).
+     */
+    private double run(TransferDispatcher dispatcher) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int c = 0; c < CALLERS; c++) {
+            long seed = c;
+            futures.add(callers.submit(() -> {
+                Zipf zipf = new Zipf(CARDS, ZIPF_EXPONENT, new Random(seed));
+                for (int i = 0; i < TRANSFERS_PER_CALLER; i++) {
+                    int source = zipf.next();
+                    int destination = (source + 1 + i % (CARDS - 1)) % CARDS;
+                    dispatcher.dispatch(cards.get(source).getId(), cards.get(destination).getId(), BigDecimal.ONE);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        callers.shutdown();
+        return CALLERS * TRANSFERS_PER_CALLER / ((System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Zipfian sampler over [0, n): rank k is drawn with probability proportional to 1 / (k + 1)^s.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+        private final Random random;
+
+        Zipf(int n, double s, Random random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int next() {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -3,9 +3,8 @@ package com.api.config;
 import com.api.dto.CardDto;
 import com.api.dto.CardDtoNoId;
 import com.api.entity.Card;
-import com.api.util.EncryptionUtil;
+import com.api.mapper.CardNumberMapper;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
@@ -17,13 +16,16 @@ import org.springframework.context.annotation.Configuration;
  *
  * Configuration class for creating and setting up a ModelMapper bean.
  * Defines custom mappings between Card entity and its DTOs.
+ *
+ * <p>The services map with the mappers generated at compile time ({@link com.api.mapper}), so the bean
+ * exists in the tests only (picked up by the component scan of the test context): the tests build their DTOs with it
+ * and {@code MapperBenchmark} uses it as the baseline.
  */
-@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class ModelMapperConfig {
 
-    private final EncryptionUtil encryptionUtil;
+    private final CardNumberMapper cardNumberMapper;
 
 
     /**
@@ -35,33 +37,8 @@ public class ModelMapperConfig {
 
         ModelMapper modelMapper = new ModelMapper();
 
-        Converter<String, String> decryptAndMaskConverter = ctx -> {
-            String encrypted = ctx.getSource();
-            if (encrypted == null) {
-                log.error("Nothing to decrypt and mask. Card number is null");
-                return "****";
-            }
-            try {
-                String decrypted = encryptionUtil.decrypt(encrypted);
-                return mask(decrypted);
-            } catch (Exception e) {
-                log.error("Decryption failed", e);
-                return "****";
-            }
-        };
-        Converter<String, String> encryptNumberConverter = ctx -> {
-            String decrypted = ctx.getSource();
-            if (decrypted == null) {
-                log.error("Nothing to encrypt. Card number is null");
-                return null;
-            }
-            try {
-                return encryptionUtil.encrypt(decrypted);
-            } catch (Exception e) {
-                log.error("Encryption failed", e);
-                return null;
-            }
-        };
+        Converter<String, String> decryptAndMaskConverter = ctx -> cardNumberMapper.decryptAndMask(ctx.getSource());
+        Converter<String, String> encryptNumberConverter = ctx -> cardNumberMapper.encrypt(ctx.getSource());
 
         // Decrypted and masked
         modelMapper.typeMap(Card.class, CardDto.class).addMappings(mapper -> {
@@ -81,14 +58,4 @@ public class ModelMapperConfig {
 
         return modelMapper;
     }
-
-    /**
-     * Masks a card number, keeping only the last 4 digits.
-     *
-     * @param number decrypted card number
-     */
-    private String mask(String number) {
-        if (number == null || number.length() < 4) return "****";
-        return "****-****-****-" + number.substring(number.length() - 4);
-    }
 }
@@ -37,6 +37,8 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
@@ -672,6 +674,48 @@ class CardControllerTest {
 
     }
 
+    @Nested
+    class findAllSeek {
+        @Test
+        void admin_success(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(adminDto.getEmail(),adminDto.getPassword());
+            when(cardService.findAll(isNull(), anyInt())).thenReturn(new SeekPageDto<>(List.of(cardDto), "next"));
+
+            ResponseEntity<SeekPageDto> pageResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/cards/all/seek",
+                    HttpMethod.GET,
+                    getHttpEntity(null,
+                            jwtResponseDto.getBody().getAccessToken()),
+                    SeekPageDto.class
+            );
+
+            assertEquals(HttpStatus.OK, pageResponseEntity.getStatusCode());
+            assertEquals("next", pageResponseEntity.getBody().getNextCursor());
+        }
+        @Test
+        void owner_shouldReturn403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(ownerDto.getEmail(),ownerDto.getPassword());
+
+            ResponseEntity<SeekPageDto> pageResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/cards/all/seek",
+                    HttpMethod.GET,
+                    getHttpEntity(null,
+                            jwtResponseDto.getBody().getAccessToken()),
+                    SeekPageDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, pageResponseEntity.getStatusCode());
+        }
+        @Test
+        void unauthenticatedUser_shouldReturn401(){
+            webTestClient.get()
+                    .uri("/cards/all/seek")
+                    .exchange()
+                    .expectStatus().isUnauthorized();
+        }
+
+    }
+
     @Nested
     class findAllByOwnerId {
         @Test
@@ -1,9 +1,12 @@
 package com.api.controller;
 
+import com.api.config.enums.TransferStatus;
 import com.api.dto.*;
 import com.api.dto.jwt.JwtRequestDto;
 import com.api.dto.jwt.JwtResponseDto;
+import com.api.entity.IdempotencyRecordId;
 import com.api.repository.CardRepository;
+import com.api.repository.IdempotencyRecordRepository;
 import com.api.repository.TransactionRepository;
 import com.api.repository.UserRepository;
 import com.api.service.auth.AuthServiceImpl;
@@ -35,7 +38,13 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Slf4j
@@ -60,6 +69,8 @@ class TransactionControllerTest {
     private UserRepository userRepository; // for real users from the DB
     @Autowired
     private CardRepository cardRepository; // for real cards from DB
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
     @MockBean
     private TransactionService transactionService;
     @MockBean
@@ -465,7 +476,7 @@ class TransactionControllerTest {
         @Test
         void admin_shouldThrow403(){
             ResponseEntity<JwtResponseDto> jwtResponseDto = login(adminDto.getEmail(),adminDto.getPassword());
-            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class));
+            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
 
             ResponseEntity<Void> cardResponseEntity = restTemplate.exchange(
                     baseUrl() + "/transactions/make",
@@ -480,7 +491,7 @@ class TransactionControllerTest {
         @Test
         void sourceOwner_success(){
             ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
-            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class));
+            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
 
             ResponseEntity<Void> cardResponseEntity = restTemplate.exchange(
                     baseUrl() + "/transactions/make",
@@ -496,7 +507,7 @@ class TransactionControllerTest {
         @Test
         void nonOwner_shouldThrow403(){
             ResponseEntity<JwtResponseDto> jwtResponseDto = login(nonOwnerDto.getEmail(),nonOwnerDto.getPassword());
-            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class));
+            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
 
             ResponseEntity<Void> cardResponseEntity = restTemplate.exchange(
                     baseUrl() + "/transactions/make",
@@ -508,6 +519,168 @@ class TransactionControllerTest {
 
             assertEquals(HttpStatus.FORBIDDEN, cardResponseEntity.getStatusCode());
         }
+        @Test
+        void sourceOwner_sameIdempotencyKey_shouldMakeTransactionOnce(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+            // the key is completed by the work run in the DB transaction of the transfer
+            doAnswer(invocation -> {
+                invocation.<Runnable>getArgument(3).run();
+                return null;
+            }).when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
+            String idempotencyKey = UUID.randomUUID().toString();
+            HttpHeaders headers = getHeadersWithBearerAuth(jwtResponseDto.getBody().getAccessToken());
+            headers.set("Idempotency-Key", idempotencyKey);
+
+            try {
+                for (int i = 0; i < 2; i++) {
+                    ResponseEntity<Void> cardResponseEntity = restTemplate.exchange(
+                            baseUrl() + "/transactions/make",
+                            HttpMethod.POST,
+                            new HttpEntity<>(paymentDto, headers),
+                            Void.class
+                    );
+                    assertEquals(HttpStatus.OK, cardResponseEntity.getStatusCode());
+                }
+
+                verify(transactionService, times(1)).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
+            } finally {
+                idempotencyRecordRepository.deleteById(new IdempotencyRecordId(sourceCardId, idempotencyKey));
+            }
+        }
+    }
+
+    @Nested
+    class submitTransaction {
+        @Test
+        void sourceOwner_accepted_andStatusIsCompleted(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+            doNothing().when(transactionService).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
+
+            ResponseEntity<TransferStatusDto> submitResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/async",
+                    HttpMethod.POST,
+                    getHttpEntity(paymentDto,
+                            jwtResponseDto.getBody().getAccessToken()),
+                    TransferStatusDto.class
+            );
+
+            assertEquals(HttpStatus.ACCEPTED, submitResponseEntity.getStatusCode());
+            assertNotNull(submitResponseEntity.getBody());
+            assertEquals(TransferStatus.pending, submitResponseEntity.getBody().getStatus());
+
+            ResponseEntity<TransferStatusDto> statusResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/async/status?waitMillis=5000",
+                    HttpMethod.POST,
+                    getHttpEntity(new IdDto(submitResponseEntity.getBody().getTransferId()),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    TransferStatusDto.class
+            );
+
+            assertEquals(HttpStatus.OK, statusResponseEntity.getStatusCode());
+            assertEquals(TransferStatus.completed, statusResponseEntity.getBody().getStatus());
+            verify(transactionService, times(1)).makeTransaction(any(UUID.class),any(UUID.class),any(BigDecimal.class),any());
+        }
+        @Test
+        void nonOwner_shouldThrow403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(nonOwnerDto.getEmail(),nonOwnerDto.getPassword());
+
+            ResponseEntity<TransferStatusDto> submitResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/async",
+                    HttpMethod.POST,
+                    getHttpEntity(paymentDto,
+                            jwtResponseDto.getBody().getAccessToken()),
+                    TransferStatusDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, submitResponseEntity.getStatusCode());
+        }
+        @Test
+        void unknownTransferStatus_shouldThrow403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+
+            ResponseEntity<TransferStatusDto> statusResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/async/status",
+                    HttpMethod.POST,
+                    getHttpEntity(new IdDto(UUID.randomUUID()),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    TransferStatusDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, statusResponseEntity.getStatusCode());
+        }
+    }
+
+    @Nested
+    class makeTransactions {
+        BatchPaymentDto batchPaymentDto(){
+            return new BatchPaymentDto(List.of(paymentDto, paymentDto));
+        }
+        @Test
+        void admin_shouldThrow403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(adminDto.getEmail(),adminDto.getPassword());
+
+            ResponseEntity<BatchPaymentResultDto> batchResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/batch",
+                    HttpMethod.POST,
+                    getHttpEntity(batchPaymentDto(),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    BatchPaymentResultDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, batchResponseEntity.getStatusCode());
+        }
+        @Test
+        void sourceOwner_success(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+            when(transactionService.makeTransactions(any())).thenReturn(BatchPaymentResultDto.builder()
+                    .succeeded(1)
+                    .failed(1)
+                    .results(List.of(
+                            PaymentResultDto.success(0, UUID.randomUUID()),
+                            PaymentResultDto.failure(1, "Insufficient funds")))
+                    .build());
+
+            ResponseEntity<BatchPaymentResultDto> batchResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/batch",
+                    HttpMethod.POST,
+                    getHttpEntity(batchPaymentDto(),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    BatchPaymentResultDto.class
+            );
+
+            assertEquals(HttpStatus.OK, batchResponseEntity.getStatusCode());
+            assertNotNull(batchResponseEntity.getBody());
+            assertEquals(2, batchResponseEntity.getBody().getResults().size());
+            assertFalse(batchResponseEntity.getBody().getResults().get(1).isSuccess());
+        }
+        @Test
+        void nonOwner_shouldThrow403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(nonOwnerDto.getEmail(),nonOwnerDto.getPassword());
+
+            ResponseEntity<BatchPaymentResultDto> batchResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/batch",
+                    HttpMethod.POST,
+                    getHttpEntity(batchPaymentDto(),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    BatchPaymentResultDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, batchResponseEntity.getStatusCode());
+        }
+        @Test
+        void emptyBatch_shouldThrow400(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+
+            ResponseEntity<Object> batchResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/make/batch",
+                    HttpMethod.POST,
+                    getHttpEntity(new BatchPaymentDto(List.of()),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    Object.class
+            );
+
+            assertEquals(HttpStatus.BAD_REQUEST, batchResponseEntity.getStatusCode());
+        }
     }
 
     @Nested
@@ -595,4 +768,57 @@ class TransactionControllerTest {
             assertEquals(HttpStatus.FORBIDDEN, cardResponseEntity.getStatusCode());
         }
     }
+
+    @Nested
+    class findAllByCardIdSeek {
+        @Test
+        void owner_firstPage_success(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(sourceOwnerDto.getEmail(),sourceOwnerDto.getPassword());
+            when(transactionService.findAllByCardId(any(UUID.class), isNull(), anyInt()))
+                    .thenReturn(new SeekPageDto<>(List.of(transactionDto), "next"));
+
+            ResponseEntity<SeekPageDto> pageResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/all/card/seek?size=1",
+                    HttpMethod.POST,
+                    getHttpEntity(new IdDto(sourceCardId),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    SeekPageDto.class
+            );
+
+            assertEquals(HttpStatus.OK, pageResponseEntity.getStatusCode());
+            assertEquals(1, pageResponseEntity.getBody().getContent().size());
+            assertEquals("next", pageResponseEntity.getBody().getNextCursor());
+        }
+        @Test
+        void admin_nextPage_success(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(adminDto.getEmail(),adminDto.getPassword());
+            when(transactionService.findAllByCardId(any(UUID.class), eq("next"), eq(1)))
+                    .thenReturn(new SeekPageDto<>(List.of(transactionDto), null));
+
+            ResponseEntity<SeekPageDto> pageResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/all/card/seek?cursor=next&size=1",
+                    HttpMethod.POST,
+                    getHttpEntity(new IdDto(sourceCardId),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    SeekPageDto.class
+            );
+
+            assertEquals(HttpStatus.OK, pageResponseEntity.getStatusCode());
+            assertNull(pageResponseEntity.getBody().getNextCursor());
+        }
+        @Test
+        void nonOwner_shouldThrow403(){
+            ResponseEntity<JwtResponseDto> jwtResponseDto = login(nonOwnerDto.getEmail(),nonOwnerDto.getPassword());
+
+            ResponseEntity<SeekPageDto> pageResponseEntity = restTemplate.exchange(
+                    baseUrl() + "/transactions/all/card/seek",
+                    HttpMethod.POST,
+                    getHttpEntity(new IdDto(sourceCardId),
+                            jwtResponseDto.getBody().getAccessToken()),
+                    SeekPageDto.class
+            );
+
+            assertEquals(HttpStatus.FORBIDDEN, pageResponseEntity.getStatusCode());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.api.jfr;
+
+import com.api.config.enums.TransferOutcome;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records the transfer events in-process, dumps the recording and reads it back with the analyzer.
+ */
+class ContendedCardsReportTest {
+
+    private final UUID hotCard = UUID.randomUUID();
+    private final UUID warmCard = UUID.randomUUID();
+    private final UUID coldCard = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ordersCardsByTotalLockWait() throws Exception {
+        Path file = record(Duration.ZERO, () -> {
+            lock(List.of(hotCard, warmCard), 30);
+            lock(List.of(hotCard, coldCard), 20);
+            lock(List.of(warmCard), 5);
+            TransferEvent transfer = new TransferEvent();
+            transfer.begin();
+            transfer.commitIfSlow(hotCard, warmCard, new BigDecimal("250.00"), TransferOutcome.success);
+        });
+
+        List<ContendedCardsReport.CardContention> report = ContendedCardsReport.read(file);
+
+        assertEquals(List.of(JfrCards.hash(hotCard), JfrCards.hash(warmCard), JfrCards.hash(coldCard)),
+                report.stream().map(ContendedCardsReport.CardContention::card).toList());
+        ContendedCardsReport.CardContention hot = report.get(0);
+        assertEquals(2, hot.lockWaits());
+        assertTrue(hot.totalLockWait().toMillis() >= 50);
+        assertTrue(hot.maxLockWait().toMillis() >= 30);
+        assertEquals(1, hot.slowTransfers());
+    }
+
+    @Test
+    void eventsUnderTheirThresholdAreNotRecorded() throws Exception {
+        // the recording keeps the default thresholds of the events (10 ms for a card lock)
+        Path file = record(null, () -> lock(List.of(hotCard), 0));
+
+        assertTrue(ContendedCardsReport.read(file).isEmpty());
+    }
+
+    @Test
+    void amountBucket_isTheOrderOfMagnitude() {
+        assertEquals("<1", JfrCards.amountBucket(new BigDecimal("0.50")));
+        assertEquals("1-10", JfrCards.amountBucket(new BigDecimal("9.99")));
+        assertEquals("100-1k", JfrCards.amountBucket(new BigDecimal("250.00")));
+        assertEquals("100k+", JfrCards.amountBucket(new BigDecimal("12345678.00")));
+    }
+
+    private Path record(Duration threshold, Runnable events) throws IOException {
+        Path file = directory.resolve("transfers.jfr");
+        try (Recording recording = new Recording()) {
+            for (Class<? extends jdk.jfr.Event> type : List.of(CardLockEvent.class, TransferEvent.class, TransferWriteEvent.class)) {
+                if (threshold == null) {
+                    recording.enable(type);
+                } else {
+                    recording.enable(type).withThreshold(threshold);
+                }
+            }
+            recording.start();
+            events.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return file;
+    }
+
+    private static void lock(List<UUID> cardIds, long millis) {
+        CardLockEvent event = new CardLockEvent();
+        event.begin();
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        event.commitIfSlow(cardIds);
+    }
+}
@@ -0,0 +1,118 @@
+package com.api.mapper;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.CardDto;
+import com.api.dto.CardDtoNoId;
+import com.api.dto.UserDto;
+import com.api.entity.Card;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardMapperTest {
+
+    private CardMapper cardMapper;
+    @Mock
+    private EncryptionUtil encryptionUtil;
+    @Mock
+    private BlindIndex blindIndex;
+
+    private CardDto cardDto;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        cardMapper = new CardMapperImpl(new UserMapperImpl(), new CardNumberMapper(encryptionUtil, blindIndex));
+        cardDto = CardDto.builder()
+                .id(UUID.randomUUID())
+                .number("1111-2222-3333-4444")
+                .owner(new UserDto(UUID.randomUUID(), "User Fullname", "user@gmail.com", "user_password123", Role.USER))
+                .expirationDate(LocalDateTime.of(2029, 4, 30, 0, 0))
+                .status(CardStatus.active)
+                .balance(new BigDecimal("500.5"))
+                .transactionLimitPerDay(new BigDecimal("1000"))
+                .build();
+    }
+
+    @Test
+    void toEntity_shouldEncryptNumber_andScaleAmounts(){
+        when(encryptionUtil.encrypt("1111-2222-3333-4444")).thenReturn("encrypted");
+
+        Card card = cardMapper.toEntity(cardDto);
+
+        assertEquals(cardDto.getId(), card.getId());
+        assertEquals("encrypted", card.getNumber());
+        assertEquals(cardDto.getOwner().getId(), card.getOwner().getId());
+        assertEquals(new BigDecimal("500.50"), card.getBalance());
+        assertEquals(new BigDecimal("1000.00"), card.getTransactionLimitPerDay());
+    }
+
+    @Test
+    void toEntity_withoutLimit_shouldLeaveItUnlimited(){
+        cardDto.setTransactionLimitPerDay(null);
+
+        Card card = cardMapper.toEntity(cardDto);
+
+        assertNull(card.getTransactionLimitPerDay());
+        assertEquals(Long.MAX_VALUE, card.getTransactionLimitPerDayMinor());
+    }
+
+    @Test
+    void toEntity_shouldStoreLast4(){
+        assertEquals("4444", cardMapper.toEntity(cardDto).getNumberLast4());
+        assertNull(CardNumberMapper.last4("12-3"));
+    }
+
+    @Test
+    void toEntity_shouldStoreBlindIndexOfPlainNumber(){
+        when(blindIndex.hash("1111-2222-3333-4444")).thenReturn("hash");
+
+        assertEquals("hash", cardMapper.toEntity(cardDto).getNumberHash());
+        assertEquals("hash", cardMapper.toEntity(new CardDtoNoId("1111-2222-3333-4444", cardDto.getOwner(),
+                cardDto.getExpirationDate(), cardDto.getStatus(), cardDto.getBalance(), null)).getNumberHash());
+    }
+
+    @Test
+    void toDto_shouldMaskNumberFromLast4_withoutDecryption(){
+        Card card = cardMapper.toEntity(cardDto);
+
+        CardDto result = cardMapper.toDto(card);
+        CardDtoNoId resultNoId = cardMapper.toDtoNoId(card);
+
+        assertEquals("****-****-****-4444", result.getNumber());
+        assertEquals("****-****-****-4444", resultNoId.getNumber());
+        assertEquals(card.getId(), result.getId());
+        assertEquals("user@gmail.com", result.getOwner().getEmail());
+        verify(encryptionUtil, never()).decrypt(anyString());
+    }
+
+    @Test
+    void toDto_notBackfilledCard_shouldDecryptAndMaskNumber(){
+        when(encryptionUtil.decrypt("encrypted")).thenReturn("1111-2222-3333-5555");
+        Card card = cardMapper.toEntity(cardDto);
+        card.setNumber("encrypted");
+        card.setNumberLast4(null);
+
+        assertEquals("****-****-****-5555", cardMapper.toDto(card).getNumber());
+    }
+
+    @Test
+    void toDto_undecryptableNumber_shouldBeMasked(){
+        when(encryptionUtil.decrypt(anyString())).thenThrow(new IllegalStateException("bad key"));
+        Card card = cardMapper.toEntity(cardDto);
+        card.setNumber("garbage");
+        card.setNumberLast4(null);
+
+        assertEquals(CardNumberMapper.MASKED, cardMapper.toDto(card).getNumber());
+    }
+}
@@ -0,0 +1,123 @@
+package com.api.security;
+
+import com.api.config.enums.Role;
+import com.api.exception.AuthException;
+import com.api.service.auth.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtFilterTest {
+
+    private JwtFilter jwtFilter;
+    @Mock
+    private JwtProvider jwtProvider;
+    @Mock
+    private AuthServiceImpl authServiceImpl;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        jwtFilter = new JwtFilter(jwtProvider, authServiceImpl, 100);
+        when(authServiceImpl.isUserLoggedIn("user@gmail.com")).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown(){
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sameToken_shouldBeValidatedOnce() throws Exception {
+        when(jwtProvider.parseAccessToken("token")).thenReturn(claims(new Date(System.currentTimeMillis() + 60_000)));
+
+        JwtAuthentication first = filter("token");
+        JwtAuthentication second = filter("token");
+
+        verify(jwtProvider, times(1)).parseAccessToken("token");
+        verify(jwtProvider, never()).getAccessClaims(any());
+        assertEquals("user@gmail.com", second.getEmail());
+        assertEquals(Role.USER, second.getRole());
+        assertTrue(second.isAuthenticated());
+        // a new authentication per request, the login is checked every time
+        assertNotSame(first, second);
+        verify(authServiceImpl, times(2)).isUserLoggedIn("user@gmail.com");
+    }
+
+    @Test
+    void loggedOutUser_shouldNotBeAuthenticated_withCachedToken() throws Exception {
+        when(jwtProvider.parseAccessToken("token")).thenReturn(claims(new Date(System.currentTimeMillis() + 60_000)));
+        filter("token");
+        when(authServiceImpl.isUserLoggedIn("user@gmail.com")).thenReturn(false);
+
+        assertFalse(filter("token").isAuthenticated());
+    }
+
+    @Test
+    void invalidToken_shouldThrow_andNotBeCached() {
+        when(jwtProvider.parseAccessToken("token")).thenThrow(new AuthException("Invalid signature"));
+
+        assertThrows(AuthException.class, () -> filter("token"));
+        assertThrows(AuthException.class, () -> filter("token"));
+        verify(jwtProvider, times(2)).parseAccessToken("token");
+    }
+
+    @Test
+    void tokenWithoutExpiration_shouldBeValidatedEveryTime() throws Exception {
+        when(jwtProvider.parseAccessToken("token")).thenReturn(claims(null));
+
+        filter("token");
+        filter("token");
+
+        verify(jwtProvider, times(2)).parseAccessToken("token");
+    }
+
+    @Test
+    void disabledCache_shouldValidateEveryTime() throws Exception {
+        jwtFilter = new JwtFilter(jwtProvider, authServiceImpl, 0);
+        when(jwtProvider.parseAccessToken("token")).thenReturn(claims(new Date(System.currentTimeMillis() + 60_000)));
+
+        filter("token");
+        filter("token");
+
+        verify(jwtProvider, times(2)).parseAccessToken("token");
+    }
+
+    @Test
+    void noToken_shouldNotAuthenticate() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        jwtFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(jwtProvider);
+    }
+
+    private JwtAuthentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        SecurityContextHolder.clearContext();
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return (JwtAuthentication) SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static Claims claims(Date expiration) {
+        Claims claims = Jwts.claims().setSubject("user@gmail.com");
+        claims.put("role", Role.USER.name());
+        claims.setExpiration(expiration);
+        return claims;
+    }
+}
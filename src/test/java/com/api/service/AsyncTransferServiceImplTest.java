@@ -0,0 +1,90 @@
+package com.api.service;
+
+import com.api.config.enums.TransferStatus;
+import com.api.dto.PaymentDto;
+import com.api.dto.TransferStatusDto;
+import com.api.exception.BadRequestException;
+import com.api.exception.ServerException;
+import com.api.service.executor.interfaces.TransferDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+class AsyncTransferServiceImplTest {
+
+    private AsyncTransferServiceImpl asyncTransferService;
+    private PaymentDto paymentDto;
+    @Mock
+    private TransferDispatcher transferDispatcher;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        asyncTransferService = new AsyncTransferServiceImpl(transferDispatcher, new SimpleMeterRegistry(), 1, 1, 100, 60, 5000);
+        paymentDto = new PaymentDto(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncTransferService.stop();
+    }
+
+    @Test
+    void submittedTransfer_isCompletedInBackground() throws Exception {
+        TransferStatusDto submitted = asyncTransferService.submit(paymentDto);
+
+        assertEquals(TransferStatus.pending, submitted.getStatus());
+        assertEquals(paymentDto.getSourceCardId(), asyncTransferService.getSourceCardId(submitted.getTransferId()).orElseThrow());
+        TransferStatusDto status = asyncTransferService.getStatus(submitted.getTransferId(), 5000).get(5, TimeUnit.SECONDS);
+        assertEquals(TransferStatus.completed, status.getStatus());
+    }
+
+    @Test
+    void failedTransfer_reportsTheReason() throws Exception {
+        doThrow(new BadRequestException("Insufficient funds")).when(transferDispatcher).dispatch(any(), any(), any());
+
+        UUID transferId = asyncTransferService.submit(paymentDto).getTransferId();
+
+        TransferStatusDto status = asyncTransferService.getStatus(transferId, 5000).get(5, TimeUnit.SECONDS);
+        assertEquals(TransferStatus.failed, status.getStatus());
+        assertEquals("Insufficient funds", status.getMessage());
+    }
+
+    @Test
+    void longPoll_returnsPendingAfterTheWaitTime_andFullQueue_isRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(transferDispatcher).dispatch(any(), any(), any());
+        try {
+            // one transfer is being made and one is queued: the pool and the queue are full
+            UUID transferId = asyncTransferService.submit(paymentDto).getTransferId();
+            asyncTransferService.submit(paymentDto);
+            assertThrows(ServerException.class, () -> asyncTransferService.submit(paymentDto));
+
+            assertEquals(TransferStatus.pending, asyncTransferService.getStatus(transferId, 0).get().getStatus());
+            assertEquals(TransferStatus.pending, asyncTransferService.getStatus(transferId, 100).get(5, TimeUnit.SECONDS).getStatus());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void unknownTransfer_shouldThrow(){
+        assertTrue(asyncTransferService.getSourceCardId(UUID.randomUUID()).isEmpty());
+        assertThrows(BadRequestException.class, () -> asyncTransferService.getStatus(UUID.randomUUID(), 0));
+    }
+}
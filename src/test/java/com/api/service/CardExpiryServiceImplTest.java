@@ -0,0 +1,135 @@
+package com.api.service;
+
+import com.api.repository.CardRepository;
+import com.api.util.AdvisoryLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardExpiryServiceImplTest {
+
+    private CardExpiryServiceImpl cardExpiryService;
+    private SimpleMeterRegistry meterRegistry;
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private AdvisoryLock advisoryLock;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        cardExpiryService = new CardExpiryServiceImpl(cardRepository, advisoryLock, meterRegistry, 2, true, 1000, 60, 3);
+        when(advisoryLock.runExclusively(anyString(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return true;
+        });
+    }
+
+    @Test
+    void shouldUpdateBatchesUntilAShortOne(){
+        when(cardRepository.expireBatch(any(), any(), eq(2))).thenReturn(2, 2, 1);
+
+        assertEquals(5, cardExpiryService.expireCards());
+        verify(cardRepository, times(3)).expireBatch(any(), eq(List.of("active", "blocked")), eq(2));
+        assertEquals(5, meterRegistry.get("card.expiry.expired").counter().count());
+        assertEquals(3, meterRegistry.get("card.expiry.batch").timer().count());
+    }
+
+    @Test
+    void noExpiredCards_shouldRunOneBatch(){
+        when(cardRepository.expireBatch(any(), any(), eq(2))).thenReturn(0);
+
+        assertEquals(0, cardExpiryService.expireCards());
+        verify(cardRepository, times(1)).expireBatch(any(), any(), eq(2));
+    }
+
+    @Test
+    void lockHeldByAnotherInstance_shouldNotUpdate(){
+        // doReturn: re-stubbing with when() would run the answer of setUp with a null Runnable
+        doReturn(false).when(advisoryLock).runExclusively(anyString(), any());
+
+        assertEquals(0, cardExpiryService.expireCards());
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void wheel_shouldExpireTrackedCardWhenItExpires(){
+        UUID cardId = UUID.randomUUID();
+        LocalDateTime expirationDate = LocalDateTime.now().plusSeconds(5);
+        when(cardRepository.findExpiringAfter(any(), any(), any(), anyInt())).thenReturn(List.of());
+        cardExpiryService.track(cardId, expirationDate);
+
+        cardExpiryService.advance(expirationDate.minusSeconds(1));
+        verify(cardRepository, never()).expireDue(any(), any());
+
+        cardExpiryService.advance(expirationDate.plusSeconds(1));
+        verify(cardRepository).expireDue(List.of(cardId), expirationDate.plusSeconds(1));
+    }
+
+    @Test
+    void wheel_shouldRefillFromTheIndexUpToItsCapacity(){
+        CardRepository.ExpiringCard first = expiringCard(LocalDateTime.now().plusSeconds(10));
+        CardRepository.ExpiringCard second = expiringCard(LocalDateTime.now().plusSeconds(20));
+        when(cardRepository.findExpiringAfter(any(), any(), any(), eq(2))).thenReturn(List.of(first, second));
+        when(cardRepository.findExpiringAfter(any(), eq(second.getId()), any(), eq(1))).thenReturn(List.of());
+
+        cardExpiryService.advance(LocalDateTime.now());
+
+        // batch size 2, then the last free place of 3
+        verify(cardRepository).findExpiringAfter(any(), any(), any(), eq(2));
+        verify(cardRepository).findExpiringAfter(eq(second.getExpirationDate()), eq(second.getId()), any(), eq(1));
+        assertEquals(2, meterRegistry.get("card.expiry.wheel.size").gauge().value());
+
+        // the window is loaded up to its end: no query until half of it has passed
+        cardExpiryService.advance(LocalDateTime.now().plusSeconds(1));
+        verify(cardRepository, times(2)).findExpiringAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void wheelStart_shouldSweepTheCardsAlreadyOverdue(){
+        when(cardRepository.expireBatch(any(), any(), eq(2))).thenReturn(1);
+        when(cardRepository.findExpiringAfter(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        cardExpiryService.startWheel();
+        try {
+            verify(cardRepository, timeout(5000)).expireBatch(any(), eq(List.of("active", "blocked")), eq(2));
+        } finally {
+            cardExpiryService.stopWheel();
+        }
+    }
+
+    @Test
+    void wheel_shouldNotTrackCardBeyondTheWindow(){
+        cardExpiryService.track(UUID.randomUUID(), LocalDateTime.now().plusHours(2));
+
+        assertEquals(0, meterRegistry.get("card.expiry.wheel.size").gauge().value());
+    }
+
+    private static CardRepository.ExpiringCard expiringCard(LocalDateTime expirationDate) {
+        UUID id = UUID.randomUUID();
+        return new CardRepository.ExpiringCard() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getExpirationDate() {
+                return expirationDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.api.service;
+
+import com.api.repository.CardRepository;
+import com.api.util.AdvisoryLock;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardNumberBackfillServiceImplTest {
+
+    private CardNumberBackfillServiceImpl backfillService;
+    private SimpleMeterRegistry meterRegistry;
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private EncryptionUtil encryptionUtil;
+    @Mock
+    private BlindIndex blindIndex;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private AdvisoryLock advisoryLock;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        backfillService = new CardNumberBackfillServiceImpl(cardRepository, encryptionUtil, blindIndex, jdbcTemplate, advisoryLock,
+                meterRegistry, 2);
+        when(advisoryLock.runExclusively(anyString(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return true;
+        });
+        when(encryptionUtil.decrypt(anyString())).thenAnswer(invocation -> "1111-2222-3333-" + invocation.getArgument(0));
+        when(blindIndex.hash(anyString())).thenAnswer(invocation -> "hash " + invocation.getArgument(0));
+        when(encryptionUtil.decryptAll(anyList())).thenAnswer(invocation -> {
+            List<String> numbers = invocation.getArgument(0);
+            if (numbers.contains("broken")) {
+                throw new RuntimeException("Decryption error");
+            }
+            return numbers.stream().map(number -> "1111-2222-3333-" + number).toList();
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldUpdateBatchesInIdOrder_skippingUndecryptableNumbers(){
+        CardRepository.CardNumber first = cardNumber("0001");
+        CardRepository.CardNumber second = cardNumber("broken");
+        CardRepository.CardNumber third = cardNumber("0003");
+        when(encryptionUtil.decrypt("broken")).thenThrow(new RuntimeException("Decryption error"));
+        when(cardRepository.findNumbersToBackfill(any(), eq(2))).thenReturn(List.of(first, second), List.of(third));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        assertEquals(2, backfillService.backfill());
+
+        verify(cardRepository).findNumbersToBackfill(new UUID(0, 0), 2);
+        verify(cardRepository).findNumbersToBackfill(second.getId(), 2);
+        // the batch with the broken number falls back to one card at a time
+        verify(encryptionUtil).decrypt("0001");
+        verify(encryptionUtil, never()).decrypt("0003");
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[]{"0001", "hash 1111-2222-3333-0001", first.getId(), "0001"}, rows.getAllValues().get(0).get(0));
+        assertEquals(1, rows.getAllValues().get(0).size());
+        assertArrayEquals(new Object[]{"0003", "hash 1111-2222-3333-0003", third.getId(), "0003"}, rows.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    void duplicateNumber_shouldUpdateTheOtherCardsOneByOne(){
+        CardRepository.CardNumber first = cardNumber("0001");
+        CardRepository.CardNumber duplicate = cardNumber("0002");
+        when(cardRepository.findNumbersToBackfill(any(), eq(2))).thenReturn(List.of(first, duplicate));
+        when(cardRepository.findNumbersToBackfill(duplicate.getId(), 2)).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("cards_number_hash_idx"));
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(first.getId()), any())).thenReturn(1);
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(duplicate.getId()), any()))
+                .thenThrow(new DuplicateKeyException("cards_number_hash_idx"));
+
+        assertEquals(1, backfillService.backfill());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shortNumber_shouldBackfillOnlyTheHash_andChangedCardsAreNotCounted(){
+        CardRepository.CardNumber shortNumber = cardNumber("0001");
+        CardRepository.CardNumber changed = cardNumber("0002");
+        when(encryptionUtil.decryptAll(anyList())).thenReturn(List.of("123", "1111-2222-3333-0002"));
+        when(cardRepository.findNumbersToBackfill(any(), eq(2))).thenReturn(List.of(shortNumber, changed));
+        when(cardRepository.findNumbersToBackfill(changed.getId(), 2)).thenReturn(List.of());
+        // the second card's number is changed after it is read: its row is not matched
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        assertEquals(1, backfillService.backfill());
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertArrayEquals(new Object[]{null, "hash 123", shortNumber.getId(), "0001"}, rows.getValue().get(0));
+        assertEquals(1, meterRegistry.get("card.number.backfill.updated").counter().count());
+    }
+
+    @Test
+    void lockHeldByAnotherInstance_shouldNotDecryptNorUpdate(){
+        // doReturn: re-stubbing with when() would run the answer of setUp with a null Runnable
+        doReturn(false).when(advisoryLock).runExclusively(anyString(), any());
+
+        assertEquals(0, backfillService.backfill());
+        verifyNoInteractions(cardRepository, encryptionUtil, blindIndex, jdbcTemplate);
+        assertEquals(0, meterRegistry.get("card.number.backfill.updated").counter().count());
+    }
+
+    private static CardRepository.CardNumber cardNumber(String number) {
+        UUID id = UUID.randomUUID();
+        return new CardRepository.CardNumber() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getNumber() {
+                return number;
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.api.service;
 
 import com.api.service.validation.CardValidator;
+import com.api.config.enums.CardLockMode;
 import com.api.config.enums.CardStatus;
 import com.api.config.enums.Role;
 import com.api.dto.CardDto;
@@ -8,7 +9,19 @@ import com.api.dto.CardDtoNoId;
 import com.api.dto.UserDto;
 import com.api.entity.Card;
 import com.api.exception.BadRequestException;
+import com.api.exception.ConflictException;
+import com.api.mapper.CardMapper;
+import com.api.mapper.CardMapperImpl;
+import com.api.mapper.CardNumberMapper;
+import com.api.mapper.UserMapperImpl;
 import com.api.repository.CardRepository;
+import com.api.service.executor.CardLockingExecutor;
+import com.api.service.executor.interfaces.CardStateTransactionExecutor;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.CardExpiryService;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Nested;
@@ -19,12 +32,15 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class CardServiceImplTest {
@@ -34,8 +50,18 @@ class CardServiceImplTest {
     @Mock
     private CardRepository cardRepository;
     private ModelMapper modelMapper;
+    private CardMapper cardMapper;
+    private CardNumberMapper cardNumberMapper;
+    @Mock
+    private EncryptionUtil encryptionUtil;
+    @Mock
+    private BlindIndex blindIndex;
     @Mock
     private CardValidator cardValidator;
+    @Mock
+    private CardExpiryService cardExpiryService;
+    @Mock
+    private InternalTransactionExecutor internalTransactionExecutor;
 
     public UUID cardId;
     public UUID userId;
@@ -46,7 +72,13 @@ class CardServiceImplTest {
     void setUp(){
         modelMapper = new ModelMapper(); // basic ModelMapper for less coding but without ours ModelMapper config
         MockitoAnnotations.openMocks(this);
-        cardService = new CardServiceImpl(cardRepository, cardValidator, modelMapper);
+        // the numbers of the fixtures are not encrypted
+        when(encryptionUtil.encrypt(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(encryptionUtil.decrypt(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        cardNumberMapper = new CardNumberMapper(encryptionUtil, blindIndex);
+        cardMapper = new CardMapperImpl(new UserMapperImpl(), cardNumberMapper);
+        cardService = new CardServiceImpl(cardRepository, cardValidator, cardMapper, cardNumberMapper,
+                cardLockingExecutor(CardLockMode.pessimistic), cardExpiryService, internalTransactionExecutor);
         cardId = UUID.randomUUID();
         userId = UUID.randomUUID();
         userDto = UserDto.builder()
@@ -79,7 +111,7 @@ class CardServiceImplTest {
             assertNotNull(result);
             assertEquals(userCardDto.getId(), result.getId());
             assertEquals(userCardDto.getBalance(), result.getBalance());
-            assertEquals(userCardDto.getNumber(), result.getNumber());
+            assertEquals("****-****-****-4444", result.getNumber());
         }
 
         @Test
@@ -91,6 +123,43 @@ class CardServiceImplTest {
         }
     }
 
+    @Nested
+    class getCardByNumber{
+
+        @BeforeEach
+        void setUp(){
+            when(blindIndex.hash("1111-2222-3333-4444")).thenReturn("hash");
+        }
+
+        @Test
+        public void success_shouldProbeTheBlindIndex(){
+            when(cardRepository.findByNumberHash("hash")).thenReturn(Optional.of(modelMapper.map(userCardDto, Card.class)));
+
+            CardDto result = cardService.getCardByNumber("1111-2222-3333-4444");
+
+            assertEquals(userCardDto.getId(), result.getId());
+            assertEquals("****-****-****-4444", result.getNumber());
+            verify(cardRepository, never()).findByNumberAndNumberHashIsNull(any());
+        }
+
+        @Test
+        public void cardNotBackfilledYet_shouldBeFoundByEncryptedNumber(){
+            when(cardRepository.findByNumberHash("hash")).thenReturn(Optional.empty());
+            when(cardRepository.findByNumberAndNumberHashIsNull("1111-2222-3333-4444"))
+                    .thenReturn(Optional.of(modelMapper.map(userCardDto, Card.class)));
+
+            assertEquals(userCardDto.getId(), cardService.getCardByNumber("1111-2222-3333-4444").getId());
+        }
+
+        @Test
+        public void nonexistentNumber_shouldThrowException(){
+            when(cardRepository.findByNumberHash("hash")).thenReturn(Optional.empty());
+            when(cardRepository.findByNumberAndNumberHashIsNull(any())).thenReturn(Optional.empty());
+
+            assertThrows(BadRequestException.class, () -> cardService.getCardByNumber("1111-2222-3333-4444"));
+        }
+    }
+
     @Nested
     class addCard{
 
@@ -103,8 +172,7 @@ class CardServiceImplTest {
 
             assertNotNull(result);
             assertEquals(userCardDto.getId(), result.getId());
-
-
+            verify(cardExpiryService).track(card.getId(), card.getExpirationDate());
         }
 
         @Test
@@ -146,6 +214,19 @@ class CardServiceImplTest {
 
             assertThrows(BadRequestException.class, () -> cardService.updateCard(userCardDto));
         }
+        @Test
+        public void balanceKeptByExecutor_shouldNotBeChanged() {
+            cardService = new CardServiceImpl(cardRepository, cardValidator, cardMapper, cardNumberMapper,
+                    cardLockingExecutor(CardLockMode.pessimistic), cardExpiryService,
+                    mock(CardStateTransactionExecutor.class));
+            Card card = modelMapper.map(userCardDto, Card.class);
+            card.setBalance(card.getBalance().add(BigDecimal.ONE));
+            when(cardValidator.getCardOrThrow_LockWrite(cardId)).thenReturn(card);
+            when(cardValidator.isCardStatusEqualTo(card, CardStatus.active)).thenReturn(true);
+
+            assertThrows(BadRequestException.class, () -> cardService.updateCard(userCardDto));
+            verify(cardRepository, never()).save(any(Card.class));
+        }
     }
 
     @Nested
@@ -233,6 +314,43 @@ class CardServiceImplTest {
         }
     }
 
+    @Nested
+    class optimisticLocking{
+
+        @BeforeEach
+        void setUp(){
+            cardService = new CardServiceImpl(cardRepository, cardValidator, cardMapper, cardNumberMapper,
+                    cardLockingExecutor(CardLockMode.optimistic), cardExpiryService, internalTransactionExecutor);
+        }
+
+        @Test
+        public void updateCardStatus_versionConflict_shouldRetryWithoutRowLock(){
+            Card card = modelMapper.map(userCardDto, Card.class);
+            when(cardValidator.getCardOrThrow(cardId)).thenReturn(card);
+            when(cardValidator.isCardStatusEqualTo(card, CardStatus.expired)).thenReturn(false);
+            when(cardRepository.updateStatusByIdAndVersion(cardId, "blocked", card.getVersion()))
+                    .thenReturn(0)
+                    .thenReturn(1);
+
+            cardService.updateCardStatus(cardId, "blocked");
+
+            verify(cardRepository, times(2)).updateStatusByIdAndVersion(cardId, "blocked", card.getVersion());
+            verify(cardValidator, never()).getCardOrThrow_LockWrite(any(UUID.class));
+        }
+        @Test
+        public void updateCardsTransactionLimitPerDayById_alwaysConflicting_shouldThrowConflictException(){
+            BigDecimal newLimit = BigDecimal.valueOf(1000);
+            Card card = modelMapper.map(userCardDto, Card.class);
+            when(cardValidator.getCardOrThrow(cardId)).thenReturn(card);
+            when(cardRepository.updateTransactionLimitPerDayByIdAndVersion(cardId, newLimit, card.getVersion()))
+                    .thenReturn(0);
+
+            assertThrows(ConflictException.class,
+                    () -> cardService.updateCardsTransactionLimitPerDayById(cardId, newLimit));
+            verify(cardRepository, times(3)).updateTransactionLimitPerDayByIdAndVersion(cardId, newLimit, card.getVersion());
+        }
+    }
+
     @Nested
     class deleteCardById{
 
@@ -270,4 +388,9 @@ class CardServiceImplTest {
             assertEquals(1, cardService.findAllByOwnerId(userId, pageable).getTotalElements());
         }
     }
-}
\ No newline at end of file
+
+    private CardLockingExecutor cardLockingExecutor(CardLockMode lockMode){
+        return new CardLockingExecutor(mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                lockMode, lockMode, 3, 0.2);
+    }
+}
@@ -0,0 +1,139 @@
+package com.api.service;
+
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.dto.PaymentResultDto;
+import com.api.exception.BadRequestException;
+import com.api.exception.ServerException;
+import com.api.service.executor.GroupCommitTransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class GroupCommitTransferDispatcherTest {
+
+    private static final BigDecimal INVALID_AMOUNT = new BigDecimal("13.00");
+
+    private GroupCommitTransferDispatcher dispatcher;
+    private SimpleMeterRegistry meterRegistry;
+    @Mock
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // a payment of 13.00 fails validation, the others succeed
+        when(transactionService.makeTransactions(anyList())).thenAnswer(invocation -> {
+            List<PaymentDto> payments = invocation.getArgument(0);
+            List<PaymentResultDto> results = new ArrayList<>();
+            for (int i = 0; i < payments.size(); i++) {
+                results.add(INVALID_AMOUNT.compareTo(payments.get(i).getAmount()) == 0
+                        ? PaymentResultDto.failure(i, "Insufficient funds")
+                        : PaymentResultDto.success(i, UUID.randomUUID()));
+            }
+            long failed = results.stream().filter(result -> !result.isSuccess()).count();
+            return BatchPaymentResultDto.builder()
+                    .succeeded((int) (payments.size() - failed)).failed((int) failed).results(results).build();
+        });
+        dispatcher = new GroupCommitTransferDispatcher(transactionService, mock(PlatformTransactionManager.class),
+                meterRegistry, 50, 200, 100, "entity");
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    void concurrentTransfers_areCommittedTogether_andFailuresStayIsolated() throws Exception {
+        int callers = 10;
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            BigDecimal amount = i == 3 ? INVALID_AMOUNT : BigDecimal.TEN;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                dispatcher.dispatch(UUID.randomUUID(), UUID.randomUUID(), amount);
+                return null;
+            }));
+        }
+        start.countDown();
+
+        int failed = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertInstanceOf(BadRequestException.class, e.getCause());
+                assertEquals("Insufficient funds", e.getCause().getMessage());
+                failed++;
+            }
+        }
+        executorService.shutdown();
+
+        assertEquals(1, failed);
+        double batches = meterRegistry.summary("transaction.group_commit.batch.size").count();
+        assertEquals(callers, meterRegistry.summary("transaction.group_commit.batch.size").totalAmount());
+        assertTrue(batches < callers, "transfers should share batches, batches: " + batches);
+        verify(transactionService, never()).makeTransaction(any(), any(), any(), any());
+    }
+
+    @Test
+    void failedBatch_isRetriedOneByOne(){
+        when(transactionService.makeTransactions(anyList())).thenThrow(new RuntimeException("connection is lost"));
+        UUID sourceCardId = UUID.randomUUID();
+        UUID destinationCardId = UUID.randomUUID();
+
+        dispatcher.dispatch(sourceCardId, destinationCardId, BigDecimal.TEN);
+
+        verify(transactionService).makeTransaction(sourceCardId, destinationCardId, new BigDecimal("10.00"), null);
+    }
+
+    @Test
+    void workInTransaction_runsOnlyForMadeTransfers(){
+        AtomicInteger completed = new AtomicInteger();
+
+        dispatcher.dispatch(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN, completed::incrementAndGet);
+        assertThrows(BadRequestException.class, () -> dispatcher.dispatch(
+                UUID.randomUUID(), UUID.randomUUID(), INVALID_AMOUNT, completed::incrementAndGet));
+
+        assertEquals(1, completed.get());
+    }
+
+    @Test
+    void stoppedDispatcher_shouldRejectTransfers() throws InterruptedException {
+        dispatcher.stop();
+
+        assertThrows(ServerException.class,
+                () -> dispatcher.dispatch(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN));
+    }
+
+    @Test
+    void ledgerExecutor_shouldBeRejected(){
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitTransferDispatcher(transactionService,
+                mock(PlatformTransactionManager.class), meterRegistry, 50, 200, 100, "ledger"));
+    }
+}
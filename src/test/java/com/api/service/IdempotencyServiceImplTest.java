@@ -0,0 +1,141 @@
+package com.api.service;
+
+import com.api.config.enums.IdempotencyStatus;
+import com.api.dto.PaymentDto;
+import com.api.entity.IdempotencyRecord;
+import com.api.entity.IdempotencyRecordId;
+import com.api.exception.BadRequestException;
+import com.api.exception.ConflictException;
+import com.api.exception.ServerException;
+import com.api.exception.TransferNotMadeException;
+import com.api.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+
+    private IdempotencyServiceImpl idempotencyService;
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private PaymentDto paymentDto;
+    private AtomicInteger transfers;
+    private Consumer<Runnable> transfer;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, 100, 24);
+        paymentDto = new PaymentDto(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("10.00"));
+        transfers = new AtomicInteger();
+        transfer = inTransaction -> {
+            transfers.incrementAndGet();
+            if (inTransaction != null) {
+                inTransaction.run();
+            }
+        };
+    }
+
+    @Test
+    void noKey_shouldRunTransferWithoutStore(){
+        idempotencyService.executeOnce(null, paymentDto, transfer);
+
+        assertEquals(1, transfers.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void newKey_shouldRunTransferOnce_andReplayFromCache(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(1);
+
+        idempotencyService.executeOnce("key-1", paymentDto, transfer);
+        idempotencyService.executeOnce("key-1", paymentDto, transfer);
+
+        assertEquals(1, transfers.get());
+        verify(idempotencyRecordRepository, times(1)).insertPending(any(), eq("key-1"), any(), any(), any());
+        verify(idempotencyRecordRepository).markCompleted(paymentDto.getSourceCardId(), "key-1");
+    }
+
+    @Test
+    void storedCompletedKey_shouldNotRunTransfer(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.of(record(IdempotencyStatus.completed)));
+
+        idempotencyService.executeOnce("key-1", paymentDto, transfer);
+
+        assertEquals(0, transfers.get());
+    }
+
+    @Test
+    void pendingKey_shouldThrowConflict(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.of(record(IdempotencyStatus.pending)));
+
+        assertThrows(ConflictException.class, () -> idempotencyService.executeOnce("key-1", paymentDto, transfer));
+        assertEquals(0, transfers.get());
+    }
+
+    @Test
+    void keyOfAnotherPayment_shouldThrowBadRequest(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.of(record(IdempotencyStatus.completed)));
+        PaymentDto anotherPayment = new PaymentDto(paymentDto.getSourceCardId(), paymentDto.getDestinationCardId(),
+                new BigDecimal("11.00"));
+
+        assertThrows(BadRequestException.class, () -> idempotencyService.executeOnce("key-1", anotherPayment, transfer));
+    }
+
+    @Test
+    void failedTransfer_shouldReleaseKey(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(BadRequestException.class, () -> idempotencyService.executeOnce("key-1", paymentDto, inTransaction -> {
+            throw new BadRequestException("Insufficient funds");
+        }));
+
+        verify(idempotencyRecordRepository).deleteKey(paymentDto.getSourceCardId(), "key-1");
+        verify(idempotencyRecordRepository, never()).markCompleted(any(), anyString());
+    }
+
+    @Test
+    void transferNotMade_shouldReleaseKey(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(TransferNotMadeException.class, () -> idempotencyService.executeOnce("key-1", paymentDto, inTransaction -> {
+            throw new TransferNotMadeException("Too many transfers in progress, try again later");
+        }));
+
+        verify(idempotencyRecordRepository).deleteKey(paymentDto.getSourceCardId(), "key-1");
+    }
+
+    @Test
+    void interruptedTransfer_shouldKeepKeyPending(){
+        when(idempotencyRecordRepository.insertPending(any(), anyString(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(ServerException.class, () -> idempotencyService.executeOnce("key-1", paymentDto, inTransaction -> {
+            throw new ServerException("Interrupted while waiting for the transfer result");
+        }));
+
+        verify(idempotencyRecordRepository, never()).deleteKey(any(), anyString());
+        verify(idempotencyRecordRepository, never()).markCompleted(any(), anyString());
+    }
+
+    private IdempotencyRecord record(IdempotencyStatus status) {
+        return new IdempotencyRecord(new IdempotencyRecordId(paymentDto.getSourceCardId(), "key-1"),
+                paymentDto.getDestinationCardId(), paymentDto.getAmount(), status, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,98 @@
+package com.api.service;
+
+import com.api.exception.BadRequestException;
+import com.api.service.executor.ShardedTransferDispatcher;
+import com.api.service.interfaces.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+class ShardedTransferDispatcherTest {
+
+    private static final int SHARDS = 4;
+
+    private ShardedTransferDispatcher dispatcher;
+    private SimpleMeterRegistry meterRegistry;
+    @Mock
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new ShardedTransferDispatcher(transactionService, meterRegistry, SHARDS, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    void transfersOfSameSourceCard_areNeverConcurrent() throws Exception {
+        List<UUID> cards = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        doAnswer(invocation -> {
+            AtomicInteger counter = inFlight.computeIfAbsent(invocation.getArgument(0), id -> new AtomicInteger());
+            if (counter.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.sleep(1);
+            counter.decrementAndGet();
+            return null;
+        }).when(transactionService).makeTransaction(any(), any(), any(), any());
+
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            UUID sourceCardId = cards.get(i % cards.size());
+            futures.add(callers.submit(() -> dispatcher.dispatch(sourceCardId, UUID.randomUUID(), BigDecimal.TEN)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        callers.shutdown();
+
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void transferFailure_isRethrownToCaller(){
+        UUID sourceCardId = UUID.randomUUID();
+        doThrow(new BadRequestException("Insufficient funds"))
+                .when(transactionService).makeTransaction(eq(sourceCardId), any(), any(), any());
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> dispatcher.dispatch(sourceCardId, UUID.randomUUID(), BigDecimal.TEN));
+        assertEquals("Insufficient funds", e.getMessage());
+    }
+
+    @Test
+    void queueDepth_isRegisteredPerShard(){
+        for (int i = 0; i < SHARDS; i++) {
+            assertNotNull(meterRegistry.find("transaction.shard.queue.depth").tag("shard", String.valueOf(i)).gauge());
+        }
+        UUID cardId = UUID.randomUUID();
+        assertEquals(dispatcher.shardOf(cardId), dispatcher.shardOf(cardId));
+    }
+}
@@ -0,0 +1,62 @@
+package com.api.service;
+
+import com.api.service.TransactionPartitionServiceImpl.Partition;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionPartitionServiceImplTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2025, 3);
+
+    @Test
+    void parsePartition_readsRangeBounds() {
+        Partition partition = TransactionPartitionServiceImpl.parsePartition("transactions_p202503",
+                "FOR VALUES FROM ('2025-03-01 00:00:00') TO ('2025-04-01 00:00:00')");
+
+        assertEquals("transactions_p202503", partition.name());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), partition.from());
+        assertEquals(LocalDateTime.of(2025, 4, 1, 0, 0), partition.to());
+    }
+
+    @Test
+    void parsePartition_minValueIsOpen_defaultIsSkipped() {
+        Partition legacy = TransactionPartitionServiceImpl.parsePartition("transactions_legacy",
+                "FOR VALUES FROM (MINVALUE) TO ('2025-03-01 00:00:00')");
+
+        assertNull(legacy.from());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), legacy.to());
+        assertNull(TransactionPartitionServiceImpl.parsePartition("transactions_default", "DEFAULT"));
+    }
+
+    @Test
+    void monthsToCreate_skipsCoveredMonths() {
+        List<Partition> partitions = List.of(
+                new Partition("transactions_legacy", null, LocalDateTime.of(2025, 4, 1, 0, 0)),
+                new Partition("transactions_p202505", LocalDateTime.of(2025, 5, 1, 0, 0),
+                        LocalDateTime.of(2025, 6, 1, 0, 0)));
+
+        assertEquals(List.of(YearMonth.of(2025, 4), YearMonth.of(2025, 6)),
+                TransactionPartitionServiceImpl.monthsToCreate(partitions, CURRENT, 3));
+    }
+
+    @Test
+    void partitionsToDetach_keepsRetainedMonths() {
+        Partition legacy = new Partition("transactions_legacy", null, LocalDateTime.of(2024, 12, 1, 0, 0));
+        Partition december = new Partition("transactions_p202412", LocalDateTime.of(2024, 12, 1, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0));
+        Partition january = new Partition("transactions_p202501", LocalDateTime.of(2025, 1, 1, 0, 0),
+                LocalDateTime.of(2025, 2, 1, 0, 0));
+
+        assertEquals(List.of(legacy, december),
+                TransactionPartitionServiceImpl.partitionsToDetach(List.of(legacy, december, january), CURRENT, 2));
+    }
+
+    @Test
+    void partitionName_isYearAndMonth() {
+        assertEquals("transactions_p202503", TransactionPartitionServiceImpl.partitionName(CURRENT));
+    }
+}
@@ -1,17 +1,32 @@
 package com.api.service;
 
+import com.api.config.enums.CardLockMode;
 import com.api.config.enums.CardStatus;
 import com.api.config.enums.Role;
 import com.api.dto.CardDto;
+import com.api.dto.SeekPageDto;
 import com.api.dto.TransactionDto;
 import com.api.dto.TransactionDtoNoId;
 import com.api.dto.UserDto;
 import com.api.entity.Card;
 import com.api.entity.Transaction;
 import com.api.exception.BadRequestException;
+import com.api.exception.TransferNotMadeException;
+import com.api.mapper.CardMapperImpl;
+import com.api.mapper.CardNumberMapper;
+import com.api.mapper.TransactionMapperImpl;
+import com.api.mapper.UserMapperImpl;
+import com.api.repository.TransactionArchiveRepository;
 import com.api.repository.TransactionRepository;
+import com.api.service.executor.CardLockingExecutor;
 import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.DailySpendService;
 import com.api.service.validation.TransactionValidator;
+import com.api.util.BlindIndex;
+import com.api.util.EncryptionUtil;
+import com.api.util.Money;
+import com.api.util.TransferMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -19,12 +34,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @Slf4j
@@ -34,10 +55,15 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+    @Mock
     private InternalTransactionExecutor internalTransactionExecutor;
     @Mock
     private TransactionValidator transactionValidator;
+    @Mock
+    private DailySpendService dailySpendService;
     private ModelMapper modelMapper;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private UUID transactionId;
     private TransactionDto transactionDto;
@@ -56,9 +82,15 @@ class TransactionServiceImplTest {
         modelMapper = new ModelMapper(); // basic ModelMapper for less coding but without ours ModelMapper config
         transactionService = new TransactionServiceImpl(
                 transactionRepository,
-                modelMapper,
+                new TransactionMapperImpl(
+                        new CardMapperImpl(new UserMapperImpl(), new CardNumberMapper(mock(EncryptionUtil.class), mock(BlindIndex.class)))),
                 internalTransactionExecutor,
-                transactionValidator);
+                transactionValidator,
+                dailySpendService,
+                new CardLockingExecutor(mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                        CardLockMode.pessimistic, CardLockMode.pessimistic, 5, 0.2),
+                new TransferMetrics(meterRegistry, true, false),
+                transactionArchiveRepository);
         transactionId = UUID.randomUUID();
         sourceCardId = UUID.randomUUID();
         destinationCardId = UUID.randomUUID();
@@ -119,6 +151,14 @@ class TransactionServiceImplTest {
             transactionService.addTransaction(modelMapper.map(transactionDto, TransactionDtoNoId.class));
             verify(transactionRepository).save(any(Transaction.class));
         }
+
+        @Test
+        public void shouldRegisterSourceCardExpense(){
+            when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+            transactionService.addTransaction(modelMapper.map(transactionDto, TransactionDtoNoId.class));
+            verify(dailySpendService).registerExpense(
+                    sourceCardId, transaction.getLocalDateTime().toLocalDate(), Money.toMinor(transaction.getAmount()));
+        }
     }
 
     @Nested
@@ -140,6 +180,13 @@ class TransactionServiceImplTest {
             transactionService.deleteTransactionById(transactionId);
             verify(transactionRepository).deleteById(transactionId);
         }
+
+        @Test
+        public void shouldReconcileSourceCardExpenses(){
+            when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(transaction));
+            transactionService.deleteTransactionById(transactionId);
+            verify(dailySpendService).reconcileCard(sourceCardId, transaction.getLocalDateTime().toLocalDate());
+        }
     }
 
     @Nested
@@ -151,31 +198,124 @@ class TransactionServiceImplTest {
             Card destinationCard = modelMapper.map(destinationCardDto, Card.class);
             TransactionValidator.SourceAndDestinationCards sourceAndDestinationCards =
                     new TransactionValidator.SourceAndDestinationCards(sourceCard, destinationCard);
-            when(transactionValidator.makeTransaction_validateCardsAndAmount(
-                        eq(sourceCardId),
-                        eq(destinationCardId),
-                    any(BigDecimal.class)))
+            when(transactionValidator.getCardsOrThrow_LockWrite(sourceCardId, destinationCardId))
                 .thenReturn(sourceAndDestinationCards);
             doNothing().when(internalTransactionExecutor).performTransaction(
                     sourceCard,
                     destinationCard,
-                    transactionDto.getAmount());
+                    Money.toMinor(transactionDto.getAmount()));
+
+            transactionService.makeTransaction(sourceCardId, destinationCardId, transactionDto.getAmount());
+
+            verify(transactionValidator).validateCardsAndAmount(
+                    sourceAndDestinationCards, Money.toMinor(transactionDto.getAmount()));
+            verify(internalTransactionExecutor).performTransaction(sourceCard,destinationCard,Money.toMinor(transactionDto.getAmount()));
+        }
+
+        @Test
+        public void guardedExecutor_shouldReadTheCardsWithoutLock(){
+            TransactionValidator.SourceAndDestinationCards sourceAndDestinationCards =
+                    new TransactionValidator.SourceAndDestinationCards(
+                            modelMapper.map(sourceCardDto, Card.class), modelMapper.map(destinationCardDto, Card.class));
+            when(internalTransactionExecutor.guardsTransfer()).thenReturn(true);
+            when(transactionValidator.getCardsOrThrow(sourceCardId, destinationCardId)).thenReturn(sourceAndDestinationCards);
 
             transactionService.makeTransaction(sourceCardId, destinationCardId, transactionDto.getAmount());
 
-            verify(internalTransactionExecutor).performTransaction(sourceCard,destinationCard,transactionDto.getAmount());
+            verify(transactionValidator, never()).getCardsOrThrow_LockWrite(any(), any());
+            verify(transactionValidator).validateCardsAndAmount(
+                    sourceAndDestinationCards, Money.toMinor(transactionDto.getAmount()));
         }
 
         @Test
         public void failure_MockValidatorThrowsException(){
-            when(transactionValidator.makeTransaction_validateCardsAndAmount(
-                    eq(sourceCardId),
-                    eq(destinationCardId),
-                    any(BigDecimal.class)))
-                    .thenThrow(new BadRequestException("Bad request exception message"));
+            when(transactionValidator.getCardsOrThrow_LockWrite(sourceCardId, destinationCardId))
+                    .thenReturn(new TransactionValidator.SourceAndDestinationCards(
+                            modelMapper.map(sourceCardDto, Card.class), modelMapper.map(destinationCardDto, Card.class)));
+            doThrow(new BadRequestException("Bad request exception message"))
+                    .when(transactionValidator).validateCardsAndAmount(any(), anyLong());
 
             assertThrows(BadRequestException.class,
                     () -> transactionService.makeTransaction(sourceCardId, destinationCardId, transactionDto.getAmount()));
         }
+
+        @Test
+        public void lockTimeout_shouldThrowTransferNotMade(){
+            when(transactionValidator.getCardsOrThrow_LockWrite(sourceCardId, destinationCardId))
+                    .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+            assertThrows(TransferNotMadeException.class,
+                    () -> transactionService.makeTransaction(sourceCardId, destinationCardId, transactionDto.getAmount()));
+        }
+
+        @Test
+        public void recordsTotalPhaseTaggedByOutcome(){
+            when(transactionValidator.getCardsOrThrow_LockWrite(sourceCardId, destinationCardId))
+                    .thenReturn(new TransactionValidator.SourceAndDestinationCards(
+                            modelMapper.map(sourceCardDto, Card.class), modelMapper.map(destinationCardDto, Card.class)));
+            doThrow(new BadRequestException(TransactionValidator.INSUFFICIENT_FUNDS))
+                    .when(transactionValidator).validateCardsAndAmount(any(), anyLong());
+
+            assertThrows(BadRequestException.class,
+                    () -> transactionService.makeTransaction(sourceCardId, destinationCardId, transactionDto.getAmount()));
+
+            assertEquals(1, meterRegistry.get("transaction.transfer.phase")
+                    .tags("phase", "total", "outcome", "insufficient_funds").timer().count());
+            assertNull(meterRegistry.find("transaction.transfer.phase").tags("outcome", "success").timer());
+        }
+    }
+
+    @Nested
+    class findAllByCardIdSeek {
+
+        private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        private Transaction transactionAt(LocalDateTime localDateTime) {
+            Transaction transaction = new Transaction();
+            transaction.setId(UUID.randomUUID());
+            transaction.setLocalDateTime(localDateTime);
+            transaction.setAmount(BigDecimal.ONE);
+            return transaction;
+        }
+
+        @Test
+        public void fullPageNewerThanArchive_doesNotReadArchive(){
+            List<Transaction> hot = List.of(transactionAt(now), transactionAt(now.minusDays(1)), transactionAt(now.minusDays(2)));
+            when(transactionRepository.findAllByCardIdSeekFirst(sourceCardId, 3)).thenReturn(hot);
+            when(transactionArchiveRepository.findNewestLocalDateTime()).thenReturn(now.minusYears(1));
+
+            SeekPageDto<TransactionDto> page = transactionService.findAllByCardId(sourceCardId, null, 2);
+
+            assertEquals(2, page.getContent().size());
+            assertNotNull(page.getNextCursor());
+            verify(transactionArchiveRepository, never()).findAllByCardIdSeekFirst(any(), anyInt());
+        }
+
+        @Test
+        public void pageReachingArchive_mergesArchivedTransactions(){
+            Transaction recent = transactionAt(now);
+            Transaction archived = transactionAt(now.minusYears(2));
+            Transaction older = transactionAt(now.minusYears(3));
+            when(transactionRepository.findAllByCardIdSeekFirst(sourceCardId, 3)).thenReturn(List.of(recent));
+            when(transactionArchiveRepository.findNewestLocalDateTime()).thenReturn(archived.getLocalDateTime());
+            when(transactionArchiveRepository.findAllByCardIdSeekFirst(sourceCardId, 3)).thenReturn(List.of(archived, older));
+
+            SeekPageDto<TransactionDto> page = transactionService.findAllByCardId(sourceCardId, null, 2);
+
+            assertEquals(List.of(recent.getId(), archived.getId()),
+                    page.getContent().stream().map(TransactionDto::getId).toList());
+            assertNotNull(page.getNextCursor());
+        }
+
+        @Test
+        public void emptyArchive_lastPageHasNoCursor(){
+            when(transactionRepository.findAllByCardIdSeekFirst(sourceCardId, 3)).thenReturn(List.of(transactionAt(now)));
+            when(transactionArchiveRepository.findNewestLocalDateTime()).thenReturn(null);
+
+            SeekPageDto<TransactionDto> page = transactionService.findAllByCardId(sourceCardId, null, 2);
+
+            assertEquals(1, page.getContent().size());
+            assertNull(page.getNextCursor());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.api.service.it;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.interfaces.DailySpendService;
+import com.api.service.interfaces.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BatchTransaction_IT {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private DailySpendService dailySpendService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private Card destination;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("batch user")
+                .email("batch-transaction-it@gmail.com")
+                .password("batch123user")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("100.00"), new BigDecimal("1000.00")));
+        destination = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("0.00"), new BigDecimal("1000.00")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id IN (?, ?)",
+                source.getId(), destination.getId());
+        cardRepository.deleteAllById(List.of(source.getId(), destination.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void makeTransactions_failedPaymentsDoNotAffectOthers() {
+        BatchPaymentResultDto result = transactionService.makeTransactions(List.of(
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("30.00")),
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("50.00")),
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("40.00")), // only 20 left
+                new PaymentDto(source.getId(), UUID.randomUUID(), new BigDecimal("1.00")),    // no such card
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("20.00"))));
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertNotNull(result.getResults().get(0).getTransactionId());
+        assertEquals("Insufficient funds", result.getResults().get(2).getMessage());
+        assertEquals("There is no such destination card", result.getResults().get(3).getMessage());
+        assertTrue(result.getResults().get(4).isSuccess());
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(cardRepository.findById(source.getId()).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(
+                cardRepository.findById(destination.getId()).orElseThrow().getBalance()));
+        assertEquals(10_000, dailySpendService.getExpenses(source.getId(), LocalDate.now()));
+    }
+}
@@ -0,0 +1,187 @@
+package com.api.service.it;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.exception.BadRequestException;
+import com.api.repository.CardRepository;
+import com.api.repository.TransactionRepository;
+import com.api.repository.UserRepository;
+import com.api.service.executor.ConditionalTransactionExecutorImpl;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.TransactionService;
+import com.api.service.validation.TransactionValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "transaction.executor.mode=conditional",
+        "card.locking.transfer=pessimistic",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.api.service.it.SqlRecorder"})
+class ConditionalTransactionExecutor_IT {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 20;
+    private static final BigDecimal SOURCE_BALANCE = new BigDecimal("50.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private InternalTransactionExecutor internalTransactionExecutor;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private Card source;
+    private List<Card> destinations;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("conditional executor user")
+                .email("conditional-executor-it@gmail.com")
+                .password("conditional123")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(newCard(SOURCE_BALANCE));
+        destinations = cardRepository.saveAll(List.of(
+                newCard(BigDecimal.ZERO), newCard(BigDecimal.ZERO), newCard(BigDecimal.ZERO)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id = ?", source.getId());
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".card_daily_spend WHERE card_id = ?", source.getId());
+        cardRepository.deleteAllById(destinations.stream().map(Card::getId).toList());
+        cardRepository.deleteById(source.getId());
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void conditionalExecutorIsSelected() {
+        assertInstanceOf(ConditionalTransactionExecutorImpl.class, internalTransactionExecutor);
+    }
+
+    @Test
+    void transfer_doesNotLockTheCardsBeforeTheGuardedStatement() {
+        SqlRecorder.clear();
+
+        transactionService.makeTransaction(source.getId(), destinations.get(0).getId(), BigDecimal.ONE);
+
+        List<String> statements = SqlRecorder.statements();
+        assertTrue(statements.stream().anyMatch(sql -> sql.contains("WITH debit AS")), statements.toString());
+        assertTrue(statements.stream().map(String::toLowerCase).noneMatch(sql -> sql.contains(" for update")
+                || sql.contains(" for no key update") || sql.contains(" for share")), statements.toString());
+        assertEquals(0, new BigDecimal("49.00").compareTo(cardRepository.findById(source.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void transferOverDailyLimit_isRejectedByTheGuardedStatement() {
+        jdbcTemplate.update("UPDATE \"bank_cards_management\".cards SET transaction_limit_per_day = 150.00 WHERE id = ?",
+                source.getId());
+        jdbcTemplate.update("UPDATE \"bank_cards_management\".cards SET balance = 1000.00 WHERE id = ?", source.getId());
+        transactionService.makeTransaction(source.getId(), destinations.get(0).getId(), new BigDecimal("100.00"));
+
+        // the statement alone, without the validation run before it
+        TransactionRepository.GuardedTransfer transfer = new TransactionTemplate(transactionManager).execute(status -> {
+            status.setRollbackOnly();
+            return transactionRepository.transferIfSufficientFunds(UUID.randomUUID(), source.getId(),
+                    destinations.get(0).getId(), LocalDateTime.now(), new BigDecimal("60.00"));
+        });
+
+        assertTrue(transfer.isDebited());
+        assertFalse(transfer.isSpent());
+        assertNull(transfer.getId());
+        BadRequestException e = assertThrows(BadRequestException.class, () ->
+                transactionService.makeTransaction(source.getId(), destinations.get(0).getId(), new BigDecimal("60.00")));
+        assertTrue(e.getMessage().startsWith(TransactionValidator.DAILY_LIMIT_EXCEEDED), e.getMessage());
+        assertEquals(0, new BigDecimal("900.00").compareTo(cardRepository.findById(source.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void transferOverBalance_isRejectedAsInsufficientFunds() {
+        // the statement alone, without the validation run before it
+        TransactionRepository.GuardedTransfer transfer = new TransactionTemplate(transactionManager).execute(status -> {
+            status.setRollbackOnly();
+            return transactionRepository.transferIfSufficientFunds(UUID.randomUUID(), source.getId(),
+                    destinations.get(0).getId(), LocalDateTime.now(), SOURCE_BALANCE.add(BigDecimal.ONE));
+        });
+
+        assertFalse(transfer.isDebited());
+        assertTrue(transfer.isActive());
+        assertNull(transfer.getId());
+    }
+
+    @Test
+    void parallelTransfers_balanceNeverGoesNegative() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Card destination = destinations.get(t % destinations.size());
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    try {
+                        transactionService.makeTransaction(source.getId(), destination.getId(), BigDecimal.ONE);
+                        succeeded.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        BigDecimal sourceBalance = cardRepository.findById(source.getId()).orElseThrow().getBalance();
+        BigDecimal destinationsBalance = destinations.stream()
+                .map(card -> cardRepository.findById(card.getId()).orElseThrow().getBalance())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Integer transactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"bank_cards_management\".transactions WHERE source_card_id = ?",
+                Integer.class, source.getId());
+
+        assertTrue(sourceBalance.signum() >= 0, "source balance went negative: " + sourceBalance);
+        assertEquals(0, sourceBalance.compareTo(BigDecimal.ZERO));
+        assertEquals(SOURCE_BALANCE.intValue(), succeeded.get());
+        assertEquals(THREADS * TRANSFERS_PER_THREAD - SOURCE_BALANCE.intValue(), rejected.get());
+        assertEquals(0, SOURCE_BALANCE.compareTo(sourceBalance.add(destinationsBalance)));
+        assertEquals(succeeded.get(), transactions);
+    }
+
+    private Card newCard(BigDecimal balance) {
+        return new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, balance, new BigDecimal("100000.00"));
+    }
+}
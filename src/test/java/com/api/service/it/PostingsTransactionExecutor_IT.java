@@ -0,0 +1,189 @@
+package com.api.service.it;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.BatchPaymentResultDto;
+import com.api.dto.PaymentDto;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.exception.BadRequestException;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.executor.PostingsTransactionExecutorImpl;
+import com.api.service.executor.interfaces.InternalTransactionExecutor;
+import com.api.service.interfaces.PostingService;
+import com.api.service.interfaces.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "transaction.executor.mode=postings")
+class PostingsTransactionExecutor_IT {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 20;
+    private static final BigDecimal SOURCE_BALANCE = new BigDecimal("50.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private InternalTransactionExecutor internalTransactionExecutor;
+    @Autowired
+    private PostingService postingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private List<Card> destinations;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("postings executor user")
+                .email("postings-executor-it@gmail.com")
+                .password("postings123")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(newCard(SOURCE_BALANCE));
+        destinations = cardRepository.saveAll(List.of(
+                newCard(BigDecimal.ZERO), newCard(BigDecimal.ZERO), newCard(BigDecimal.ZERO)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id = ?", source.getId());
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions_archive WHERE source_card_id = ?",
+                source.getId());
+        cardRepository.deleteAllById(destinations.stream().map(Card::getId).toList());
+        cardRepository.deleteById(source.getId());
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void postingsExecutorIsSelected() {
+        assertInstanceOf(PostingsTransactionExecutorImpl.class, internalTransactionExecutor);
+    }
+
+    @Test
+    void parallelTransfers_withConcurrentCompaction_loseNoPosting() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean transfersRunning = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        Future<?> compactor = pool.submit(() -> {
+            while (transfersRunning.get()) {
+                postingService.compact();
+            }
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Card destination = destinations.get(t % destinations.size());
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    try {
+                        transactionService.makeTransaction(source.getId(), destination.getId(), BigDecimal.ONE);
+                        succeeded.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        transfersRunning.set(false);
+        compactor.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(SOURCE_BALANCE.intValue(), succeeded.get());
+        assertEquals(THREADS * TRANSFERS_PER_THREAD - SOURCE_BALANCE.intValue(), rejected.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(postingService.getBalance(source.getId())));
+        BigDecimal destinationsBalance = destinations.stream()
+                .map(card -> postingService.getBalance(card.getId()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, SOURCE_BALANCE.compareTo(destinationsBalance));
+
+        // the last compaction brings the card rows up to date
+        postingService.compact();
+        assertEquals(0, BigDecimal.ZERO.compareTo(cardRepository.findById(source.getId()).orElseThrow().getBalance()));
+        assertTrue(postingService.checkConsistency(10).isEmpty());
+    }
+
+    @Test
+    void transfer_isInsertOnly_untilCompaction() {
+        Card destination = destinations.get(0);
+        long versionBefore = cardRepository.findById(source.getId()).orElseThrow().getVersion();
+
+        transactionService.makeTransaction(source.getId(), destination.getId(), new BigDecimal("20.00"));
+
+        Card sourceRow = cardRepository.findById(source.getId()).orElseThrow();
+        assertEquals(versionBefore, sourceRow.getVersion());
+        assertEquals(0, SOURCE_BALANCE.compareTo(sourceRow.getBalance()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(postingService.getBalance(source.getId())));
+        assertEquals(0, new BigDecimal("20.00").compareTo(postingService.getBalance(destination.getId())));
+        assertThrows(BadRequestException.class, () ->
+                transactionService.makeTransaction(source.getId(), destination.getId(), new BigDecimal("30.01")));
+    }
+
+    @Test
+    void batch_withRejectedPayment_keepsTheOtherPayments() {
+        Card destination = destinations.get(0);
+
+        BatchPaymentResultDto result = transactionService.makeTransactions(List.of(
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("20.00")),
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("40.00")),
+                new PaymentDto(source.getId(), destination.getId(), new BigDecimal("10.00"))));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertFalse(result.getResults().get(1).isSuccess());
+        assertEquals(0, new BigDecimal("20.00").compareTo(postingService.getBalance(source.getId())));
+        assertEquals(0, new BigDecimal("30.00").compareTo(postingService.getBalance(destination.getId())));
+        assertTrue(postingService.checkConsistency(10).isEmpty());
+    }
+
+    @Test
+    void archivedTransfer_isStillConsistent() {
+        transactionService.makeTransaction(source.getId(), destinations.get(0).getId(), new BigDecimal("20.00"));
+        // moved like TransactionArchiveRepository#archiveBatch does, the postings stay
+        jdbcTemplate.update("""
+                WITH moved AS (
+                    DELETE FROM "bank_cards_management".transactions WHERE source_card_id = ?
+                    RETURNING id, source_card_id, destination_card_id, local_date_time, amount
+                )
+                INSERT INTO "bank_cards_management".transactions_archive
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                SELECT id, source_card_id, destination_card_id, local_date_time, amount FROM moved
+                """, source.getId());
+
+        assertTrue(postingService.checkConsistency(10).isEmpty());
+    }
+
+    private Card newCard(BigDecimal balance) {
+        return new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, balance, new BigDecimal("100000.00"));
+    }
+}
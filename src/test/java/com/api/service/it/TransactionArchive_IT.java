@@ -0,0 +1,149 @@
+package com.api.service.it;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.dto.SeekPageDto;
+import com.api.dto.TransactionDto;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.interfaces.TransactionArchiveService;
+import com.api.service.interfaces.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The horizon is far in the past, so only the transactions seeded by the test are archived.
+ */
+@SpringBootTest(properties = {
+        "transaction.archive.enabled=true",
+        "transaction.archive.horizon-days=10950",
+        "transaction.archive.batch-size=7",
+        "transaction.archive.pause-ms=0"
+})
+class TransactionArchive_IT {
+
+    private static final int RECENT = 10;
+    private static final int OLD = 10;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card source;
+    private Card destination;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("archive user")
+                .email("transaction-archive-it@gmail.com")
+                .password("archive123user")
+                .role(Role.USER)
+                .build());
+        source = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("100.00"), new BigDecimal("1000.00")));
+        destination = cardRepository.save(new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, new BigDecimal("0.00"), new BigDecimal("1000.00")));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < RECENT; i++) {
+            insert(now.minusHours(i));
+        }
+        for (int i = 0; i < OLD; i++) {
+            insert(LocalDateTime.of(1985, 1, 1, 0, 0).minusDays(i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("transactions", "transactions_archive")) {
+            jdbcTemplate.update("DELETE FROM \"bank_cards_management\"." + table + " WHERE source_card_id = ?",
+                    source.getId());
+        }
+        cardRepository.deleteAllById(List.of(source.getId(), destination.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void archive_movesOldTransactionsInBatches() {
+        assertEquals(OLD, transactionArchiveService.archive());
+
+        assertEquals(RECENT, count("transactions"));
+        assertEquals(OLD, count("transactions_archive"));
+        assertEquals(0, transactionArchiveService.archive());
+    }
+
+    @Test
+    void cardHistory_continuesIntoArchive() {
+        List<UUID> before = readHistory();
+        transactionArchiveService.archive();
+        List<UUID> after = readHistory();
+
+        assertEquals(RECENT + OLD, after.size());
+        assertEquals(before, after);
+        assertEquals(RECENT + OLD, transactionService.findAllByCardId(destination.getId(), PageRequest.of(0, 3))
+                .getTotalElements());
+    }
+
+    @Test
+    void alreadyArchivedId_failsTheBatch_andKeepsItsTransactions() {
+        UUID id = jdbcTemplate.queryForObject("SELECT id FROM \"bank_cards_management\".transactions"
+                + " WHERE source_card_id = ? ORDER BY local_date_time, id LIMIT 1", UUID.class, source.getId());
+        jdbcTemplate.update("""
+                INSERT INTO "bank_cards_management".transactions_archive
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                VALUES (?, ?, ?, ?, 1.00)
+                """, id, source.getId(), destination.getId(), LocalDateTime.of(1970, 1, 1, 0, 0));
+
+        assertThrows(DataIntegrityViolationException.class, () -> transactionArchiveService.archive());
+
+        assertEquals(RECENT + OLD, count("transactions"));
+        assertEquals(1, count("transactions_archive"));
+    }
+
+    private List<UUID> readHistory() {
+        List<UUID> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            SeekPageDto<TransactionDto> page = transactionService.findAllByCardId(destination.getId(), cursor, 3);
+            page.getContent().forEach(transaction -> ids.add(transaction.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private void insert(LocalDateTime localDateTime) {
+        jdbcTemplate.update("""
+                INSERT INTO "bank_cards_management".transactions
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                VALUES (?, ?, ?, ?, 1.00)
+                """, UUID.randomUUID(), source.getId(), destination.getId(), localDateTime);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM \"bank_cards_management\"." + table
+                + " WHERE source_card_id = ?", Long.class, source.getId());
+    }
+}
@@ -0,0 +1,125 @@
+package com.api.service.it;
+
+import com.api.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the plans of the card history queries on a seeded table large enough for the planner
+ * to prefer a sequential scan when there is no usable index.
+ * The table is partitioned by month: the partitions without seeded rows may be read by a (free) sequential scan,
+ * only the partitions holding the seeded rows are checked.
+ */
+@SpringBootTest
+class TransactionHistoryPlan_IT {
+
+    private static final int USERS = 500;
+    private static final int CARDS_PER_USER = 4;
+    private static final int TRANSACTIONS = 100_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private UUID cardId;
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO "bank_cards_management".users (id, full_name, email, password, role)
+                SELECT gen_random_uuid(), 'plan user', 'plan-it-' || n || '@gmail.com', 'plan-it-' || n, 'USER'
+                FROM generate_series(1, ?) n
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO "bank_cards_management".cards
+                    (id, number, owner_id, expiration_date, status, balance, transaction_limit_per_day)
+                SELECT gen_random_uuid(), u.password || '-' || k, u.id, now() + interval '1 year', 'active', 0, NULL
+                FROM "bank_cards_management".users u, generate_series(1, ?) k
+                WHERE u.email LIKE 'plan-it-%'
+                """, CARDS_PER_USER);
+        // a source never equals its destination: 6n + 1 is odd, so it is never a multiple of the number of cards
+        jdbcTemplate.update("""
+                WITH c AS (SELECT array_agg(id) AS ids, count(*) AS n FROM "bank_cards_management".cards
+                           WHERE number LIKE 'plan-it-%')
+                INSERT INTO "bank_cards_management".transactions
+                    (id, source_card_id, destination_card_id, local_date_time, amount)
+                SELECT gen_random_uuid(), c.ids[1 + (i % c.n)], c.ids[1 + ((7 * i + 1) % c.n)],
+                       now() - i * interval '1 minute', 1.00
+                FROM c, generate_series(1, ?) i
+                """, TRANSACTIONS);
+        jdbcTemplate.execute("ANALYZE \"bank_cards_management\".users");
+        jdbcTemplate.execute("ANALYZE \"bank_cards_management\".cards");
+        jdbcTemplate.execute("ANALYZE \"bank_cards_management\".transactions");
+
+        Map<String, Object> card = jdbcTemplate.queryForMap(
+                "SELECT id, owner_id FROM \"bank_cards_management\".cards WHERE number LIKE 'plan-it-%' LIMIT 1");
+        cardId = (UUID) card.get("id");
+        ownerId = (UUID) card.get("owner_id");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("""
+                DELETE FROM "bank_cards_management".transactions
+                WHERE source_card_id IN (SELECT id FROM "bank_cards_management".cards WHERE number LIKE 'plan-it-%')
+                """);
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".cards WHERE number LIKE 'plan-it-%'");
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".users WHERE email LIKE 'plan-it-%'");
+    }
+
+    @Test
+    void findAllByCardId_mergesIndexScans() {
+        String plan = explain(TransactionRepository.FIND_ALL_BY_CARD_ID + " LIMIT 20 OFFSET 0",
+                Map.of("cardId", cardId));
+
+        assertNoSeqScanOnSeededPartitions(plan);
+        assertTrue(plan.contains("source_card_id_local_date_time"), plan);
+        assertTrue(plan.contains("destination_card_id_local_date_time"), plan);
+    }
+
+    @Test
+    void countAllByCardId_usesIndexes() {
+        String plan = explain(TransactionRepository.COUNT_ALL_BY_CARD_ID, Map.of("cardId", cardId));
+
+        assertNoSeqScanOnSeededPartitions(plan);
+    }
+
+    @Test
+    void findAllByOwnerId_usesIndex() {
+        String plan = explain("SELECT * FROM \"bank_cards_management\".cards WHERE owner_id = :ownerId",
+                Map.of("ownerId", ownerId));
+
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(plan.contains("cards_owner_id_idx"), plan);
+    }
+
+    private void assertNoSeqScanOnSeededPartitions(String plan) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT DISTINCT c.relname
+                FROM "bank_cards_management".transactions t
+                JOIN pg_class c ON c.oid = t.tableoid
+                WHERE t.source_card_id IN (SELECT id FROM "bank_cards_management".cards WHERE number LIKE 'plan-it-%')
+                """, String.class);
+        assertFalse(partitions.isEmpty());
+        for (String partition : partitions) {
+            assertFalse(plan.contains("Seq Scan on " + partition + " "), plan);
+        }
+    }
+
+    private String explain(String sql, Map<String, ?> parameters) {
+        List<String> lines = namedParameterJdbcTemplate.queryForList("EXPLAIN " + sql, parameters, String.class);
+        return String.join("\n", lines);
+    }
+}
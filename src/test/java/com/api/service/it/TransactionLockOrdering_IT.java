@@ -0,0 +1,109 @@
+package com.api.service.it;
+
+import com.api.config.enums.CardStatus;
+import com.api.config.enums.Role;
+import com.api.entity.Card;
+import com.api.entity.User;
+import com.api.repository.CardRepository;
+import com.api.repository.UserRepository;
+import com.api.service.interfaces.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires thousands of criss-cross (A->B, B->A) transfers in parallel.
+ * Any deadlock or lost update makes the test fail: every transfer must succeed and the balance sum must be conserved.
+ */
+@SpringBootTest
+class TransactionLockOrdering_IT {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 250;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card cardA;
+    private Card cardB;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .fullName("lock ordering user")
+                .email("lock-ordering-it@gmail.com")
+                .password("lockordering123")
+                .role(Role.USER)
+                .build());
+        cardA = cardRepository.save(newCard());
+        cardB = cardRepository.save(newCard());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM \"bank_cards_management\".transactions WHERE source_card_id IN (?, ?)",
+                cardA.getId(), cardB.getId());
+        cardRepository.deleteAllById(List.of(cardA.getId(), cardB.getId()));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void crissCrossTransfers_noDeadlockAndBalanceSumIsConserved() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean fromA = t % 2 == 0;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    // alternate direction inside each thread as well
+                    boolean aToB = fromA == (i % 2 == 0);
+                    transactionService.makeTransaction(
+                            aToB ? cardA.getId() : cardB.getId(),
+                            aToB ? cardB.getId() : cardA.getId(),
+                            BigDecimal.valueOf(1 + i % 5));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(); // rethrows any deadlock / lock failure
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        BigDecimal balanceA = cardRepository.findById(cardA.getId()).orElseThrow().getBalance();
+        BigDecimal balanceB = cardRepository.findById(cardB.getId()).orElseThrow().getBalance();
+        Integer transactions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM \"bank_cards_management\".transactions WHERE source_card_id IN (?, ?)",
+                Integer.class, cardA.getId(), cardB.getId());
+
+        assertEquals(0, INITIAL_BALANCE.add(INITIAL_BALANCE).compareTo(balanceA.add(balanceB)));
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, transactions);
+    }
+
+    private Card newCard() {
+        return new Card(UUID.randomUUID().toString(), owner, LocalDateTime.now().plusYears(1),
+                CardStatus.active, INITIAL_BALANCE, new BigDecimal("1000000.00"));
+    }
+}
@@ -0,0 +1,258 @@
+package com.api.service.ledger;
+
+import com.api.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Crash recovery of the ledger: the "database" is an in-memory {@link LedgerProjection}, a crash is simulated
+ * by dropping the engine without stopping it and opening the same log directory again.
+ */
+class LedgerEngineTest {
+
+    private static final int SEGMENT_SIZE = 100 * WriteAheadLog.RECORD_SIZE;
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-01T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDate TODAY = LocalDate.now(CLOCK);
+
+    private final UUID owner = UUID.randomUUID();
+    private final UUID cardA = UUID.randomUUID();
+    private final UUID cardB = UUID.randomUUID();
+    private final UUID otherOwnerCard = UUID.randomUUID();
+    private final UUID blockedCard = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private FakeDatabase database;
+    private WriteAheadLog log;
+
+    @BeforeEach
+    void setUp() {
+        database = new FakeDatabase();
+        database.cards.put(cardA, new LedgerCard(cardA, owner, true, 100_00, 500_00, TODAY, 0));
+        database.cards.put(cardB, new LedgerCard(cardB, owner, true, 0, Long.MAX_VALUE, TODAY, 0));
+        database.cards.put(otherOwnerCard, new LedgerCard(otherOwnerCard, UUID.randomUUID(), true, 0, 0, TODAY, 0));
+        database.cards.put(blockedCard, new LedgerCard(blockedCard, owner, false, 0, 0, TODAY, 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    void transfer_isValidatedLikeTheDatabaseTransfer() throws IOException {
+        LedgerEngine engine = open(new ArrayList<>()::add);
+
+        assertMessage("There is no such source card", () -> engine.transfer(UUID.randomUUID(), cardB, 1));
+        assertMessage("There is no such destination card", () -> engine.transfer(cardA, UUID.randomUUID(), 1));
+        assertMessage("destination card is not active or expired", () -> engine.transfer(cardA, blockedCard, 1));
+        assertMessage("Source and destination card must be different", () -> engine.transfer(cardA, cardA, 1));
+        assertMessage("Only same-owner transactions are allowed", () -> engine.transfer(cardA, otherOwnerCard, 1));
+        assertMessage("Insufficient funds", () -> engine.transfer(cardA, cardB, 100_01));
+
+        engine.transfer(cardA, cardB, 60_00);
+        engine.transfer(cardB, cardA, 60_00);
+        engine.transfer(cardA, cardB, 60_00);
+        // 120.00 of 500.00 spent, 100.00 left on the card
+        assertMessage("Insufficient funds", () -> engine.transfer(cardA, cardB, 100_01));
+        assertEquals(40_00, engine.getBalance(cardA));
+        assertEquals(60_00, engine.getBalance(cardB));
+        assertEquals(120_00, engine.getSpentToday(cardA));
+        assertEquals(3, log.lastSequence());
+    }
+
+    @Test
+    void dailyLimit_isCheckedAgainstTodaysExpenses() throws IOException {
+        database.cards.put(cardA, new LedgerCard(cardA, owner, true, 1000_00, 500_00, TODAY, 450_00));
+        LedgerEngine engine = open(new ArrayList<>()::add);
+
+        assertMessage("Daily limit exceeded: 500.00", () -> engine.transfer(cardA, cardB, 50_01));
+        engine.transfer(cardA, cardB, 50_00);
+        assertEquals(500_00, engine.getSpentToday(cardA));
+    }
+
+    @Test
+    void refreshedCard_getsTheNewStatus() throws IOException {
+        LedgerEngine engine = open(new ArrayList<>()::add);
+        engine.transfer(cardA, cardB, 1_00);
+
+        engine.refreshCard(new LedgerCard(cardB, owner, false, 0, 0, TODAY, 0));
+
+        assertMessage("destination card is not active or expired", () -> engine.transfer(cardA, cardB, 1_00));
+        // the balance is kept by the engine, not taken from the refreshed state
+        assertEquals(1_00, engine.getBalance(cardB));
+    }
+
+    @Test
+    void crashBeforeProjection_replaysAllAcknowledgedTransfers() throws IOException {
+        LedgerEngine engine = open(new ArrayList<>()::add);
+        engine.transfer(cardA, cardB, 10_00);
+        engine.transfer(cardA, cardB, 20_00);
+        engine.transfer(cardB, cardA, 5_00);
+        crash();
+
+        List<LedgerRecord> projected = new ArrayList<>();
+        LedgerEngine recovered = open(projected::add);
+
+        assertEquals(75_00, recovered.getBalance(cardA));
+        assertEquals(25_00, recovered.getBalance(cardB));
+        assertEquals(30_00, recovered.getSpentToday(cardA));
+        // the replayed records are projected again, in order
+        assertEquals(List.of(1L, 2L, 3L), projected.stream().map(LedgerRecord::sequence).toList());
+        recovered.transfer(cardA, cardB, 1_00);
+        assertEquals(4, log.lastSequence());
+    }
+
+    @Test
+    void crashAfterPartialProjection_replaysOnlyTheRecordsAfterTheCheckpoint() throws Exception {
+        Ledger ledger = openWithProjector();
+        ledger.engine().transfer(cardA, cardB, 10_00);
+        ledger.engine().transfer(cardA, cardB, 20_00);
+        ledger.projector().stop();
+        assertEquals(2, database.checkpoint);
+        // not projected: the projector is stopped
+        ledger.engine().transfer(cardA, cardB, 30_00);
+        crash();
+
+        Ledger recoveredLedger = openWithProjector();
+        recoveredLedger.projector().stop();
+        LedgerEngine recovered = recoveredLedger.engine();
+
+        assertEquals(40_00, recovered.getBalance(cardA));
+        assertEquals(60_00, recovered.getBalance(cardB));
+        // the database is the same as the ledger once the replayed record is projected
+        assertEquals(3, database.checkpoint);
+        assertEquals(3, database.projectedTransfers.size());
+        assertEquals(40_00, database.cards.get(cardA).balanceMinor());
+        assertEquals(60_00, database.cards.get(cardB).balanceMinor());
+        assertEquals(60_00, database.cards.get(cardA).spentMinor());
+    }
+
+    @Test
+    void failedProjection_isRetriedWithoutLosingRecords() throws Exception {
+        database.failures = 2;
+        Ledger ledger = openWithProjector();
+        ledger.engine().transfer(cardA, cardB, 10_00);
+        ledger.engine().transfer(cardA, cardB, 10_00);
+        LedgerProjector projector = ledger.projector();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (projector.getProjectedSequence() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        projector.stop();
+
+        assertEquals(2, database.checkpoint);
+        assertEquals(80_00, database.cards.get(cardA).balanceMinor());
+    }
+
+    @Test
+    void tornRecord_isNotReplayed() throws IOException {
+        LedgerEngine engine = open(new ArrayList<>()::add);
+        engine.transfer(cardA, cardB, 10_00);
+        engine.transfer(cardA, cardB, 20_00);
+        crash();
+        // the last record was being written when the process died
+        try (Stream<Path> files = Files.list(directory)) {
+            WriteAheadLogTest.corrupt(files.findFirst().orElseThrow(), WriteAheadLog.RECORD_SIZE + 30);
+        }
+
+        LedgerEngine recovered = open(new ArrayList<>()::add);
+
+        assertEquals(90_00, recovered.getBalance(cardA));
+        assertEquals(10_00, recovered.getBalance(cardB));
+        assertEquals(1, log.lastSequence());
+    }
+
+    private LedgerEngine open(Consumer<LedgerRecord> listener) throws IOException {
+        log = new WriteAheadLog(directory, SEGMENT_SIZE);
+        List<LedgerRecord> records = log.replay(database.checkpoint);
+        LedgerEngine engine = new LedgerEngine(log, database.cards::get, listener, CLOCK);
+        engine.recover(records);
+        return engine;
+    }
+
+    private record Ledger(LedgerEngine engine, LedgerProjector projector) {}
+
+    /**
+     * Opens the ledger like the application does: replay, recover, then start the projection.
+     */
+    private Ledger openWithProjector() throws IOException {
+        log = new WriteAheadLog(directory, SEGMENT_SIZE);
+        List<LedgerRecord> records = log.replay(database.checkpoint);
+        LedgerProjector projector = new LedgerProjector(log, database, 10);
+        LedgerEngine engine = new LedgerEngine(log, database.cards::get, projector, CLOCK);
+        engine.recover(records);
+        projector.start();
+        return new Ledger(engine, projector);
+    }
+
+    /**
+     * Drops the engine: the log is closed only to release the file, nothing is flushed to the database.
+     */
+    private void crash() throws IOException {
+        log.close();
+        log = null;
+    }
+
+    private void assertMessage(String message, Runnable transfer) {
+        assertEquals(message, assertThrows(BadRequestException.class, transfer::run).getMessage());
+    }
+
+    /**
+     * The database side: card rows (balance and today's expenses), projected transfers and the checkpoint.
+     */
+    private static class FakeDatabase implements LedgerProjection {
+
+        private final Map<UUID, LedgerCard> cards = new ConcurrentHashMap<>();
+        private final Map<UUID, LedgerRecord> projectedTransfers = new ConcurrentHashMap<>();
+        private volatile long checkpoint;
+        private volatile int failures;
+
+        @Override
+        public long getCheckpoint() {
+            return checkpoint;
+        }
+
+        @Override
+        public synchronized void project(List<LedgerRecord> records) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database is unavailable");
+            }
+            for (LedgerRecord record : records) {
+                assertNull(projectedTransfers.put(record.transferId(), record), "projected twice");
+                LedgerCard source = cards.get(record.sourceCardId());
+                LedgerCard destination = cards.get(record.destinationCardId());
+                cards.put(source.id(), new LedgerCard(source.id(), source.ownerId(), source.active(),
+                        source.balanceMinor() - record.amountMinor(), source.dailyLimitMinor(),
+                        source.spendDate(), source.spentMinor() + record.amountMinor()));
+                cards.put(destination.id(), new LedgerCard(destination.id(), destination.ownerId(), destination.active(),
+                        destination.balanceMinor() + record.amountMinor(), destination.dailyLimitMinor(),
+                        destination.spendDate(), destination.spentMinor()));
+            }
+            checkpoint = records.get(records.size() - 1).sequence();
+        }
+    }
+}
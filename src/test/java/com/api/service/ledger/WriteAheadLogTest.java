@@ -0,0 +1,171 @@
+package com.api.service.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 10 * WriteAheadLog.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedRecords_areReplayedAfterReopen() throws IOException {
+        List<LedgerRecord> written;
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertTrue(log.replay(0).isEmpty());
+            written = appendRecords(log, 3);
+            log.sync(3);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertEquals(written, log.replay(0));
+            assertEquals(written.subList(1, 3), log.replay(1));
+            assertEquals(3, log.lastSequence());
+        }
+    }
+
+    @Test
+    void appendAfterReopen_continuesTheSequence() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            log.replay(0);
+            appendRecords(log, 2);
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            log.replay(0);
+            log.append(record(3));
+            assertThrows(IllegalStateException.class, () -> log.append(record(5)));
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertEquals(3, log.replay(0).size());
+        }
+    }
+
+    @Test
+    void tornRecord_endsTheLog() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            log.replay(0);
+            appendRecords(log, 3);
+        }
+        // crash in the middle of the third record
+        corrupt(singleSegment(), 2 * WriteAheadLog.RECORD_SIZE + 60);
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertEquals(2, log.replay(0).size());
+            assertEquals(2, log.lastSequence());
+            // the torn record is overwritten by the next one
+            log.append(record(3));
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertEquals(record(3), log.replay(0).get(2));
+        }
+    }
+
+    @Test
+    void fullSegment_isRotated_andProjectedSegmentsAreDeleted() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            log.replay(0);
+            appendRecords(log, 25);
+            assertEquals(3, segmentCount());
+
+            log.deleteUpTo(15);
+            assertEquals(2, segmentCount());
+            log.deleteUpTo(25);
+            // the current segment is kept
+            assertEquals(1, segmentCount());
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            List<LedgerRecord> records = log.replay(20);
+            assertEquals(5, records.size());
+            assertEquals(21, records.get(0).sequence());
+        }
+    }
+
+    @Test
+    void emptyDirectory_continuesAfterTheCheckpoint() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertTrue(log.replay(42).isEmpty());
+            log.append(record(43));
+        }
+        try (WriteAheadLog log = new WriteAheadLog(directory, SEGMENT_SIZE)) {
+            assertEquals(List.of(record(43)), log.replay(42));
+        }
+    }
+
+    @Test
+    void concurrentSyncs_shareFsyncs() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 1000 * WriteAheadLog.RECORD_SIZE)) {
+            log.replay(0);
+            AtomicLong sequences = new AtomicLong();
+            Object appendOrder = new Object();
+            ExecutorService callers = Executors.newFixedThreadPool(8);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(callers.submit(() -> {
+                    long sequence;
+                    synchronized (appendOrder) {
+                        sequence = sequences.incrementAndGet();
+                        log.append(record(sequence));
+                    }
+                    log.sync(sequence);
+                    assertTrue(log.durableSequence() >= sequence);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            callers.shutdown();
+            assertEquals(500, log.durableSequence());
+        }
+    }
+
+    private List<LedgerRecord> appendRecords(WriteAheadLog log, int count) {
+        List<LedgerRecord> records = Stream.iterate(log.lastSequence() + 1, sequence -> sequence + 1)
+                .limit(count)
+                .map(WriteAheadLogTest::record)
+                .toList();
+        records.forEach(log::append);
+        return records;
+    }
+
+    static LedgerRecord record(long sequence) {
+        return new LedgerRecord(sequence, new UUID(0, sequence), new UUID(1, sequence), new UUID(2, sequence),
+                sequence * 100, 1_700_000_000_000L + sequence);
+    }
+
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    static void corrupt(Path segment, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), position);
+        }
+    }
+}
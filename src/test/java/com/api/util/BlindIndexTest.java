@@ -0,0 +1,47 @@
+package com.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlindIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BlindIndex blindIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blindIndex = new BlindIndex(Files.writeString(tempDir.resolve("index-key.txt"), "index key\n").toString());
+    }
+
+    @Test
+    void hash_shouldBeStable_andIgnoreSeparators() {
+        String hash = blindIndex.hash("1111-2222-3333-4444");
+
+        assertEquals(64, hash.length());
+        assertTrue(hash.matches("[0-9a-f]{64}"));
+        // the cached MAC is reused by the next calls
+        assertEquals(hash, blindIndex.hash("1111-2222-3333-4444"));
+        assertEquals(hash, blindIndex.hash("1111 2222 3333 4444"));
+        assertNotEquals(hash, blindIndex.hash("1111-2222-3333-4445"));
+    }
+
+    @Test
+    void hash_shouldDependOnTheKey() throws Exception {
+        BlindIndex otherKey = new BlindIndex(Files.writeString(tempDir.resolve("other-key.txt"), "other key").toString());
+
+        assertNotEquals(blindIndex.hash("1111-2222-3333-4444"), otherKey.hash("1111-2222-3333-4444"));
+    }
+
+    @Test
+    void hash_withoutDigits_shouldBeNull() {
+        assertNull(blindIndex.hash(null));
+        assertNull(blindIndex.hash("****-****"));
+    }
+}
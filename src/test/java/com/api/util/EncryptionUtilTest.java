@@ -0,0 +1,93 @@
+package com.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptionUtilTest {
+
+    private static final String KEY = "0123456789abcdef";
+
+    @TempDir
+    Path tempDir;
+
+    private EncryptionUtil encryptionUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path keyFile = Files.writeString(tempDir.resolve("secret-key.txt"), KEY + "\n");
+        encryptionUtil = new EncryptionUtil(keyFile.toString());
+    }
+
+    @Test
+    void encrypt_shouldMatchAFreshCipher_andRoundTrip() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES"));
+        String expected = Base64.getEncoder().encodeToString(cipher.doFinal("1111-2222-3333-4444".getBytes(StandardCharsets.UTF_8)));
+
+        // the cached cipher is reused by the second call
+        assertEquals(expected, encryptionUtil.encrypt("1111-2222-3333-4444"));
+        assertEquals(expected, encryptionUtil.encrypt("1111-2222-3333-4444"));
+        assertEquals("1111-2222-3333-4444", encryptionUtil.decrypt(expected));
+    }
+
+    @Test
+    void batch_shouldMatchSingleCalls() {
+        List<String> numbers = List.of("1111-2222-3333-4444", "5555-6666-7777-8888", "");
+
+        List<String> encrypted = encryptionUtil.encryptAll(numbers);
+
+        assertEquals(numbers.size(), encrypted.size());
+        for (int i = 0; i < numbers.size(); i++) {
+            assertEquals(encryptionUtil.encrypt(numbers.get(i)), encrypted.get(i));
+        }
+        assertEquals(numbers, encryptionUtil.decryptAll(encrypted));
+    }
+
+    @Test
+    void failedDecryption_shouldNotBreakTheNextCalls() {
+        String encrypted = encryptionUtil.encrypt("1111-2222-3333-4444");
+
+        assertThrows(RuntimeException.class, () -> encryptionUtil.decrypt("not base64 !"));
+        assertThrows(RuntimeException.class, () -> encryptionUtil.decryptAll(List.of(encrypted, "AAAA")));
+        assertEquals("1111-2222-3333-4444", encryptionUtil.decrypt(encrypted));
+    }
+
+    @Test
+    void concurrentCalls_shouldUseTheirOwnCiphers() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(threads.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        String number = String.format("%04d-0000-0000-%04d", thread, i);
+                        if (!number.equals(encryptionUtil.decrypt(encryptionUtil.encrypt(number)))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.api.util;
+
+import com.api.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void toMinor_roundsHalfUpToCents() {
+        assertEquals(1234, Money.toMinor(new BigDecimal("12.34")));
+        assertEquals(1200, Money.toMinor(new BigDecimal("12")));
+        assertEquals(1235, Money.toMinor(new BigDecimal("12.345")));
+        assertEquals(-1235, Money.toMinor(new BigDecimal("-12.345")));
+        assertEquals(100, Money.toMinor(new BigDecimal("1E+0")));
+    }
+
+    @Test
+    void toMinor_failsOnOverflow() {
+        assertEquals(Long.MAX_VALUE, Money.toMinor(new BigDecimal("92233720368547758.07")));
+        assertThrows(BadRequestException.class, () -> Money.toMinor(new BigDecimal("92233720368547758.08")));
+        assertThrows(BadRequestException.class, () -> Money.toMinor(new BigDecimal("1E+30")));
+    }
+
+    @Test
+    void toMinorOrUnlimited_nullIsNoLimit() {
+        assertEquals(Long.MAX_VALUE, Money.toMinorOrUnlimited(null));
+        assertEquals(50000, Money.toMinorOrUnlimited(new BigDecimal("500.00")));
+    }
+
+    @Test
+    void toBigDecimal_hasTwoDecimalPlaces() {
+        assertEquals(new BigDecimal("12.34"), Money.toBigDecimal(1234));
+        assertEquals(new BigDecimal("-0.05"), Money.toBigDecimal(-5));
+        assertEquals(new BigDecimal("0.00"), Money.toBigDecimal(0));
+    }
+
+    @Test
+    void addAndSubtract_failOnOverflow() {
+        assertEquals(300, Money.add(100, 200));
+        assertEquals(-100, Money.subtract(100, 200));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.api.util;
+
+import com.api.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeekCursorTest {
+
+    @Test
+    void transactionCursor_roundTrips() {
+        LocalDateTime localDateTime = LocalDateTime.of(2025, 1, 1, 12, 30, 15, 123_456_000);
+        UUID id = UUID.randomUUID();
+
+        SeekCursor.TransactionKey key = SeekCursor.toTransactionKey(SeekCursor.ofTransaction(localDateTime, id));
+
+        assertEquals(localDateTime, key.localDateTime());
+        assertEquals(id, key.id());
+    }
+
+    @Test
+    void cardCursor_roundTrips() {
+        UUID id = UUID.randomUUID();
+
+        assertEquals(id, SeekCursor.toCardId(SeekCursor.ofCard(id)));
+    }
+
+    @Test
+    void cursor_isUrlSafe() {
+        String cursor = SeekCursor.ofTransaction(LocalDateTime.now(), UUID.randomUUID());
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void cursorOfAnotherListing_isRejected() {
+        String cardCursor = SeekCursor.ofCard(UUID.randomUUID());
+        String transactionCursor = SeekCursor.ofTransaction(LocalDateTime.now(), UUID.randomUUID());
+
+        assertThrows(BadRequestException.class, () -> SeekCursor.toTransactionKey(cardCursor));
+        assertThrows(BadRequestException.class, () -> SeekCursor.toCardId(transactionCursor));
+    }
+
+    @Test
+    void malformedCursor_isRejected() {
+        assertThrows(BadRequestException.class, () -> SeekCursor.toCardId("not base64!"));
+        assertThrows(BadRequestException.class, () -> SeekCursor.toCardId(""));
+        assertThrows(BadRequestException.class, () -> SeekCursor.toTransactionKey("dHxub3Q tYXRl"));
+    }
+
+    @Test
+    void pageSize_isBounded() {
+        SeekCursor.checkPageSize(1);
+        SeekCursor.checkPageSize(SeekCursor.MAX_PAGE_SIZE);
+
+        assertThrows(BadRequestException.class, () -> SeekCursor.checkPageSize(0));
+        assertThrows(BadRequestException.class, () -> SeekCursor.checkPageSize(SeekCursor.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.api.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void shouldFireAtTheFirstTickAtOrAfterTheDeadline(){
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 4, 3, START);
+        wheel.add("a", START + 2500);
+        List<String> due = new ArrayList<>();
+
+        wheel.advance(START + 2999, due::add);
+        assertTrue(due.isEmpty());
+        wheel.advance(START + 3000, due::add);
+        assertEquals(List.of("a"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void dueItem_shouldFireOnTheNextTick(){
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 4, 3, START);
+        wheel.add("a", START - 60_000);
+        List<String> due = new ArrayList<>();
+
+        wheel.advance(START + 1000, due::add);
+
+        assertEquals(List.of("a"), due);
+    }
+
+    @Test
+    void beyondSpan_shouldNotBeAdded(){
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 4, 3, START);
+
+        assertEquals(4095_000, wheel.spanMillis());
+        assertTrue(wheel.add("last", START + wheel.spanMillis()));
+        assertFalse(wheel.add("beyond", START + wheel.spanMillis() + 1000));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void shouldFireEveryItemOnItsTick_acrossTheLevels(){
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 3, 4, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = 1 + random.nextInt((int) wheel.spanMillis());
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        List<Long> fired = new ArrayList<>();
+        long now = 0;
+        while (now < wheel.spanMillis()) {
+            // uneven steps, as a late scheduler thread would advance it
+            now += 1 + random.nextInt(5);
+            int before = fired.size();
+            wheel.advance(now, fired::add);
+            for (Long deadline : fired.subList(before, fired.size())) {
+                assertTrue(deadline <= now && deadline > now - 5, "fired " + deadline + " at " + now);
+            }
+        }
+        assertEquals(deadlines.size(), fired.size());
+        assertEquals(0, wheel.size());
+    }
+}